@@ -0,0 +1,36 @@
+package ua.ddovgal.mangamonitoring.api;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Value object that identifies a user in scope of certain consumer. Unlike {@link AuthenticationData}, it has proper {@code equals} and
+ * {@code hashCode}, hence can be used as a map key. Two authentication data objects point to the same user if they are of the same class
+ * and have the same {@link AuthenticationData#getIdentifier()}.
+ */
+@Value(staticConstructor = "of")
+public class AuthenticationDataKey {
+
+    /**
+     * Concrete class of the authentication data, which defines the consumer scope.
+     */
+    @NonNull
+    Class<? extends AuthenticationData> type;
+
+    /**
+     * User identifier in scope of the consumer.
+     */
+    @NonNull
+    String identifier;
+
+    /**
+     * Creates a key of the provided {@code authData}.
+     *
+     * @param authData authentication data to create key of.
+     *
+     * @return key of the provided {@code authData}.
+     */
+    public static AuthenticationDataKey of(AuthenticationData authData) {
+        return of(authData.getClass(), authData.getIdentifier());
+    }
+}
@@ -23,4 +23,18 @@ public class ApplicationException extends Exception {
     public ApplicationException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Constructs a new exception with the specified detail message, cause, suppression enabled or disabled, and writable stack trace
+     * enabled or disabled. Intended for the exceptions, that describe an expected outcome rather than a programming error, and are thrown
+     * too often to pay for the stack trace.
+     *
+     * @param message            the detail message.
+     * @param cause              the cause.
+     * @param enableSuppression  whether suppression is enabled.
+     * @param writableStackTrace whether the stack trace should be writable.
+     */
+    protected ApplicationException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
 }
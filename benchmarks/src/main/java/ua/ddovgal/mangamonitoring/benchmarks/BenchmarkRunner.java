@@ -0,0 +1,21 @@
+package ua.ddovgal.mangamonitoring.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the {@code benchmarks.jar}. Accepts the usual JMH command line options, for example {@code -p stateCount=1000 -f 2
+ * StateMachineBenchmark}, and always adds the {@link GCProfiler}, so that the allocation rate is reported next to the throughput and
+ * latency.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder().parent(commandLineOptions).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,31 @@
+package ua.ddovgal.mangamonitoring.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ua.ddovgal.mangamonitoring.state.graph.GraphValidator;
+
+/**
+ * Measures {@link GraphValidator#checkBaseAcceptability(List)} of the whole graph. It's done once on startup, not per impact, but its cost
+ * grows fast with the number of states, hence it's measured as a single shot as well.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime, Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphValidatorBenchmark {
+
+    @Benchmark
+    public List<String> checkBaseAcceptability(SyntheticGraphState state) {
+        return GraphValidator.checkBaseAcceptability(state.graph.getDescriptors());
+    }
+}
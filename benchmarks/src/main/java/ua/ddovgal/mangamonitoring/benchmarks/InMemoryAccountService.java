@@ -0,0 +1,44 @@
+package ua.ddovgal.mangamonitoring.benchmarks;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import ua.ddovgal.mangamonitoring.api.AccountService;
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.domain.Account;
+import ua.ddovgal.mangamonitoring.domain.Privilege;
+
+/**
+ * {@link AccountService} stub, which answers with the same pre-built account to everyone, without any I/O. Hence, benchmarks measure the
+ * cost of the engine itself, not of the storage.
+ */
+public class InMemoryAccountService implements AccountService {
+
+    private final Account account = new Account();
+
+    /**
+     * Creates the stub, which accounts have the provided {@code privilege}.
+     *
+     * @param privilege privilege of the accounts.
+     */
+    public InMemoryAccountService(Privilege privilege) {
+        account.setId(UUID.randomUUID());
+        account.setPrivilege(privilege);
+    }
+
+    @Override
+    public Account registerNewAccount(AuthenticationData authData) {
+        return account;
+    }
+
+    @Override
+    public Optional<Account> getAssociatedAccount(AuthenticationData authData) {
+        return Optional.of(account);
+    }
+
+    @Override
+    public Stream<Account> getAllAccounts() {
+        return Stream.of(account);
+    }
+}
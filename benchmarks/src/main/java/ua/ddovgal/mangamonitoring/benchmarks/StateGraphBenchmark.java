@@ -0,0 +1,33 @@
+package ua.ddovgal.mangamonitoring.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ua.ddovgal.mangamonitoring.state.graph.ClassMappingStateGraph;
+import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+
+/**
+ * Measures {@link ClassMappingStateGraph#getDepartingTransitions(ua.ddovgal.mangamonitoring.state.State)}, the first step of every
+ * election.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateGraphBenchmark {
+
+    @Benchmark
+    public List<? extends DepartureDefinedTransition<?, ?, SyntheticImpact, Object>> getDepartingTransitions(SyntheticGraphState state,
+                                                                                                          SyntheticGraphState.Cursor cursor) {
+        return state.stateGraph.getDepartingTransitions(state.departures[cursor.next()]);
+    }
+}
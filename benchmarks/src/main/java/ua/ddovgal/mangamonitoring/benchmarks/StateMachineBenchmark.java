@@ -0,0 +1,86 @@
+package ua.ddovgal.mangamonitoring.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ua.ddovgal.mangamonitoring.state.SimpleStateMachine;
+import ua.ddovgal.mangamonitoring.state.StateMachine;
+import ua.ddovgal.mangamonitoring.state.dao.ConcurrentMapStateDao;
+import ua.ddovgal.mangamonitoring.state.election.OnlyPermittedTransitionFilter;
+import ua.ddovgal.mangamonitoring.state.election.OnlyTopByPriorityTransitionFilter;
+import ua.ddovgal.mangamonitoring.state.election.SimpleTransitionElector;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+
+/**
+ * Measures the whole {@link SimpleStateMachine#handleImpact(ua.ddovgal.mangamonitoring.state.Impact)}: state read, election, execution
+ * and state write. States are kept by the in-memory {@link ConcurrentMapStateDao}, accounts by the {@link InMemoryAccountService}, hence
+ * the engine overhead is measured, not the I/O.
+ * <p/>
+ * Each benchmark thread acts as a distinct user, that walks through the graph by the random, but always valid, impacts.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateMachineBenchmark {
+
+    @Benchmark
+    public Object handleImpact(Machine machine, User user) throws TransitionElectionException, TransitionExecutionException {
+        return machine.stateMachine.handleImpact(user.nextImpact());
+    }
+
+    @State(Scope.Benchmark)
+    public static class Machine {
+
+        private StateMachine<SyntheticImpact, Object> stateMachine;
+
+        @Setup(Level.Trial)
+        public void setUp(SyntheticGraphState state) {
+            SimpleTransitionElector<SyntheticImpact, Object> elector = new SimpleTransitionElector<>(
+                state.stateGraph,
+                List.of(new OnlyPermittedTransitionFilter<>(state.accountService), new OnlyTopByPriorityTransitionFilter<>()));
+            stateMachine = new SimpleStateMachine<>(new ConcurrentMapStateDao(), elector);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class User {
+
+        private static final AtomicInteger USERS_COUNT = new AtomicInteger();
+
+        private SyntheticImpact[] impacts;
+        private int position;
+
+        @Setup(Level.Trial)
+        public void setUp(SyntheticGraphState state) {
+            int userNumber = USERS_COUNT.incrementAndGet();
+            SyntheticAuthenticationData authData = new SyntheticAuthenticationData("user-" + userNumber);
+            Random random = new Random(userNumber);
+            impacts = new SyntheticImpact[SyntheticGraphState.INPUTS_COUNT];
+            for (int i = 0; i < impacts.length; i++) {
+                impacts[i] = new SyntheticImpact(authData, random.nextInt(state.fanOut));
+            }
+        }
+
+        private SyntheticImpact nextImpact() {
+            position = (position + 1) & (SyntheticGraphState.INPUTS_COUNT - 1);
+            return impacts[position];
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ua.ddovgal.mangamonitoring.benchmarks;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+
+/**
+ * Authentication data of the synthetic user, which {@code username} serves as an identifier.
+ */
+public class SyntheticAuthenticationData extends AuthenticationData {
+
+    /**
+     * Creates authentication data of the synthetic user.
+     *
+     * @param username username, that is also an identifier.
+     */
+    public SyntheticAuthenticationData(String username) {
+        super(username);
+    }
+
+    @Override
+    public String getIdentifier() {
+        return getUsername();
+    }
+
+    @Override
+    protected void processIdentifier(String identifier) {
+        // username is the identifier, nothing to process
+    }
+}
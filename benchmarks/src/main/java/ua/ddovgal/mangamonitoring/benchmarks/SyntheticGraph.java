@@ -0,0 +1,99 @@
+package ua.ddovgal.mangamonitoring.benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+import ua.ddovgal.mangamonitoring.domain.Privilege;
+import ua.ddovgal.mangamonitoring.state.NoInteractionsBeforeState;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.transition.LambdaDescribedTransitionDescriptor;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+
+/**
+ * Synthetic valid state graph of the given size and fan-out.
+ * <p/>
+ * The only initial transition leads to the state {@code 0}. Each state {@code i} has {@link #fanOut} departing transitions, transition
+ * {@code k} leads to the state {@code (i + 1 + k * stride) % stateCount} and is suitable only for the impact with {@link
+ * SyntheticImpact#getChoice()} equal to {@code k}. Thus, there is always exactly one suitable transition, every state is reachable and
+ * none of them is a dead-end. Transitions with odd {@code k} require {@link Privilege#PRIVILEGED_USER}, so that the permission checks
+ * (and account lookups) are part of the measured work.
+ * <p/>
+ * States hold no data, hence each state is represented by a single instance, which transitions return as the arrival.
+ */
+@Getter
+public class SyntheticGraph {
+
+    private final int stateCount;
+    private final int fanOut;
+    private final List<State> states;
+    private final List<TransitionDescriptor<?, ?, SyntheticImpact, Object>> descriptors;
+
+    /**
+     * Generates the graph.
+     *
+     * @param stateCount number of states, not counting the {@link NoInteractionsBeforeState}.
+     * @param fanOut     number of transitions departing from each state.
+     */
+    public SyntheticGraph(int stateCount, int fanOut) {
+        if (stateCount < 1 || fanOut < 1) {
+            throw new IllegalArgumentException("stateCount and fanOut must be positive");
+        }
+        this.stateCount = stateCount;
+        this.fanOut = fanOut;
+
+        states = new ArrayList<>(stateCount);
+        for (Class<? extends State> stateClass : SyntheticStateClasses.getClasses(stateCount)) {
+            states.add(instantiate(stateClass));
+        }
+
+        descriptors = new ArrayList<>(stateCount * fanOut + 1);
+        descriptors.add(descriptor(new NoInteractionsBeforeState(), states.get(0), -1, Privilege.COMMON_USER));
+        int stride = Math.max(1, stateCount / fanOut);
+        for (int i = 0; i < stateCount; i++) {
+            for (int k = 0; k < fanOut; k++) {
+                Privilege requiredPrivilege = k % 2 == 0 ? Privilege.COMMON_USER : Privilege.PRIVILEGED_USER;
+                descriptors.add(descriptor(states.get(i), states.get((i + 1 + k * stride) % stateCount), k, requiredPrivilege));
+            }
+        }
+    }
+
+    /**
+     * Returns the state of the provided index.
+     *
+     * @param index index of the state.
+     *
+     * @return state of the provided index.
+     */
+    public State getState(int index) {
+        return states.get(index);
+    }
+
+    /**
+     * Creates a descriptor between the provided states, which is suitable for the impact with the provided {@code choice}, or for any
+     * impact if {@code choice} is negative.
+     */
+    @SuppressWarnings("unchecked") // classes of the state objects are exactly what the descriptor is built for
+    private static TransitionDescriptor<?, ?, SyntheticImpact, Object> descriptor(State departure,
+                                                                               State arrival,
+                                                                               int choice,
+                                                                               Privilege requiredPrivilege) {
+        return LambdaDescribedTransitionDescriptor.<State, State, SyntheticImpact, Object>between((Class<State>) departure.getClass(),
+                                                                                                  (Class<State>) arrival.getClass())
+            .requiredPrivilege(requiredPrivilege)
+            .suitabilityCondition((state, impact) -> choice < 0 || impact.getChoice() == choice)
+            .executionFunction((state, impact) -> arrival)
+            .impactResultBuilder((state, arrived, impact) -> arrived)
+            .build();
+    }
+
+    private static State instantiate(Class<? extends State> stateClass) {
+        try {
+            return stateClass.getConstructor().newInstance();
+        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Couldn't instantiate synthetic state class=" + stateClass.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ua.ddovgal.mangamonitoring.benchmarks;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ua.ddovgal.mangamonitoring.api.AccountService;
+import ua.ddovgal.mangamonitoring.domain.Privilege;
+import ua.ddovgal.mangamonitoring.state.graph.ClassMappingStateGraph;
+import ua.ddovgal.mangamonitoring.state.graph.StateGraph;
+
+/**
+ * Benchmark state, shared by all the threads of the trial: the {@link SyntheticGraph} of the {@link #stateCount} states with the
+ * {@link #fanOut} departing transitions each, together with the pre-generated random departures and impacts to feed it with.
+ * <p/>
+ * Inputs are generated once per trial with the fixed seed, so that all the benchmarks and all the runs are fed with the same sequence, and
+ * the random number generation isn't measured.
+ */
+@State(Scope.Benchmark)
+public class SyntheticGraphState {
+
+    /**
+     * Number of the pre-generated inputs, power of two to make cycling over them cheap.
+     */
+    public static final int INPUTS_COUNT = 1 << 12;
+
+    private static final long SEED = 42;
+
+    @Param({ "10", "100", "1000", "10000" })
+    public int stateCount;
+
+    @Param({ "1", "4", "16" })
+    public int fanOut;
+
+    public SyntheticGraph graph;
+    public StateGraph<SyntheticImpact, Object> stateGraph;
+    public AccountService accountService;
+    public ua.ddovgal.mangamonitoring.state.State[] departures;
+    public SyntheticImpact[] impacts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = new SyntheticGraph(stateCount, fanOut);
+        stateGraph = new ClassMappingStateGraph<>(graph.getDescriptors());
+        accountService = new InMemoryAccountService(Privilege.PRIVILEGED_USER);
+
+        Random random = new Random(SEED);
+        SyntheticAuthenticationData authData = new SyntheticAuthenticationData("benchmark");
+        departures = new ua.ddovgal.mangamonitoring.state.State[INPUTS_COUNT];
+        impacts = new SyntheticImpact[INPUTS_COUNT];
+        for (int i = 0; i < INPUTS_COUNT; i++) {
+            departures[i] = graph.getState(random.nextInt(stateCount));
+            impacts[i] = new SyntheticImpact(authData, random.nextInt(fanOut));
+        }
+    }
+
+    /**
+     * Per-thread position in the pre-generated inputs.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int position;
+
+        /**
+         * Returns index of the next input to use.
+         *
+         * @return index of the next input to use.
+         */
+        public int next() {
+            position = (position + 1) & (INPUTS_COUNT - 1);
+            return position;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ua.ddovgal.mangamonitoring.benchmarks;
+
+import lombok.Value;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.Impact;
+
+/**
+ * Impact on the {@link SyntheticGraph}. Its {@link #choice} tells which one of the departing transitions is suitable.
+ */
+@Value
+public class SyntheticImpact implements Impact {
+
+    AuthenticationData initiatorAuthData;
+    int choice;
+}
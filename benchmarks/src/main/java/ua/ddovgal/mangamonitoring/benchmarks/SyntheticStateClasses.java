@@ -0,0 +1,123 @@
+package ua.ddovgal.mangamonitoring.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.experimental.UtilityClass;
+
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.graph.ClassMappingStateGraph;
+
+/**
+ * Source of the distinct {@link State} classes for the synthetic graphs. {@link ClassMappingStateGraph} tells states apart by their classes,
+ * hence a graph of 10 000 states requires 10 000 classes, and those are generated in the runtime.
+ * <p/>
+ * Each generated class is an empty {@code public final} class with a public no-args constructor, that implements {@link State}. Classes
+ * are defined once and reused by all the following graphs, since a class with the same name can't be defined twice.
+ */
+@UtilityClass
+public class SyntheticStateClasses {
+
+    private static final String NAME_PREFIX = SyntheticStateClasses.class.getPackageName().replace('.', '/') + "/SyntheticState";
+    private static final int JAVA_11_CLASS_FILE_VERSION = 55;
+
+    /**
+     * Defined classes, the class at index {@code i} is named {@code SyntheticState<i>}. Guarded by itself.
+     */
+    private static final List<Class<? extends State>> DEFINED = new ArrayList<>();
+
+    /**
+     * Returns first {@code count} synthetic state classes, defining the missing ones.
+     *
+     * @param count number of the required classes.
+     *
+     * @return list of distinct state classes.
+     */
+    public static List<Class<? extends State>> getClasses(int count) {
+        synchronized (DEFINED) {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            while (DEFINED.size() < count) {
+                try {
+                    DEFINED.add(lookup.defineClass(generateClassFile(NAME_PREFIX + DEFINED.size())).asSubclass(State.class));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Couldn't define synthetic state class", e);
+                }
+            }
+            return new ArrayList<>(DEFINED.subList(0, count));
+        }
+    }
+
+    /**
+     * Generates the bytes of the class file for the {@code public final class <internalName> implements State}.
+     */
+    private static byte[] generateClassFile(String internalName) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(JAVA_11_CLASS_FILE_VERSION);
+
+            // constant pool, indexes start from 1
+            out.writeShort(12);
+            writeUtf8(out, internalName);                                   // #1
+            writeClass(out, 1);                                             // #2 this class
+            writeUtf8(out, "java/lang/Object");                             // #3
+            writeClass(out, 3);                                             // #4 super class
+            writeUtf8(out, State.class.getName().replace('.', '/'));        // #5
+            writeClass(out, 5);                                             // #6 interface
+            writeUtf8(out, "<init>");                                       // #7
+            writeUtf8(out, "()V");                                          // #8
+            out.writeByte(12);                                              // #9 NameAndType <init>()V
+            out.writeShort(7);
+            out.writeShort(8);
+            out.writeByte(10);                                              // #10 Methodref Object.<init>()V
+            out.writeShort(4);
+            out.writeShort(9);
+            writeUtf8(out, "Code");                                         // #11
+
+            out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+            out.writeShort(2);
+            out.writeShort(4);
+            out.writeShort(1); // interfaces
+            out.writeShort(6);
+            out.writeShort(0); // fields
+
+            out.writeShort(1); // methods
+            out.writeShort(0x0001); // public
+            out.writeShort(7);
+            out.writeShort(8);
+            out.writeShort(1); // method attributes
+            out.writeShort(11);
+            out.writeInt(17); // Code attribute length
+            out.writeShort(1); // max stack
+            out.writeShort(1); // max locals
+            out.writeInt(5); // code length
+            out.writeByte(0x2A); // aload_0
+            out.writeByte(0xB7); // invokespecial #10
+            out.writeShort(10);
+            out.writeByte(0xB1); // return
+            out.writeShort(0); // exception table
+            out.writeShort(0); // code attributes
+
+            out.writeShort(0); // class attributes
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeUtf8(DataOutputStream out, String value) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(value);
+    }
+
+    private static void writeClass(DataOutputStream out, int nameIndex) throws IOException {
+        out.writeByte(7);
+        out.writeShort(nameIndex);
+    }
+}
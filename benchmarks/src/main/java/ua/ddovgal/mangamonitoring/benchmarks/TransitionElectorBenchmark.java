@@ -0,0 +1,82 @@
+package ua.ddovgal.mangamonitoring.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ua.ddovgal.mangamonitoring.state.election.FusedTransitionElector;
+import ua.ddovgal.mangamonitoring.state.election.OnlyPermittedTransitionFilter;
+import ua.ddovgal.mangamonitoring.state.election.OnlyTopByPriorityTransitionFilter;
+import ua.ddovgal.mangamonitoring.state.election.PriorityBucketTransitionElector;
+import ua.ddovgal.mangamonitoring.state.election.SimpleTransitionElector;
+import ua.ddovgal.mangamonitoring.state.election.TransitionElector;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+
+/**
+ * Measures {@link TransitionElector#electTransition(ua.ddovgal.mangamonitoring.state.State, ua.ddovgal.mangamonitoring.state.Impact)} of
+ * the {@link SimpleTransitionElector}, configured the usual way with {@link OnlyPermittedTransitionFilter} and {@link
+ * OnlyTopByPriorityTransitionFilter}. Electors, that elect the same transitions in fewer steps, are measured as well for comparison.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransitionElectorBenchmark {
+
+    @Benchmark
+    public DepartureDefinedTransition<?, ?, SyntheticImpact, Object> simple(SyntheticGraphState state,
+                                                                           Electors electors,
+                                                                           SyntheticGraphState.Cursor cursor)
+        throws TransitionElectionException {
+        int next = cursor.next();
+        return electors.simple.electTransition(state.departures[next], state.impacts[next]);
+    }
+
+    @Benchmark
+    public DepartureDefinedTransition<?, ?, SyntheticImpact, Object> fused(SyntheticGraphState state,
+                                                                          Electors electors,
+                                                                          SyntheticGraphState.Cursor cursor)
+        throws TransitionElectionException {
+        int next = cursor.next();
+        return electors.fused.electTransition(state.departures[next], state.impacts[next]);
+    }
+
+    @Benchmark
+    public DepartureDefinedTransition<?, ?, SyntheticImpact, Object> priorityBucket(SyntheticGraphState state,
+                                                                                   Electors electors,
+                                                                                   SyntheticGraphState.Cursor cursor)
+        throws TransitionElectionException {
+        int next = cursor.next();
+        return electors.priorityBucket.electTransition(state.departures[next], state.impacts[next]);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Electors {
+
+        private TransitionElector<SyntheticImpact, Object> simple;
+        private TransitionElector<SyntheticImpact, Object> fused;
+        private TransitionElector<SyntheticImpact, Object> priorityBucket;
+
+        @Setup(Level.Trial)
+        public void setUp(SyntheticGraphState state) {
+            OnlyPermittedTransitionFilter<SyntheticImpact, Object> onlyPermitted = new OnlyPermittedTransitionFilter<>(state.accountService);
+            OnlyTopByPriorityTransitionFilter<SyntheticImpact, Object> onlyTopByPriority = new OnlyTopByPriorityTransitionFilter<>();
+            simple = new SimpleTransitionElector<>(state.stateGraph, List.of(onlyPermitted, onlyTopByPriority));
+            fused = new FusedTransitionElector<>(state.stateGraph, List.of(onlyPermitted, onlyTopByPriority));
+            priorityBucket = new PriorityBucketTransitionElector<>(state.stateGraph, state.accountService);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package ua.ddovgal.mangamonitoring.core.component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import ua.ddovgal.mangamonitoring.core.ManagedComponent;
+import ua.ddovgal.mangamonitoring.core.exception.ApplicationStartupException;
+
+/**
+ * Built-in threading for {@link UserInputListener}s. Listener receives external requests in its own way, maps them to some work (for
+ * example, to the {@code StateMachine#handleImpact} call) and hands that work to this dispatcher, which runs it on a separate thread.
+ * <p/>
+ * On JDKs that have virtual threads, each dispatched task gets its own virtual thread, so blocking calls made by the task (to manga
+ * providers, database, etc.) don't hold scarce platform threads. On older JDKs, and on JDKs where virtual threads are a preview feature that
+ * isn't enabled, tasks are run on the executor from the fallback factory.
+ * <p/>
+ * The number of tasks that are dispatched but not completed yet is bounded by {@link #maxInFlight}. When the bound is reached, {@link
+ * #dispatch(Runnable)} blocks the listener thread till some task completes, which naturally slows down reading of the new input.
+ * <p/>
+ * Dispatcher is a {@link ManagedComponent} itself, and is intended to be started and stopped together with the listener that owns it. On
+ * {@link #stop()} it stops accepting new tasks and waits up to {@link #drainTimeout} for the already dispatched ones to complete.
+ */
+@Slf4j
+public class UserInputDispatcher implements ManagedComponent {
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadPerTaskExecutorFactory();
+
+    /**
+     * Maximal number of dispatched, but not completed yet tasks.
+     */
+    @Getter
+    private final int maxInFlight;
+
+    /**
+     * Maximal time {@link #stop()} waits for the already dispatched tasks to complete.
+     */
+    private final Duration drainTimeout;
+
+    /**
+     * Factory of the executor that is used when virtual threads are unavailable, or were explicitly refused.
+     */
+    private final Supplier<ExecutorService> fallbackExecutorFactory;
+
+    private final boolean preferVirtualThreads;
+    private final Semaphore inFlightPermits;
+    private final AtomicReference<ExecutorService> executor = new AtomicReference<>();
+
+    /**
+     * Creates dispatcher that prefers virtual threads, and falls back to the fixed thread pool of {@code maxInFlight} size on older JDKs.
+     *
+     * @param maxInFlight  maximal number of dispatched, but not completed yet tasks.
+     * @param drainTimeout maximal time {@link #stop()} waits for the already dispatched tasks to complete.
+     */
+    public UserInputDispatcher(int maxInFlight, @NonNull Duration drainTimeout) {
+        this(maxInFlight, drainTimeout, () -> Executors.newFixedThreadPool(maxInFlight), true);
+    }
+
+    /**
+     * Creates dispatcher.
+     *
+     * @param maxInFlight             maximal number of dispatched, but not completed yet tasks.
+     * @param drainTimeout            maximal time {@link #stop()} waits for the already dispatched tasks to complete.
+     * @param fallbackExecutorFactory factory of the executor to use when virtual threads are unavailable or not preferred.
+     * @param preferVirtualThreads    whether to use virtual threads when they are available.
+     */
+    public UserInputDispatcher(int maxInFlight,
+                               @NonNull Duration drainTimeout,
+                               @NonNull Supplier<ExecutorService> fallbackExecutorFactory,
+                               boolean preferVirtualThreads) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive, but was " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+        this.drainTimeout = drainTimeout;
+        this.fallbackExecutorFactory = fallbackExecutorFactory;
+        this.preferVirtualThreads = preferVirtualThreads;
+        this.inFlightPermits = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Returns whether current JDK is able to run tasks on virtual threads.
+     *
+     * @return whether current JDK is able to run tasks on virtual threads.
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    @Override
+    public void start() throws ApplicationStartupException {
+        ExecutorService virtualThreadExecutor = preferVirtualThreads ? createVirtualThreadExecutor() : null;
+        ExecutorService created = virtualThreadExecutor != null ? virtualThreadExecutor : fallbackExecutorFactory.get();
+        if (!executor.compareAndSet(null, created)) {
+            created.shutdown();
+            throw new ApplicationStartupException("Dispatcher was already started");
+        }
+        log.info("User input dispatcher started with maxInFlight={}, virtualThreads={}", maxInFlight, virtualThreadExecutor != null);
+    }
+
+    /**
+     * Runs the {@code task} on a separate thread. Blocks while there are already {@link #maxInFlight} uncompleted tasks.
+     * <p/>
+     * Any exception thrown by the task is logged and otherwise ignored, hence task should handle and respond to the expected failures by
+     * itself.
+     *
+     * @param task work to run.
+     *
+     * @return {@code true} if the task was dispatched, {@code false} if dispatcher isn't running (not started yet or already stopped).
+     *
+     * @throws InterruptedException if listener thread was interrupted while waiting for the free in-flight slot.
+     */
+    public boolean dispatch(@NonNull Runnable task) throws InterruptedException {
+        ExecutorService actualExecutor = executor.get();
+        if (actualExecutor == null || actualExecutor.isShutdown()) {
+            return false;
+        }
+
+        inFlightPermits.acquire();
+        try {
+            actualExecutor.execute(() -> runReleasingPermit(task));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // executor was shut down while waiting for the permit
+            inFlightPermits.release();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of dispatched, but not completed yet tasks.
+     *
+     * @return the number of dispatched, but not completed yet tasks.
+     */
+    public int getInFlightCount() {
+        return maxInFlight - inFlightPermits.availablePermits();
+    }
+
+    @Override
+    public void stop() {
+        ExecutorService actualExecutor = executor.get();
+        if (actualExecutor == null) {
+            return;
+        }
+
+        actualExecutor.shutdown();
+        try {
+            if (!actualExecutor.awaitTermination(drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Dispatched tasks weren't drained in {}, interrupting remained inFlight={}", drainTimeout, getInFlightCount());
+                shutdownNow(actualExecutor);
+            }
+        } catch (InterruptedException e) {
+            shutdownNow(actualExecutor);
+            Thread.currentThread().interrupt();
+        }
+        log.info("User input dispatcher stopped");
+    }
+
+    /**
+     * Interrupts the running tasks and drops the queued ones. Dropped tasks never run, hence their permits are released here, otherwise the
+     * listener, waiting for the permit in {@link #dispatch(Runnable)}, would never get one.
+     */
+    private void shutdownNow(ExecutorService actualExecutor) {
+        List<Runnable> dropped = actualExecutor.shutdownNow();
+        inFlightPermits.release(dropped.size());
+    }
+
+    private void runReleasingPermit(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            log.error("Dispatched task failed", e);
+        } finally {
+            inFlightPermits.release();
+        }
+    }
+
+    /**
+     * Creates the virtual thread executor, or returns {@code null} if it's unavailable. Even when the factory method is found, it may fail,
+     * for example, on JDK 19 and 20 virtual threads are a preview feature, which throws {@link UnsupportedOperationException} unless
+     * enabled by the {@code --enable-preview}.
+     */
+    private ExecutorService createVirtualThreadExecutor() {
+        if (!isVirtualThreadsSupported()) {
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+            log.warn("Couldn't create virtual thread executor, falling back to the platform threads", cause);
+            return null;
+        }
+    }
+
+    /**
+     * Looks up {@code Executors#newVirtualThreadPerTaskExecutor}, since the module is still compiled for the JDK that doesn't have it.
+     */
+    private static Method findVirtualThreadPerTaskExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -19,5 +19,8 @@ import ua.ddovgal.mangamonitoring.core.ManagedComponent;
  * <p>
  * For external systems whose user interaction involves some intermediate steps, {@code ua.ddovgal.manga-monitoring:states} module could be
  * used. It provides the ability to implement stateful interaction. See the key module class {@code StateMachine} for more details.
+ * <p>
+ * To not invent own threading for handling of the received requests, implementation could use {@link UserInputDispatcher}, which runs
+ * each request handling on a virtual thread (or on a configured executor on older JDKs) with a bounded number of requests in flight.
  */
 public interface UserInputListener extends ManagedComponent {}
\ No newline at end of file
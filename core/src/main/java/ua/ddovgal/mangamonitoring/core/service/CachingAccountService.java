@@ -0,0 +1,143 @@
+package ua.ddovgal.mangamonitoring.core.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import ua.ddovgal.mangamonitoring.api.AccountService;
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.api.AuthenticationDataKey;
+import ua.ddovgal.mangamonitoring.domain.Account;
+
+/**
+ * {@link AccountService} decorator that caches results of the {@link #getAssociatedAccount(AuthenticationData)}, which is called for almost
+ * each user interaction.
+ * <p/>
+ * Results are cached by {@link AuthenticationDataKey}, so different authentication data objects of the same user share the cached account.
+ * Cache keeps at most {@link #maxCachedAccounts} entries, evicting the least recently used ones. Found account is cached for {@link
+ * #timeToLive}, while absence of the account is cached for {@link #negativeTimeToLive}, which is expected to be shorter.
+ * <p/>
+ * {@link #registerNewAccount(AuthenticationData)} replaces whatever was cached for the user with the registered account. If accounts are
+ * changed somehow else, use {@link #invalidate(AuthenticationData)} or {@link #invalidateAll()}. Keep in mind, cached {@link Account}
+ * objects are shared between callers, hence they must not be modified.
+ */
+public class CachingAccountService implements AccountService {
+
+    private final AccountService delegate;
+    private final int maxCachedAccounts;
+    private final long timeToLive;
+    private final long negativeTimeToLive;
+
+    /**
+     * Access ordered, hence iteration starts from the least recently used entry. Guarded by itself.
+     */
+    private final LinkedHashMap<AuthenticationDataKey, CachedAccount> cache;
+
+    /**
+     * Creates a caching decorator of the {@code delegate}.
+     *
+     * @param delegate           the actual account service.
+     * @param maxCachedAccounts  maximal number of cached entries.
+     * @param timeToLive         time, during which found account is considered actual.
+     * @param negativeTimeToLive time, during which absence of the account is considered actual.
+     */
+    public CachingAccountService(@NonNull AccountService delegate,
+                                 int maxCachedAccounts,
+                                 @NonNull Duration timeToLive,
+                                 @NonNull Duration negativeTimeToLive) {
+        if (maxCachedAccounts < 1) {
+            throw new IllegalArgumentException("maxCachedAccounts must be positive, but was " + maxCachedAccounts);
+        }
+        this.delegate = delegate;
+        this.maxCachedAccounts = maxCachedAccounts;
+        this.timeToLive = timeToLive.toNanos();
+        this.negativeTimeToLive = negativeTimeToLive.toNanos();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<AuthenticationDataKey, CachedAccount> eldest) {
+                return size() > CachingAccountService.this.maxCachedAccounts;
+            }
+        };
+    }
+
+    @Override
+    public Account registerNewAccount(AuthenticationData authData) {
+        AuthenticationDataKey key = AuthenticationDataKey.of(authData);
+        invalidate(key);
+        Account account = delegate.registerNewAccount(authData);
+        put(key, account, System.nanoTime());
+        return account;
+    }
+
+    @Override
+    public Optional<Account> getAssociatedAccount(AuthenticationData authData) {
+        AuthenticationDataKey key = AuthenticationDataKey.of(authData);
+        long now = System.nanoTime();
+
+        synchronized (cache) {
+            CachedAccount cached = cache.get(key);
+            if (cached != null && now < cached.expiresAt) {
+                return Optional.ofNullable(cached.account);
+            }
+        }
+
+        Optional<Account> account = delegate.getAssociatedAccount(authData);
+        put(key, account.orElse(null), now);
+        return account;
+    }
+
+    @Override
+    public Stream<Account> getAllAccounts() {
+        return delegate.getAllAccounts();
+    }
+
+    /**
+     * Forgets whatever was cached for the user of the {@code authData}.
+     *
+     * @param authData authentication data of the user to forget.
+     */
+    public void invalidate(AuthenticationData authData) {
+        invalidate(AuthenticationDataKey.of(authData));
+    }
+
+    /**
+     * Forgets everything that was cached.
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private void invalidate(AuthenticationDataKey key) {
+        synchronized (cache) {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Caches the {@code account}, unless something newer was cached for the same key after the {@code loadedAt} moment.
+     */
+    private void put(AuthenticationDataKey key, Account account, long loadedAt) {
+        long expiresAt = loadedAt + (account == null ? negativeTimeToLive : timeToLive);
+        synchronized (cache) {
+            CachedAccount cached = cache.get(key);
+            if (cached == null || cached.loadedAt <= loadedAt) {
+                cache.put(key, new CachedAccount(account, loadedAt, expiresAt));
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class CachedAccount {
+
+        private final Account account;
+        private final long loadedAt;
+        private final long expiresAt;
+    }
+}
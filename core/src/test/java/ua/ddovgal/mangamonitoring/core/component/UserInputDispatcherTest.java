@@ -0,0 +1,164 @@
+package ua.ddovgal.mangamonitoring.core.component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import ua.ddovgal.mangamonitoring.core.exception.ApplicationStartupException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class UserInputDispatcherTest {
+
+    private static final Duration LONG_TIME = Duration.ofMinutes(1);
+
+    private final ExecutorService listeners = Executors.newCachedThreadPool();
+    private final CountDownLatch blockerStarted = new CountDownLatch(1);
+    private final CountDownLatch blockerReleased = new CountDownLatch(1);
+
+    @AfterEach
+    void stopListeners() throws InterruptedException {
+        blockerReleased.countDown();
+        listeners.shutdownNow();
+        listeners.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void dispatch_maxInFlightReached_blocksTillTaskCompleted()
+        throws ApplicationStartupException, InterruptedException, ExecutionException, TimeoutException {
+        UserInputDispatcher dispatcher = new UserInputDispatcher(1, LONG_TIME);
+        dispatcher.start();
+        assertThat(dispatcher.dispatch(this::block)).isTrue();
+        blockerStarted.await();
+
+        CompletableFuture<Boolean> blockedDispatch = dispatchInBackground(dispatcher, () -> {});
+
+        assertThatExceptionOfType(TimeoutException.class).isThrownBy(() -> blockedDispatch.get(100, TimeUnit.MILLISECONDS));
+        assertThat(dispatcher.getInFlightCount()).isOne();
+        blockerReleased.countDown();
+        assertThat(blockedDispatch.get(1, TimeUnit.SECONDS)).isTrue();
+        dispatcher.stop();
+    }
+
+    @Test
+    void stop_tasksInFlight_waitsForCompletion() throws ApplicationStartupException, InterruptedException {
+        UserInputDispatcher dispatcher = new UserInputDispatcher(2, LONG_TIME);
+        dispatcher.start();
+        AtomicBoolean completed = new AtomicBoolean();
+        dispatcher.dispatch(() -> {
+            block();
+            completed.set(true);
+        });
+        blockerStarted.await();
+        listeners.execute(() -> {
+            sleep(100);
+            blockerReleased.countDown();
+        });
+
+        dispatcher.stop();
+
+        assertThat(completed).isTrue();
+        assertThat(dispatcher.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void dispatch_notStartedOrStopped_returnsFalse() throws ApplicationStartupException, InterruptedException {
+        UserInputDispatcher dispatcher = new UserInputDispatcher(1, LONG_TIME);
+        assertThat(dispatcher.dispatch(() -> {})).isFalse();
+        dispatcher.start();
+
+        dispatcher.stop();
+
+        assertThat(dispatcher.dispatch(() -> {})).isFalse();
+        assertThat(dispatcher.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void dispatch_virtualThreadsNotPreferred_runOnFallbackExecutor()
+        throws ApplicationStartupException, InterruptedException, ExecutionException, TimeoutException {
+        UserInputDispatcher dispatcher = new UserInputDispatcher(1, LONG_TIME, () -> Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "fallback");
+            thread.setDaemon(true);
+            return thread;
+        }), false);
+        dispatcher.start();
+        CompletableFuture<String> threadName = new CompletableFuture<>();
+
+        dispatcher.dispatch(() -> threadName.complete(Thread.currentThread().getName()));
+
+        assertThat(threadName.get(1, TimeUnit.SECONDS)).isEqualTo("fallback");
+        dispatcher.stop();
+    }
+
+    @Test
+    void stop_drainTimedOutWithQueuedTasks_waitingListenerReleased()
+        throws ApplicationStartupException, InterruptedException, ExecutionException, TimeoutException {
+        // the only thread runs the blocker, so the second task stays queued and is dropped on stop
+        UserInputDispatcher dispatcher = new UserInputDispatcher(2, Duration.ofMillis(100), Executors::newSingleThreadExecutor, false);
+        dispatcher.start();
+        AtomicBoolean queuedTaskRun = new AtomicBoolean();
+        // ignores the interruption, so only the dropped task can free the permit
+        dispatcher.dispatch(this::blockUninterruptibly);
+        dispatcher.dispatch(() -> queuedTaskRun.set(true));
+        blockerStarted.await();
+        CompletableFuture<Boolean> waitingDispatch = dispatchInBackground(dispatcher, () -> {});
+
+        dispatcher.stop();
+
+        assertThat(waitingDispatch.get(1, TimeUnit.SECONDS)).isFalse();
+        assertThat(queuedTaskRun).isFalse();
+        // only the blocker is still running
+        assertThat(dispatcher.getInFlightCount()).isOne();
+    }
+
+    private CompletableFuture<Boolean> dispatchInBackground(UserInputDispatcher dispatcher, Runnable task) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        listeners.execute(() -> {
+            try {
+                result.complete(dispatcher.dispatch(task));
+            } catch (InterruptedException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private void block() {
+        blockerStarted.countDown();
+        try {
+            blockerReleased.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void blockUninterruptibly() {
+        blockerStarted.countDown();
+        boolean released = false;
+        while (!released) {
+            try {
+                released = blockerReleased.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                // keep blocking
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package ua.ddovgal.mangamonitoring.core.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import ua.ddovgal.mangamonitoring.api.AccountService;
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.domain.Account;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingAccountServiceTest {
+
+    private static final Duration LONG_TIME = Duration.ofHours(1);
+
+    private final Account account = new Account();
+
+    @Mock
+    private AccountService delegate;
+
+    @Test
+    void getAssociatedAccount_cachedAccountOfSameUser_returnedWithoutDelegateCall() {
+        when(delegate.getAssociatedAccount(any())).thenReturn(Optional.of(account));
+        CachingAccountService accountService = new CachingAccountService(delegate, 10, LONG_TIME, LONG_TIME);
+
+        assertThat(accountService.getAssociatedAccount(new TestAuthenticationData("alice"))).containsSame(account);
+        // different object of the same user
+        assertThat(accountService.getAssociatedAccount(new TestAuthenticationData("alice"))).containsSame(account);
+
+        verify(delegate).getAssociatedAccount(any());
+    }
+
+    @Test
+    void getAssociatedAccount_timeToLiveElapsed_accountLoadedAgain() {
+        when(delegate.getAssociatedAccount(any())).thenReturn(Optional.of(account));
+        CachingAccountService accountService = new CachingAccountService(delegate, 10, Duration.ZERO, LONG_TIME);
+
+        accountService.getAssociatedAccount(new TestAuthenticationData("alice"));
+        accountService.getAssociatedAccount(new TestAuthenticationData("alice"));
+
+        verify(delegate, times(2)).getAssociatedAccount(any());
+    }
+
+    @Test
+    void getAssociatedAccount_unknownUserAndShorterNegativeTimeToLive_absenceExpiresFirst() {
+        AuthenticationData alice = new TestAuthenticationData("alice");
+        AuthenticationData bob = new TestAuthenticationData("bob");
+        when(delegate.getAssociatedAccount(alice)).thenReturn(Optional.of(account));
+        when(delegate.getAssociatedAccount(bob)).thenReturn(Optional.empty());
+        CachingAccountService accountService = new CachingAccountService(delegate, 10, LONG_TIME, Duration.ZERO);
+
+        accountService.getAssociatedAccount(alice);
+        accountService.getAssociatedAccount(alice);
+        assertThat(accountService.getAssociatedAccount(bob)).isEmpty();
+        assertThat(accountService.getAssociatedAccount(bob)).isEmpty();
+
+        verify(delegate).getAssociatedAccount(alice);
+        verify(delegate, times(2)).getAssociatedAccount(bob);
+    }
+
+    @Test
+    void getAssociatedAccount_maxCachedAccountsExceeded_leastRecentlyUsedEvicted() {
+        AuthenticationData alice = new TestAuthenticationData("alice");
+        AuthenticationData bob = new TestAuthenticationData("bob");
+        AuthenticationData carol = new TestAuthenticationData("carol");
+        when(delegate.getAssociatedAccount(any())).thenReturn(Optional.of(account));
+        CachingAccountService accountService = new CachingAccountService(delegate, 2, LONG_TIME, LONG_TIME);
+
+        accountService.getAssociatedAccount(alice);
+        accountService.getAssociatedAccount(bob);
+        // alice becomes the most recently used, so bob is evicted
+        accountService.getAssociatedAccount(alice);
+        accountService.getAssociatedAccount(carol);
+        accountService.getAssociatedAccount(alice);
+        accountService.getAssociatedAccount(bob);
+
+        verify(delegate).getAssociatedAccount(alice);
+        verify(delegate, times(2)).getAssociatedAccount(bob);
+        verify(delegate).getAssociatedAccount(carol);
+    }
+
+    @Test
+    void registerNewAccount_absenceCached_registeredAccountReturned() {
+        AuthenticationData alice = new TestAuthenticationData("alice");
+        when(delegate.getAssociatedAccount(alice)).thenReturn(Optional.empty());
+        when(delegate.registerNewAccount(alice)).thenReturn(account);
+        CachingAccountService accountService = new CachingAccountService(delegate, 10, LONG_TIME, LONG_TIME);
+        assertThat(accountService.getAssociatedAccount(alice)).isEmpty();
+
+        assertThat(accountService.registerNewAccount(alice)).isSameAs(account);
+
+        assertThat(accountService.getAssociatedAccount(alice)).containsSame(account);
+        verify(delegate).getAssociatedAccount(alice);
+    }
+
+    @Test
+    void invalidate_cachedAccounts_loadedAgain() {
+        AuthenticationData alice = new TestAuthenticationData("alice");
+        AuthenticationData bob = new TestAuthenticationData("bob");
+        when(delegate.getAssociatedAccount(any())).thenReturn(Optional.of(account));
+        CachingAccountService accountService = new CachingAccountService(delegate, 10, LONG_TIME, LONG_TIME);
+        accountService.getAssociatedAccount(alice);
+        accountService.getAssociatedAccount(bob);
+
+        accountService.invalidate(alice);
+        accountService.getAssociatedAccount(alice);
+        accountService.getAssociatedAccount(bob);
+        accountService.invalidateAll();
+        accountService.getAssociatedAccount(alice);
+        accountService.getAssociatedAccount(bob);
+
+        verify(delegate, times(3)).getAssociatedAccount(alice);
+        verify(delegate, times(2)).getAssociatedAccount(bob);
+    }
+
+    @Test
+    void getAssociatedAccount_loadedBeforeConcurrentRegistration_registeredAccountNotOverwritten()
+        throws InterruptedException, ExecutionException {
+        AuthenticationData alice = new TestAuthenticationData("alice");
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch registered = new CountDownLatch(1);
+        when(delegate.getAssociatedAccount(alice)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            registered.await();
+            return Optional.empty();
+        });
+        when(delegate.registerNewAccount(alice)).thenReturn(account);
+        CachingAccountService accountService = new CachingAccountService(delegate, 10, LONG_TIME, LONG_TIME);
+
+        CompletableFuture<Optional<Account>> slowLoad = CompletableFuture.supplyAsync(() -> accountService.getAssociatedAccount(alice));
+        loadStarted.await();
+        accountService.registerNewAccount(alice);
+        registered.countDown();
+
+        assertThat(slowLoad.get()).isEmpty();
+        assertThat(accountService.getAssociatedAccount(alice)).containsSame(account);
+        verify(delegate).getAssociatedAccount(alice);
+    }
+
+    private static final class TestAuthenticationData extends AuthenticationData {
+
+        private TestAuthenticationData(String username) {
+            super(username);
+        }
+
+        @Override
+        public String getIdentifier() {
+            return getUsername();
+        }
+
+        @Override
+        protected void processIdentifier(String identifier) {
+            // identifier is the username itself
+        }
+    }
+}
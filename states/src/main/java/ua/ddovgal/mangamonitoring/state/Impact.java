@@ -1,6 +1,7 @@
 package ua.ddovgal.mangamonitoring.state;
 
 import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
 
 /**
  * Impact describes some kind of request or update that was come into the {@link StateMachine} from an external system.
@@ -15,4 +16,32 @@ public interface Impact {
      * @return authentication data for an external impact initiator.
      */
     AuthenticationData getInitiatorAuthData();
+
+    /**
+     * Returns the discriminator of this impact, such as a command word or a callback data prefix. Only the transitions with the same
+     * {@link TransitionDescriptor#getDiscriminator()}, and the transitions without any discriminator at all, can be suitable for this
+     * impact. Hence, the graph is able to pick the candidate transitions by a single hash lookup, instead of checking each of them.
+     * <p/>
+     * Default implementation returns {@code null}, meaning that the impact has no discriminator, and only the transitions without
+     * discriminator can be suitable for it.
+     *
+     * @return the discriminator of this impact, or {@code null} if there is no one.
+     */
+    default String getDiscriminator() {
+        return null;
+    }
+
+    /**
+     * Returns the idempotency key of this impact, such as an update id of the source, which stays the same when the source re-delivers
+     * the impact after reconnect or retry. Impacts of the same initiator with the same key are considered duplicates, see {@link
+     * ua.ddovgal.mangamonitoring.state.concurrent.DeduplicatingStateMachine}.
+     * <p/>
+     * Default implementation returns {@code null}, meaning that the impact can't be told apart from the other ones, and is never
+     * considered a duplicate.
+     *
+     * @return the idempotency key of this impact, or {@code null} if there is no one.
+     */
+    default String getIdempotencyKey() {
+        return null;
+    }
 }
@@ -0,0 +1,176 @@
+package ua.ddovgal.mangamonitoring.state;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import ua.ddovgal.mangamonitoring.state.election.ElectionOutcome;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+
+/**
+ * Outcome of the impact handling, returned by the {@link StateMachine#tryHandleImpact(Impact)} instead of throwing exceptions. It's always
+ * one of the four: {@link Handled}, {@link Unmatched}, {@link Ambiguous} or {@link Failed}, there are no other subclasses.
+ * <p/>
+ * {@link Unmatched} is a shared instance, hence an impact, which matches no transition, costs no allocation at all.
+ *
+ * @param <R> type of the impact result.
+ */
+public abstract class ImpactOutcome<R> {
+
+    private static final Unmatched<?> UNMATCHED = new Unmatched<>();
+
+    private ImpactOutcome() {}
+
+    /**
+     * Creates outcome of the successfully handled impact.
+     *
+     * @param result impact result.
+     * @param <R>    type of the impact result.
+     *
+     * @return outcome of the successfully handled impact.
+     */
+    public static <R> ImpactOutcome<R> handled(R result) {
+        return new Handled<>(result);
+    }
+
+    /**
+     * Returns outcome of the impact, which matched no transition.
+     *
+     * @param <R> type of the impact result.
+     *
+     * @return outcome of the impact, which matched no transition.
+     */
+    @SuppressWarnings("unchecked") // Unmatched holds nothing of the R type
+    public static <R> ImpactOutcome<R> unmatched() {
+        return (ImpactOutcome<R>) UNMATCHED;
+    }
+
+    /**
+     * Creates outcome of the impact, which failed on the transition execution.
+     *
+     * @param failure execution failure.
+     * @param <R>     type of the impact result.
+     *
+     * @return outcome of the failed execution.
+     */
+    public static <R> ImpactOutcome<R> failed(@NonNull TransitionExecutionException failure) {
+        return new Failed<>(failure);
+    }
+
+    /**
+     * Converts the outcome of the failed election.
+     *
+     * @param electionOutcome outcome of the election, which elected nothing or more than one transition.
+     * @param <R>             type of the impact result.
+     *
+     * @return {@link Unmatched} or {@link Ambiguous} outcome.
+     *
+     * @throws IllegalArgumentException if the {@code electionOutcome} is successful.
+     */
+    public static <R> ImpactOutcome<R> of(@NonNull ElectionOutcome<?, ?> electionOutcome) {
+        if (electionOutcome instanceof ElectionOutcome.Ambiguous) {
+            return new Ambiguous<>(((ElectionOutcome.Ambiguous<?, ?>) electionOutcome).getElectedDescriptors());
+        }
+        if (electionOutcome instanceof ElectionOutcome.None) {
+            return unmatched();
+        }
+        throw new IllegalArgumentException("Successful election isn't an impact outcome");
+    }
+
+    /**
+     * Converts the exception of the failed election.
+     *
+     * @param failure election failure.
+     * @param <R>     type of the impact result.
+     *
+     * @return {@link Unmatched} or {@link Ambiguous} outcome.
+     */
+    public static <R> ImpactOutcome<R> of(@NonNull TransitionElectionException failure) {
+        return failure.isZeroElected() ? unmatched() : new Ambiguous<>(failure.getElectedDescriptors());
+    }
+
+    /**
+     * Returns {@code true} if the impact was handled successfully.
+     *
+     * @return {@code true} if the impact was handled successfully, or else {@code false}.
+     */
+    public abstract boolean isHandled();
+
+    /**
+     * Outcome of the successfully handled impact.
+     *
+     * @param <R> type of the impact result.
+     */
+    public static final class Handled<R> extends ImpactOutcome<R> {
+
+        @Getter
+        private final R result;
+
+        private Handled(R result) {
+            this.result = result;
+        }
+
+        @Override
+        public boolean isHandled() {
+            return true;
+        }
+    }
+
+    /**
+     * Outcome of the impact, which matched no transition.
+     *
+     * @param <R> type of the impact result.
+     */
+    public static final class Unmatched<R> extends ImpactOutcome<R> {
+
+        private Unmatched() {}
+
+        @Override
+        public boolean isHandled() {
+            return false;
+        }
+    }
+
+    /**
+     * Outcome of the impact, which matched more than one transition.
+     *
+     * @param <R> type of the impact result.
+     */
+    public static final class Ambiguous<R> extends ImpactOutcome<R> {
+
+        @Getter
+        private final List<TransitionDescriptor<?, ?, ?, ?>> electedDescriptors;
+
+        private Ambiguous(List<TransitionDescriptor<?, ?, ?, ?>> electedDescriptors) {
+            this.electedDescriptors = electedDescriptors;
+        }
+
+        @Override
+        public boolean isHandled() {
+            return false;
+        }
+    }
+
+    /**
+     * Outcome of the impact, which failed on the transition execution.
+     *
+     * @param <R> type of the impact result.
+     */
+    public static final class Failed<R> extends ImpactOutcome<R> {
+
+        @Getter
+        private final TransitionExecutionException failure;
+
+        private Failed(TransitionExecutionException failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public boolean isHandled() {
+            return false;
+        }
+    }
+}
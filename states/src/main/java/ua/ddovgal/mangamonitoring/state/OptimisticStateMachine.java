@@ -0,0 +1,131 @@
+package ua.ddovgal.mangamonitoring.state;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import ua.ddovgal.mangamonitoring.state.election.TransitionElector;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+import ua.ddovgal.mangamonitoring.state.metrics.StateMachineMetrics;
+import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionResult;
+
+/**
+ * Lock-free mode of the {@link SimpleStateMachine}. Impacts of the same user are allowed to be handled concurrently, by different threads
+ * or even different application nodes, and still none of them silently overwrites the state, set by the other one.
+ * <p/>
+ * State is read together with its version, and the arrival state is set only if the version is still the same. Otherwise, the state was
+ * changed by some concurrently handled impact, hence the transition is elected once again, from the actual state, and executed once again.
+ * This repeats till the state is set or {@link #maxAttempts} attempts are made.
+ * <p/>
+ * Keep in mind, transition may be executed several times for the same impact, hence the effects that transition execution has outside the
+ * state machine should be safe to repeat.
+ *
+ * @param <I> type of the incoming impact that should be handled.
+ * @param <R> type of the impact result.
+ */
+@Slf4j
+public class OptimisticStateMachine<I extends Impact, R> extends SimpleStateMachine<I, R> {
+
+    /**
+     * Error code of the {@link TransitionExecutionException}, thrown when the state was changed concurrently on each of the attempts.
+     */
+    public static final String STATE_CONFLICT_CODE = "stateConflict_01";
+
+    private final VersionedStateDao versionedStateDao;
+
+    /**
+     * Maximal number of election and execution attempts, made for one impact.
+     */
+    @Getter
+    private final int maxAttempts;
+
+    /**
+     * Creates state machine.
+     *
+     * @param stateDao          versioned states storage.
+     * @param transitionElector elector of the transitions.
+     * @param maxAttempts       maximal number of election and execution attempts, made for one impact.
+     */
+    public OptimisticStateMachine(@NonNull VersionedStateDao stateDao, @NonNull TransitionElector<I, R> transitionElector, int maxAttempts) {
+        this(stateDao, transitionElector, StateMachineMetrics.NOOP, maxAttempts);
+    }
+
+    /**
+     * Creates state machine.
+     *
+     * @param stateDao          versioned states storage.
+     * @param transitionElector elector of the transitions.
+     * @param metrics           receiver of the transition execution durations.
+     * @param maxAttempts       maximal number of election and execution attempts, made for one impact.
+     */
+    public OptimisticStateMachine(@NonNull VersionedStateDao stateDao,
+                                  @NonNull TransitionElector<I, R> transitionElector,
+                                  @NonNull StateMachineMetrics metrics,
+                                  int maxAttempts) {
+        super(stateDao, transitionElector, metrics);
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be positive, but was " + maxAttempts);
+        }
+        this.versionedStateDao = stateDao;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public R handleImpact(I impact) throws TransitionElectionException, TransitionExecutionException {
+        log.info("Handling impact={}", impact);
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            VersionedState current = versionedStateDao.getStateVersioned(impact.getInitiatorAuthData());
+            State currentState = current.getState().orElse(new NoInteractionsBeforeState());
+            log.info("currentState={}; version={}", currentState, current.getVersion());
+
+            DepartureDefinedTransition<?, ?, I, R> electedTransition = transitionElector.electTransition(currentState, impact);
+            TransitionResult<?, ?, I, R> transitionResult = execute(electedTransition, impact);
+
+            if (versionedStateDao.compareAndSetState(impact.getInitiatorAuthData(), current.getVersion(), transitionResult.getArrival())) {
+                R impactResult = transitionResult.buildImpactResult();
+                log.info("Handle complete; arrival={}; impactResult={}", transitionResult.getArrival(), impactResult);
+                return impactResult;
+            }
+            log.info("State was changed concurrently, attempt={} failed", attempt);
+        }
+
+        throw new TransitionExecutionException("State was changed concurrently on each of " + maxAttempts + " attempts", STATE_CONFLICT_CODE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Arrival must be set by the compare-and-set, hence this just catches the exceptions of the {@link #handleImpact(Impact)}, which are
+     * cheap for the failed election anyway.
+     */
+    @Override
+    public ImpactOutcome<R> tryHandleImpact(I impact) {
+        try {
+            return ImpactOutcome.handled(handleImpact(impact));
+        } catch (TransitionElectionException e) {
+            return ImpactOutcome.of(e);
+        } catch (TransitionExecutionException e) {
+            return ImpactOutcome.failed(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Each arrival must be set by its own compare-and-set, hence impacts are passed to the {@link #tryHandleImpact(Impact)} one by one,
+     * without the batched storage access of the {@link SimpleStateMachine}.
+     */
+    @Override
+    public List<ImpactOutcome<R>> handleImpacts(List<I> impacts) {
+        List<ImpactOutcome<R>> outcomes = new ArrayList<>(impacts.size());
+        for (I impact : impacts) {
+            outcomes.add(tryHandleImpact(impact));
+        }
+        return outcomes;
+    }
+}
@@ -1,20 +1,36 @@
 package ua.ddovgal.mangamonitoring.state;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.api.AuthenticationDataKey;
+import ua.ddovgal.mangamonitoring.state.election.ElectionOutcome;
+import ua.ddovgal.mangamonitoring.state.election.ElectionOutcome.Elected;
 import ua.ddovgal.mangamonitoring.state.election.TransitionElector;
 import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
 import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+import ua.ddovgal.mangamonitoring.state.metrics.StateMachineMetrics;
 import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
 import ua.ddovgal.mangamonitoring.state.transition.TransitionResult;
+import ua.ddovgal.mangamonitoring.state.util.Pair;
 
 import static ua.ddovgal.mangamonitoring.state.util.TransitionDescriptorUtils.getSimpleForm;
 
 /**
  * Describes a very simple implementation of the {@link StateMachine} which acts more like orchestrator that delegates certain steps of the
  * impact handling to its dependent components.
+ * <p/>
+ * Duration of each transition execution is reported to the {@link #metrics}. Election and storage access could be measured as well, by
+ * wrapping the dependencies into the decorators of the {@link ua.ddovgal.mangamonitoring.state.metrics} package.
  *
  * @param <I> type of the incoming impact that should be handled.
  * @param <R> type of the impact result.
@@ -26,7 +42,19 @@ public class SimpleStateMachine<I extends Impact, R> implements StateMachine<I,
     @NonNull
     protected final StateDao stateDao;
     @NonNull
-    private final TransitionElector<I, R> transitionElector;
+    protected final TransitionElector<I, R> transitionElector;
+    @NonNull
+    protected final StateMachineMetrics metrics;
+
+    /**
+     * Creates state machine, that doesn't report any metrics.
+     *
+     * @param stateDao          states storage.
+     * @param transitionElector elector of the transitions.
+     */
+    public SimpleStateMachine(StateDao stateDao, TransitionElector<I, R> transitionElector) {
+        this(stateDao, transitionElector, StateMachineMetrics.NOOP);
+    }
 
     @Override
     public R handleImpact(I impact) throws TransitionElectionException, TransitionExecutionException {
@@ -34,11 +62,143 @@ public class SimpleStateMachine<I extends Impact, R> implements StateMachine<I,
         State currentState = stateDao.getState(impact.getInitiatorAuthData()).orElse(new NoInteractionsBeforeState());
         log.info("currentState={}", currentState);
         DepartureDefinedTransition<?, ?, I, R> electedTransition = transitionElector.electTransition(currentState, impact);
-        log.info("electedDescriptor={}", getSimpleForm(electedTransition.getDescriptor()));
-        TransitionResult<?, ?, I, R> transitionResult = electedTransition.execute(impact);
+        if (log.isInfoEnabled()) {
+            log.info("electedDescriptor={}", getSimpleForm(electedTransition.getDescriptor()));
+        }
+        TransitionResult<?, ?, I, R> transitionResult = execute(electedTransition, impact);
         stateDao.setState(impact.getInitiatorAuthData(), transitionResult.getArrival());
         R impactResult = transitionResult.buildImpactResult();
         log.info("Handle complete; arrival={}; impactResult={}", transitionResult.getArrival(), impactResult);
         return impactResult;
     }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Transition is elected by the {@link TransitionElector#elect(State, Impact)}, hence the failed election costs no exception.
+     */
+    @Override
+    public ImpactOutcome<R> tryHandleImpact(I impact) {
+        log.info("Handling impact={}", impact);
+        State currentState = stateDao.getState(impact.getInitiatorAuthData()).orElse(new NoInteractionsBeforeState());
+        log.info("currentState={}", currentState);
+        ElectionOutcome<I, R> electionOutcome = transitionElector.elect(currentState, impact);
+        if (!electionOutcome.isElected()) {
+            log.info("Handle complete; no transition elected");
+            return ImpactOutcome.of(electionOutcome);
+        }
+        DepartureDefinedTransition<?, ?, I, R> electedTransition = ((Elected<I, R>) electionOutcome).getTransition();
+        if (log.isInfoEnabled()) {
+            log.info("electedDescriptor={}", getSimpleForm(electedTransition.getDescriptor()));
+        }
+        TransitionResult<?, ?, I, R> transitionResult;
+        try {
+            transitionResult = execute(electedTransition, impact);
+        } catch (TransitionExecutionException e) {
+            return ImpactOutcome.failed(e);
+        }
+        stateDao.setState(impact.getInitiatorAuthData(), transitionResult.getArrival());
+        R impactResult = transitionResult.buildImpactResult();
+        log.info("Handle complete; arrival={}; impactResult={}", transitionResult.getArrival(), impactResult);
+        return ImpactOutcome.handled(impactResult);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Impacts are grouped by the initiator ({@link AuthenticationDataKey}). States of all the initiators are read by a single {@link
+     * StateDao#getStates(List)} call, then impacts of each initiator are handled one after another, each departing from the arrival of the
+     * previous one. Transitions are elected by the {@link TransitionElector#elect(State, Impact)}, same as {@link #tryHandleImpact(Impact)}
+     * does. Finally, the last arrival of each initiator is set by a single {@link StateDao#setStates(List)} call, and only after
+     * that impact results are built, same as {@link #handleImpact(Impact)} does. Arrivals are set even if some transition fails with the
+     * unexpected {@link RuntimeException}, before it's rethrown.
+     */
+    @Override
+    public List<ImpactOutcome<R>> handleImpacts(List<I> impacts) {
+        log.info("Handling impacts batch of size={}", impacts.size());
+        Map<AuthenticationDataKey, List<Integer>> impactIndexesByInitiator = new LinkedHashMap<>();
+        List<AuthenticationData> initiators = new ArrayList<>();
+        for (int i = 0; i < impacts.size(); i++) {
+            AuthenticationData initiator = impacts.get(i).getInitiatorAuthData();
+            impactIndexesByInitiator.computeIfAbsent(AuthenticationDataKey.of(initiator), key -> {
+                initiators.add(initiator);
+                return new ArrayList<>();
+            }).add(i);
+        }
+
+        List<Optional<State>> currentStates = stateDao.getStates(initiators);
+        TransitionResult<?, ?, I, R>[] transitionResults = newTransitionResultsArray(impacts.size());
+        List<ImpactOutcome<R>> outcomes = new ArrayList<>(Collections.nCopies(impacts.size(), null));
+        List<Pair<AuthenticationData, State>> arrivals = new ArrayList<>();
+
+        int initiatorIndex = 0;
+        try {
+            for (List<Integer> impactIndexes : impactIndexesByInitiator.values()) {
+                State currentState = currentStates.get(initiatorIndex).orElse(new NoInteractionsBeforeState());
+                boolean isStateChanged = false;
+                try {
+                    for (int impactIndex : impactIndexes) {
+                        I impact = impacts.get(impactIndex);
+                        ElectionOutcome<I, R> electionOutcome = transitionElector.elect(currentState, impact);
+                        if (!electionOutcome.isElected()) {
+                            outcomes.set(impactIndex, ImpactOutcome.of(electionOutcome));
+                            continue;
+                        }
+                        try {
+                            transitionResults[impactIndex] = execute(((Elected<I, R>) electionOutcome).getTransition(), impact);
+                            currentState = transitionResults[impactIndex].getArrival();
+                            isStateChanged = true;
+                        } catch (TransitionExecutionException e) {
+                            outcomes.set(impactIndex, ImpactOutcome.failed(e));
+                        }
+                    }
+                } finally {
+                    if (isStateChanged) {
+                        arrivals.add(Pair.of(initiators.get(initiatorIndex), currentState));
+                    }
+                }
+                initiatorIndex++;
+            }
+        } finally {
+            // transitions, that were already executed, aren't rolled back by the unexpected failure, hence their arrivals are kept
+            if (!arrivals.isEmpty()) {
+                stateDao.setStates(arrivals);
+            }
+        }
+        for (int i = 0; i < transitionResults.length; i++) {
+            if (transitionResults[i] != null) {
+                outcomes.set(i, ImpactOutcome.handled(transitionResults[i].buildImpactResult()));
+            }
+        }
+        log.info("Batch handle complete; initiators={}, arrivals={}", initiators.size(), arrivals.size());
+        return outcomes;
+    }
+
+    /**
+     * Executes the {@code transition}, reporting the execution duration to the {@link #metrics}.
+     *
+     * @param transition elected transition.
+     * @param impact     impact, that is being handled.
+     *
+     * @return result of the transition.
+     *
+     * @throws TransitionExecutionException if the transition execution failed.
+     */
+    protected TransitionResult<?, ?, I, R> execute(DepartureDefinedTransition<?, ?, I, R> transition, I impact)
+        throws TransitionExecutionException {
+        long start = System.nanoTime();
+        boolean isSucceeded = false;
+        try {
+            TransitionResult<?, ?, I, R> result = transition.execute(impact);
+            isSucceeded = true;
+            return result;
+        } finally {
+            metrics.recordExecution(transition.getDescriptor(), System.nanoTime() - start, isSucceeded);
+        }
+    }
+
+    @SuppressWarnings("unchecked") // generic array creation is impossible, but only TransitionResult objects are put here
+    private TransitionResult<?, ?, I, R>[] newTransitionResultsArray(int size) {
+        return new TransitionResult[size];
+    }
 }
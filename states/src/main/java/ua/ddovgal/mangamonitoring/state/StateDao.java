@@ -1,9 +1,12 @@
 package ua.ddovgal.mangamonitoring.state;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import ua.ddovgal.mangamonitoring.api.AuthenticationData;
 import ua.ddovgal.mangamonitoring.domain.Account;
+import ua.ddovgal.mangamonitoring.state.util.Pair;
 
 /**
  * DAO required by {@link StateMachine} for {@link State} get/set operation.
@@ -26,4 +29,48 @@ public interface StateDao {
      * @param state    state that need to be set.
      */
     void setState(AuthenticationData authData, State state);
+
+    /**
+     * Searches for the states of all the provided {@code authData} at once.
+     * <p/>
+     * Default implementation calls {@link #getState(AuthenticationData)} for each of them. Implementations backed by remote storage are
+     * encouraged to do it in one round trip.
+     *
+     * @param authData authentication data list to search for.
+     *
+     * @return persisted states, in the order of the {@code authData}.
+     */
+    default List<Optional<State>> getStates(List<AuthenticationData> authData) {
+        List<Optional<State>> states = new ArrayList<>(authData.size());
+        for (AuthenticationData singleAuthData : authData) {
+            states.add(getState(singleAuthData));
+        }
+        return states;
+    }
+
+    /**
+     * Sets all the provided states at once. Each pair holds authentication data on the left, and the state to set for it on the right.
+     * <p/>
+     * Default implementation calls {@link #setState(AuthenticationData, State)} for each of them. Implementations backed by remote storage
+     * are encouraged to do it in one round trip.
+     *
+     * @param states pairs of authentication data and state that need to be set.
+     */
+    default void setStates(List<Pair<AuthenticationData, State>> states) {
+        for (Pair<AuthenticationData, State> state : states) {
+            setState(state.getLeft(), state.getRight());
+        }
+    }
+
+    /**
+     * Removes the state of the provided {@code authData}, so that the user starts over, same as if the state was never set.
+     * <p/>
+     * Default implementation sets the {@link NoInteractionsBeforeState}, which is what {@link StateMachine} assumes for the missing state
+     * anyway. Implementations are encouraged to actually delete the state, to free the storage.
+     *
+     * @param authData authentication data (which points to the assigned {@link Account}) to remove the state of.
+     */
+    default void removeState(AuthenticationData authData) {
+        setState(authData, new NoInteractionsBeforeState());
+    }
 }
@@ -1,5 +1,8 @@
 package ua.ddovgal.mangamonitoring.state;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
 import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
 import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
@@ -50,4 +53,46 @@ public interface StateMachine<I extends Impact, R> {
      *                                      details.
      */
     R handleImpact(I impact) throws TransitionElectionException, TransitionExecutionException;
+
+    /**
+     * Handles an impact same as {@link #handleImpact(Impact)} does, but reports the failure by the returned outcome instead of the
+     * exception. Impacts, which match no transition, such as arbitrary text messages, are very common, hence this is the preferred way for
+     * the hot path.
+     * <p/>
+     * Default implementation just catches the exceptions of the {@link #handleImpact(Impact)}. Implementations are encouraged to override
+     * it, so that no exception is created for the failed election at all.
+     *
+     * @param impact object that describes impact.
+     *
+     * @return outcome of the impact handling.
+     */
+    default ImpactOutcome<R> tryHandleImpact(I impact) {
+        try {
+            return ImpactOutcome.handled(handleImpact(impact));
+        } catch (TransitionElectionException e) {
+            return ImpactOutcome.of(e);
+        } catch (TransitionExecutionException e) {
+            return ImpactOutcome.failed(e);
+        }
+    }
+
+    /**
+     * Handles the batch of impacts. Impacts of the same initiator are handled in the order they have in the {@code impacts} list, same as
+     * if they were passed to the {@link #tryHandleImpact(Impact)} one by one. Failure of one impact doesn't prevent handling of the others,
+     * and is reported by its outcome, same as {@link #tryHandleImpact(Impact)} does.
+     * <p/>
+     * Default implementation does exactly that, passes impacts to the {@link #tryHandleImpact(Impact)} one by one. Implementations are
+     * encouraged to amortize the storage round trips across the batch.
+     *
+     * @param impacts objects that describe impacts.
+     *
+     * @return outcomes of the impacts handling, in the order of the {@code impacts}.
+     */
+    default List<ImpactOutcome<R>> handleImpacts(List<I> impacts) {
+        List<ImpactOutcome<R>> outcomes = new ArrayList<>(impacts.size());
+        for (I impact : impacts) {
+            outcomes.add(tryHandleImpact(impact));
+        }
+        return outcomes;
+    }
 }
@@ -0,0 +1,41 @@
+package ua.ddovgal.mangamonitoring.state;
+
+import java.util.Optional;
+
+import lombok.Value;
+
+/**
+ * {@link State} together with the version it has in the {@link VersionedStateDao}. Version changes each time the state is set, hence it
+ * allows to detect, whether the state was changed since it was read.
+ */
+@Value(staticConstructor = "of")
+public class VersionedState {
+
+    /**
+     * Version of the state that was never set.
+     */
+    public static final long ABSENT_VERSION = 0;
+
+    private static final VersionedState ABSENT = new VersionedState(null, ABSENT_VERSION);
+
+    State state;
+    long version;
+
+    /**
+     * Returns versioned absence of the state.
+     *
+     * @return versioned absence of the state.
+     */
+    public static VersionedState absent() {
+        return ABSENT;
+    }
+
+    /**
+     * Returns the state, if it was ever set.
+     *
+     * @return the state, if it was ever set.
+     */
+    public Optional<State> getState() {
+        return Optional.ofNullable(state);
+    }
+}
@@ -0,0 +1,45 @@
+package ua.ddovgal.mangamonitoring.state;
+
+import java.util.Optional;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.domain.Account;
+
+/**
+ * {@link StateDao} that versions the states, and hence is able to set the state only if it wasn't changed since it was read. This allows
+ * {@link OptimisticStateMachine} to handle impacts of the same user concurrently, even from different application nodes, without any
+ * locking, and still without lost updates.
+ */
+public interface VersionedStateDao extends StateDao {
+
+    /**
+     * Searches for the state and its version by the provided {@code authData}.
+     *
+     * @param authData authentication data (which points to the assigned {@link Account}) to search for.
+     *
+     * @return persisted state with its version, or {@link VersionedState#absent()} if state was never set.
+     */
+    VersionedState getStateVersioned(AuthenticationData authData);
+
+    /**
+     * Atomically sets the provided {@code state} for the provided {@code authData}, but only if the actual version of the state is still
+     * the {@code expectedVersion}.
+     *
+     * @param authData        authentication data (which points to the assigned {@link Account}) to search for.
+     * @param expectedVersion version of the state, which was read before; {@link VersionedState#ABSENT_VERSION} if state was absent.
+     * @param state           state that need to be set.
+     *
+     * @return {@code true} if state was set, {@code false} if actual version differs from the expected one.
+     */
+    boolean compareAndSetState(AuthenticationData authData, long expectedVersion, State state);
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Default implementation returns state of the {@link #getStateVersioned(AuthenticationData)}.
+     */
+    @Override
+    default Optional<State> getState(AuthenticationData authData) {
+        return getStateVersioned(authData).getState();
+    }
+}
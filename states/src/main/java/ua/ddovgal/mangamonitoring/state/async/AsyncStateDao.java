@@ -0,0 +1,38 @@
+package ua.ddovgal.mangamonitoring.state.async;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.domain.Account;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.StateDao;
+
+/**
+ * Non-blocking version of the {@link StateDao}, required by {@link AsyncStateMachine}. Methods return immediately, and returned futures
+ * are completed once the storage has responded.
+ *
+ * @see ExecutorAsyncStateDao to use the blocking {@link StateDao} as this one.
+ * @see BlockingStateDao to use this one as the blocking {@link StateDao}.
+ */
+public interface AsyncStateDao {
+
+    /**
+     * Searches for the state by the provided {@code authData}.
+     *
+     * @param authData authentication data (which points to the assigned {@link Account}) to search for.
+     *
+     * @return future of the persisted state for the provided {@code authData}.
+     */
+    CompletableFuture<Optional<State>> getStateAsync(AuthenticationData authData);
+
+    /**
+     * Sets the provided {@code state} for the provided {@code authData}.
+     *
+     * @param authData authentication data (which points to the assigned {@link Account}) to search for.
+     * @param state    state that need to be set.
+     *
+     * @return future, which is completed once the state is set.
+     */
+    CompletableFuture<Void> setStateAsync(AuthenticationData authData, State state);
+}
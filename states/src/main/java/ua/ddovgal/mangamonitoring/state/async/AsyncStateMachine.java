@@ -0,0 +1,31 @@
+package ua.ddovgal.mangamonitoring.state.async;
+
+import java.util.concurrent.CompletableFuture;
+
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.StateMachine;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+
+/**
+ * Non-blocking version of the {@link StateMachine}. Impact handling is only started by the call, and the calling thread is free to go on,
+ * so a few threads can keep thousands of impacts in flight, while those are waiting for the storage or provider I/O.
+ *
+ * @param <I> type of the incoming impact that should be handled.
+ * @param <R> type of the impact result.
+ *
+ * @see StateMachine for the state machine general concept.
+ * @see ExecutorAsyncStateMachine to use the blocking {@link StateMachine} as this one.
+ */
+public interface AsyncStateMachine<I extends Impact, R> {
+
+    /**
+     * Starts handling of the provided impact. Same as {@link StateMachine#handleImpact(Impact)} does, but returns immediately.
+     *
+     * @param impact object that describes impact.
+     *
+     * @return future of the impact result. Completes exceptionally with the {@link TransitionElectionException} if there is no (or more than
+     * one) transition to make, or with the {@link TransitionExecutionException} if the transition was failed.
+     */
+    CompletableFuture<R> handleImpactAsync(I impact);
+}
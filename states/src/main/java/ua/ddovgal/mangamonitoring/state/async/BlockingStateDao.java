@@ -0,0 +1,44 @@
+package ua.ddovgal.mangamonitoring.state.async;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.StateDao;
+
+/**
+ * Adapter of the {@link AsyncStateDao} to the blocking {@link StateDao}. Each call waits for the returned future completion, and failure of
+ * the future is rethrown as is, if it's a {@link RuntimeException}.
+ */
+@RequiredArgsConstructor
+public class BlockingStateDao implements StateDao {
+
+    @NonNull
+    private final AsyncStateDao delegate;
+
+    @Override
+    public Optional<State> getState(AuthenticationData authData) {
+        return join(delegate.getStateAsync(authData));
+    }
+
+    @Override
+    public void setState(AuthenticationData authData, State state) {
+        join(delegate.setStateAsync(authData, state));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ua.ddovgal.mangamonitoring.state.async;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.StateDao;
+
+/**
+ * Adapter of the blocking {@link StateDao} to the {@link AsyncStateDao}. Blocking calls are made by the threads of the provided {@link
+ * #executor}, so the caller is never blocked, but each in-flight call still occupies one of those threads.
+ * <p/>
+ * This is the way to use existing stores with {@link AsyncStateMachine}, until they get a truly non-blocking implementation.
+ */
+@RequiredArgsConstructor
+public class ExecutorAsyncStateDao implements AsyncStateDao {
+
+    @NonNull
+    private final StateDao delegate;
+    @NonNull
+    private final Executor executor;
+
+    @Override
+    public CompletableFuture<Optional<State>> getStateAsync(AuthenticationData authData) {
+        return CompletableFuture.supplyAsync(() -> delegate.getState(authData), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> setStateAsync(AuthenticationData authData, State state) {
+        return CompletableFuture.runAsync(() -> delegate.setState(authData, state), executor);
+    }
+}
@@ -0,0 +1,44 @@
+package ua.ddovgal.mangamonitoring.state.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.StateMachine;
+
+/**
+ * Adapter of the blocking {@link StateMachine} to the {@link AsyncStateMachine}. Impacts are handled by the threads of the provided {@link
+ * #executor}, so the caller is never blocked, but each in-flight impact still occupies one of those threads.
+ *
+ * @param <I> type of the incoming impact that should be handled.
+ * @param <R> type of the impact result.
+ */
+@RequiredArgsConstructor
+public class ExecutorAsyncStateMachine<I extends Impact, R> implements AsyncStateMachine<I, R> {
+
+    @NonNull
+    private final StateMachine<I, R> delegate;
+    @NonNull
+    private final Executor executor;
+
+    @Override
+    public CompletableFuture<R> handleImpactAsync(I impact) {
+        CompletableFuture<R> impactResult = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    impactResult.complete(delegate.handleImpact(impact));
+                } catch (Throwable e) {
+                    impactResult.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            impactResult.completeExceptionally(e);
+        }
+        return impactResult;
+    }
+}
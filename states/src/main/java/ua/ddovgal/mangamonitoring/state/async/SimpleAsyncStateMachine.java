@@ -0,0 +1,112 @@
+package ua.ddovgal.mangamonitoring.state.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import ua.ddovgal.mangamonitoring.api.AccountService;
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.NoInteractionsBeforeState;
+import ua.ddovgal.mangamonitoring.state.SimpleStateMachine;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.StateMachine;
+import ua.ddovgal.mangamonitoring.state.election.TransitionElector;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+import ua.ddovgal.mangamonitoring.state.transition.AsyncTransitionDescriptor;
+import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionResult;
+
+/**
+ * Non-blocking analogue of the {@link SimpleStateMachine}. Impact is handled by the same steps, but none of them waits for the I/O:
+ * <pre>
+ *  - current state is read by the {@link AsyncStateDao};
+ *  - transition is elected by the {@link #transitionElector} in the {@link #executor} thread, since election may look the initiator
+ *    account up with the blocking {@link AccountService};
+ *  - elected transition is executed by the {@link AsyncTransitionDescriptor#executeAsync(State, Impact)}, or, for the blocking
+ *    descriptors, right in the {@link #executor} thread;
+ *  - arrival state is set by the {@link AsyncStateDao}, and only then impact result is built.
+ * </pre>
+ * For the compatibility, this machine is also a blocking {@link StateMachine}, which waits for the {@link #handleImpactAsync(Impact)}
+ * completion.
+ *
+ * @param <I> type of the incoming impact that should be handled.
+ * @param <R> type of the impact result.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SimpleAsyncStateMachine<I extends Impact, R> implements AsyncStateMachine<I, R>, StateMachine<I, R> {
+
+    @NonNull
+    private final AsyncStateDao stateDao;
+    @NonNull
+    private final TransitionElector<I, R> transitionElector;
+    @NonNull
+    private final Executor executor;
+
+    @Override
+    public CompletableFuture<R> handleImpactAsync(I impact) {
+        log.info("Handling impact asynchronously, impact={}", impact);
+        AuthenticationData initiator = impact.getInitiatorAuthData();
+        return stateDao.getStateAsync(initiator)
+                       .thenComposeAsync(state -> electAndExecute(state.orElse(new NoInteractionsBeforeState()), impact), executor)
+                       .thenCompose(transitionResult -> stateDao.setStateAsync(initiator, transitionResult.getArrival())
+                                                                .thenApply(ignored -> {
+                                                                    R impactResult = transitionResult.buildImpactResult();
+                                                                    log.info("Handle complete; arrival={}; impactResult={}",
+                                                                             transitionResult.getArrival(),
+                                                                             impactResult);
+                                                                    return impactResult;
+                                                                }));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Blocks till the {@link #handleImpactAsync(Impact)} completion.
+     */
+    @Override
+    public R handleImpact(I impact) throws TransitionElectionException, TransitionExecutionException {
+        try {
+            return handleImpactAsync(impact).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransitionExecutionException("Interrupted while waiting for the impact handling", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TransitionElectionException) {
+                throw (TransitionElectionException) cause;
+            }
+            if (cause instanceof TransitionExecutionException) {
+                throw (TransitionExecutionException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TransitionExecutionException("Impact handling failed", cause);
+        }
+    }
+
+    private CompletableFuture<TransitionResult<?, ?, I, R>> electAndExecute(State currentState, I impact) {
+        log.info("currentState={}", currentState);
+        try {
+            return execute(transitionElector.electTransition(currentState, impact), impact);
+        } catch (TransitionElectionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <D extends State, A extends State> CompletableFuture<TransitionResult<?, ?, I, R>> execute(
+        DepartureDefinedTransition<D, A, I, R> electedTransition,
+        I impact) {
+        return electedTransition.executeAsync(impact).thenApply(transitionResult -> transitionResult);
+    }
+}
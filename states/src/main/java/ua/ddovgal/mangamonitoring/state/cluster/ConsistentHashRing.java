@@ -0,0 +1,155 @@
+package ua.ddovgal.mangamonitoring.state.cluster;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+
+/**
+ * Immutable consistent-hash ring of the cluster nodes, that tells which node owns the user with a particular {@link
+ * AuthenticationData#getIdentifier()}.
+ * <p/>
+ * Each node is put on the ring {@link #virtualNodes} times, by the hashes of its id and the virtual node number, so that users are spread
+ * evenly. User is owned by the first node point, met clockwise from the hash of the user identifier. Hence, when a node joins, it takes only
+ * the users, that are now closer to its points, from the other nodes, and when a node leaves, only its users move to the other nodes.
+ * <p/>
+ * Points are kept in the sorted array, so the owner lookup is a binary search, which doesn't allocate anything.
+ */
+public final class ConsistentHashRing {
+
+    /**
+     * Default number of the points each node has on the ring.
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    @Getter
+    private final Set<String> nodes;
+    @Getter
+    private final int virtualNodes;
+    private final long[] points;
+    private final String[] pointOwners;
+
+    private ConsistentHashRing(Set<String> nodes, int virtualNodes) {
+        this.nodes = Set.copyOf(nodes);
+        this.virtualNodes = virtualNodes;
+
+        int size = nodes.size() * virtualNodes;
+        long[] unsortedPoints = new long[size];
+        String[] unsortedOwners = new String[size];
+        int position = 0;
+        for (String node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                unsortedPoints[position] = hash(node + '#' + i);
+                unsortedOwners[position] = node;
+                position++;
+            }
+        }
+
+        // sort points together with their owners, breaking the ties by the owner, so the ring doesn't depend on the nodes order
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (left, right) -> {
+            int byPoint = Long.compare(unsortedPoints[left], unsortedPoints[right]);
+            return byPoint != 0 ? byPoint : unsortedOwners[left].compareTo(unsortedOwners[right]);
+        });
+        points = new long[size];
+        pointOwners = new String[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = unsortedPoints[order[i]];
+            pointOwners[i] = unsortedOwners[order[i]];
+        }
+    }
+
+    /**
+     * Creates ring of the provided {@code nodes}, each having the {@link #DEFAULT_VIRTUAL_NODES} points.
+     *
+     * @param nodes ids of the cluster nodes, at least one.
+     *
+     * @return ring of the provided {@code nodes}.
+     */
+    public static ConsistentHashRing of(@NonNull Collection<String> nodes) {
+        return of(nodes, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Creates ring of the provided {@code nodes}.
+     *
+     * @param nodes        ids of the cluster nodes, at least one.
+     * @param virtualNodes number of the points each node has on the ring.
+     *
+     * @return ring of the provided {@code nodes}.
+     */
+    public static ConsistentHashRing of(@NonNull Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("Ring must have at least one node and positive virtualNodes");
+        }
+        return new ConsistentHashRing(new LinkedHashSet<>(nodes), virtualNodes);
+    }
+
+    /**
+     * Returns the id of the node, which owns the user with the provided {@code identifier}.
+     *
+     * @param identifier user identifier, see {@link AuthenticationData#getIdentifier()}.
+     *
+     * @return the id of the owner node.
+     */
+    public String getOwner(@NonNull String identifier) {
+        int index = Arrays.binarySearch(points, hash(identifier));
+        if (index < 0) {
+            // insertion point is the first point clockwise
+            index = -index - 1;
+        }
+        return pointOwners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * Returns the ring, which has all the nodes of this one, plus the provided {@code node}.
+     *
+     * @param node id of the joined node.
+     *
+     * @return the new ring.
+     */
+    public ConsistentHashRing withNode(@NonNull String node) {
+        Set<String> newNodes = new LinkedHashSet<>(nodes);
+        newNodes.add(node);
+        return new ConsistentHashRing(newNodes, virtualNodes);
+    }
+
+    /**
+     * Returns the ring, which has all the nodes of this one, except the provided {@code node}.
+     *
+     * @param node id of the left node.
+     *
+     * @return the new ring.
+     */
+    public ConsistentHashRing withoutNode(@NonNull String node) {
+        Set<String> newNodes = new LinkedHashSet<>(nodes);
+        newNodes.remove(node);
+        return of(newNodes, virtualNodes);
+    }
+
+    /**
+     * 64-bit FNV-1a over the string chars, followed by the MurmurHash3 finalizer, which spreads the close strings, like "node#1" and
+     * "node#2", over the whole ring.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,43 @@
+package ua.ddovgal.mangamonitoring.state.cluster;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+
+/**
+ * Delivers requests of one {@link ShardedStateMachine} to the other one, running on the other cluster node. Implementations decide how the
+ * impacts, results and states are transferred, for example {@link LocalImpactTransport} just calls the other node in the same process.
+ *
+ * @param <I> type of the impact.
+ * @param <R> type of the impact result.
+ */
+public interface ImpactTransport<I extends Impact, R> {
+
+    /**
+     * Delivers the {@code impact} to the {@link ShardedStateMachine#handleForwardedImpact(Impact)} of the {@code nodeId} node.
+     *
+     * @param nodeId id of the node to handle the impact.
+     * @param impact impact to handle.
+     *
+     * @return future of the impact result. Completes exceptionally with the {@link TransitionElectionException} or {@link
+     * TransitionExecutionException} if the impact handling failed with it.
+     */
+    CompletableFuture<R> forward(String nodeId, I impact);
+
+    /**
+     * Asks the {@code nodeId} node to give up the state of the {@code authData} to the {@code toNodeId} node, by the {@link
+     * ShardedStateMachine#handOver(AuthenticationData, String)}.
+     *
+     * @param nodeId   id of the node, which owned the user before.
+     * @param authData authentication data of the user, whose state is handed over.
+     * @param toNodeId id of the node, which owns the user now.
+     *
+     * @return future of the handed over state, empty if the {@code nodeId} node has no state of the user.
+     */
+    CompletableFuture<Optional<State>> handOver(String nodeId, AuthenticationData authData, String toNodeId);
+}
@@ -0,0 +1,71 @@
+package ua.ddovgal.mangamonitoring.state.cluster;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.NonNull;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+
+/**
+ * {@link ImpactTransport}, which delivers requests to the nodes {@link #register(ShardedStateMachine) registered} in the same process, by
+ * calling them directly, in the calling thread. It's a stand-in for the real network transport, that allows to run and test the whole
+ * cluster on one machine.
+ *
+ * @param <I> type of the impact.
+ * @param <R> type of the impact result.
+ */
+public class LocalImpactTransport<I extends Impact, R> implements ImpactTransport<I, R> {
+
+    private final ConcurrentMap<String, ShardedStateMachine<I, R>> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Makes the {@code node} reachable by its {@link ShardedStateMachine#getNodeId()}.
+     *
+     * @param node node to register.
+     */
+    public void register(@NonNull ShardedStateMachine<I, R> node) {
+        nodes.put(node.getNodeId(), node);
+    }
+
+    /**
+     * Makes the node unreachable, as if it was stopped.
+     *
+     * @param nodeId id of the node to unregister.
+     */
+    public void unregister(@NonNull String nodeId) {
+        nodes.remove(nodeId);
+    }
+
+    @Override
+    public CompletableFuture<R> forward(String nodeId, I impact) {
+        try {
+            return CompletableFuture.completedFuture(getNode(nodeId).handleForwardedImpact(impact));
+        } catch (TransitionElectionException | TransitionExecutionException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Optional<State>> handOver(String nodeId, AuthenticationData authData, String toNodeId) {
+        try {
+            return CompletableFuture.completedFuture(getNode(nodeId).handOver(authData, toNodeId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private ShardedStateMachine<I, R> getNode(String nodeId) {
+        ShardedStateMachine<I, R> node = nodes.get(nodeId);
+        if (node == null) {
+            throw new IllegalStateException("Node " + nodeId + " is unreachable");
+        }
+        return node;
+    }
+}
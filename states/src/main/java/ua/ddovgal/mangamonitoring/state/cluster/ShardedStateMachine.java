@@ -0,0 +1,346 @@
+package ua.ddovgal.mangamonitoring.state.cluster;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.NoInteractionsBeforeState;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.StateDao;
+import ua.ddovgal.mangamonitoring.state.StateMachine;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+
+/**
+ * {@link StateMachine} of one cluster node, that handles impacts only of the users it owns by the {@link ConsistentHashRing}, and forwards
+ * the impacts of all the other users to their owners by the {@link ImpactTransport}.
+ * <p/>
+ * Owned impacts are handled by the {@link #local} state machine, which keeps states in the {@link #localStateDao} of this node. When the
+ * ring is {@link #updateRing(ConsistentHashRing) updated}, states of the moved users are migrated lazily: on the first impact of the user,
+ * which isn't marked as migrated to this node yet, the new owner asks the owners of the user by the previous rings, from the newest ring to
+ * the oldest one, to {@link #handOver(AuthenticationData, String) hand over} the state, and takes the first found one. Previous owner
+ * removes the state from its store, and, since then, forwards the impacts of that user to the new owner, even if its own ring isn't updated
+ * yet. Hand over waits for the impacts of the user, that the previous owner is handling at the moment, hence no state is lost, in whatever
+ * order the nodes get the new ring. Remote calls are never made under the local locks, so two nodes, taking states from each other, don't
+ * block each other: hand over of the user, which is being migrated to the asked node at the moment, fails, and could be retried later.
+ * <p/>
+ * All the previous rings are kept, so the ring could be updated again before the moved users are migrated. Once they are, the history
+ * should be dropped on each node by the {@link #completeMigration()}, otherwise it grows with every ring update. Users, that weren't
+ * migrated by then, start over from the {@link NoInteractionsBeforeState}. Users are told apart by the {@link
+ * AuthenticationData#getIdentifier()}.
+ *
+ * @param <I> type of the impact.
+ * @param <R> type of the impact result.
+ */
+@Slf4j
+public class ShardedStateMachine<I extends Impact, R> implements StateMachine<I, R> {
+
+    /**
+     * Error code of the {@link TransitionExecutionException}, thrown when the state of the moved user couldn't be taken from its previous
+     * owner. Impact isn't handled then, so that the user doesn't start over from scratch.
+     */
+    public static final String HAND_OVER_FAILED_CODE = "stateHandOver_01";
+
+    /**
+     * Error code of the {@link TransitionExecutionException}, thrown when the impact was forwarded to this node, but this node doesn't own
+     * its initiator. It happens while nodes have different rings, and could be retried later.
+     */
+    public static final String MISROUTED_CODE = "impactMisrouted_01";
+
+    private static final int LOCK_STRIPES = 64;
+
+    @Getter
+    private final String nodeId;
+    private final StateMachine<I, R> local;
+    private final StateDao localStateDao;
+    private final ImpactTransport<I, R> transport;
+
+    private volatile Rings rings;
+    /**
+     * Users, that were handed over to the other nodes since the last ring update, and their new owners.
+     */
+    private final ConcurrentMap<String, String> handedOverTo = new ConcurrentHashMap<>();
+    /**
+     * Migration markers: moved users, whose states were already taken from the previous owners by this node and weren't handed over since.
+     */
+    private final Set<String> migrated = ConcurrentHashMap.newKeySet();
+    /**
+     * Migrations, that are in progress at the moment, so the concurrent impacts of the same user wait for one migration.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Void>> migrations = new ConcurrentHashMap<>();
+    /**
+     * Impacts are handled under the read lock of the user stripe, while hand over takes the write lock, so it waits for them.
+     */
+    private final ReadWriteLock[] locks = new ReadWriteLock[LOCK_STRIPES];
+
+    /**
+     * Creates node of the cluster.
+     *
+     * @param nodeId        id of this node, as it's known by the ring.
+     * @param ring          initial ring of the cluster.
+     * @param local         state machine, that handles impacts of the owned users.
+     * @param localStateDao states storage, that the {@code local} state machine uses. Must actually delete the state by the {@link
+     *                      StateDao#removeState(AuthenticationData)}, like {@link ua.ddovgal.mangamonitoring.state.dao.ConcurrentMapStateDao}
+     *                      does, since a node, which becomes the owner of the user once again, takes the state only if it's absent on the
+     *                      other nodes.
+     * @param transport     transport to reach the other nodes.
+     */
+    public ShardedStateMachine(@NonNull String nodeId,
+                               @NonNull ConsistentHashRing ring,
+                               @NonNull StateMachine<I, R> local,
+                               @NonNull StateDao localStateDao,
+                               @NonNull ImpactTransport<I, R> transport) {
+        this.nodeId = nodeId;
+        this.local = local;
+        this.localStateDao = localStateDao;
+        this.transport = transport;
+        this.rings = new Rings(ring, List.of());
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @Override
+    public R handleImpact(I impact) throws TransitionElectionException, TransitionExecutionException {
+        return handle(impact, false);
+    }
+
+    /**
+     * Handles the impact, forwarded by the other node. Same as {@link #handleImpact(Impact)}, but never forwards it once again, so the
+     * impact can't bounce between the nodes with different rings.
+     *
+     * @param impact object that describes impact.
+     *
+     * @return object that describes impact result.
+     *
+     * @throws TransitionElectionException  if the local state machine couldn't elect the transition.
+     * @throws TransitionExecutionException if the transition action failed, or this node doesn't own the impact initiator, see {@link
+     *                                      #MISROUTED_CODE}.
+     */
+    public R handleForwardedImpact(I impact) throws TransitionElectionException, TransitionExecutionException {
+        return handle(impact, true);
+    }
+
+    /**
+     * Gives up the state of the user, that is owned by the {@code toNodeId} node now. Waits for the impacts of the user, that are being
+     * handled by this node at the moment, and then removes the state from the {@link #localStateDao}. All the following impacts of the user
+     * are forwarded to the {@code toNodeId} node.
+     *
+     * @param authData authentication data of the user, whose state is handed over.
+     * @param toNodeId id of the node, which owns the user now.
+     *
+     * @return the handed over state, or empty if this node has no state of the user.
+     *
+     * @throws IllegalStateException if the state of the user is being migrated to this node at the moment.
+     */
+    public Optional<State> handOver(@NonNull AuthenticationData authData, @NonNull String toNodeId) {
+        String identifier = authData.getIdentifier();
+        Lock lock = getLock(identifier).writeLock();
+        lock.lock();
+        try {
+            if (migrations.containsKey(identifier)) {
+                throw new IllegalStateException("State of identifier=" + identifier + " is being migrated to node " + nodeId);
+            }
+            handedOverTo.put(identifier, toNodeId);
+            migrated.remove(identifier);
+            Optional<State> state = localStateDao.getState(authData);
+            if (state.isPresent()) {
+                localStateDao.removeState(authData);
+            }
+            log.info("Handed over state of identifier={} to node={}", identifier, toNodeId);
+            return state.filter(handedOver -> !(handedOver instanceof NoInteractionsBeforeState));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the ring of the cluster. Should be called on each node, once a node joins or leaves the cluster. The replaced ring is kept,
+     * until the {@link #completeMigration()}.
+     *
+     * @param ring the new ring.
+     */
+    public synchronized void updateRing(@NonNull ConsistentHashRing ring) {
+        List<ConsistentHashRing> previous = new ArrayList<>(rings.previous.size() + 1);
+        previous.add(rings.current);
+        previous.addAll(rings.previous);
+        rings = new Rings(ring, List.copyOf(previous));
+        handedOverTo.clear();
+        log.info("Ring updated on node={}, nodes={}, previous rings={}", nodeId, ring.getNodes(), previous.size());
+    }
+
+    /**
+     * Drops the previous rings and the migration markers. Should be called on each node, once the states of all the moved users are
+     * migrated, for example, once each of them had an impact since the last {@link #updateRing(ConsistentHashRing) ring update}.
+     */
+    public synchronized void completeMigration() {
+        rings = new Rings(rings.current, List.of());
+        migrated.clear();
+        log.info("Migration completed on node={}", nodeId);
+    }
+
+    private R handle(I impact, boolean isForwarded) throws TransitionElectionException, TransitionExecutionException {
+        AuthenticationData authData = impact.getInitiatorAuthData();
+        String identifier = authData.getIdentifier();
+        ReadWriteLock stripe = getLock(identifier);
+        Rings actualRings = rings;
+        boolean isMigrationNeeded = !actualRings.previous.isEmpty()
+                                    && getOwner(identifier, actualRings).equals(nodeId)
+                                    && !migrated.contains(identifier);
+        if (isMigrationNeeded) {
+            migrate(authData, actualRings, stripe);
+        }
+
+        String owner;
+        Lock lock = stripe.readLock();
+        lock.lock();
+        try {
+            owner = getOwner(identifier, actualRings);
+            if (owner.equals(nodeId)) {
+                return local.handleImpact(impact);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (isForwarded) {
+            throw new TransitionExecutionException("Node " + nodeId + " doesn't own identifier=" + identifier, MISROUTED_CODE);
+        }
+        return await(transport.forward(owner, impact));
+    }
+
+    /**
+     * Takes the state of the owned user from its previous owners, unless it's already migrated. Locks are held only to start and to finish
+     * the migration, while the previous owners are asked without them.
+     */
+    private void migrate(AuthenticationData authData, Rings actualRings, ReadWriteLock stripe) throws TransitionExecutionException {
+        String identifier = authData.getIdentifier();
+        CompletableFuture<Void> migration = new CompletableFuture<>();
+        CompletableFuture<Void> running;
+        Lock lock = stripe.writeLock();
+        lock.lock();
+        try {
+            if (!getOwner(identifier, actualRings).equals(nodeId) || migrated.contains(identifier)) {
+                return;
+            }
+            running = migrations.putIfAbsent(identifier, migration);
+        } finally {
+            lock.unlock();
+        }
+
+        if (running != null) {
+            awaitMigration(running);
+            return;
+        }
+        try {
+            Optional<State> state = takeState(authData, actualRings);
+            lock.lock();
+            try {
+                state.ifPresent(taken -> localStateDao.setState(authData, taken));
+                migrated.add(identifier);
+            } finally {
+                lock.unlock();
+            }
+            migration.complete(null);
+        } catch (Throwable e) {
+            migration.completeExceptionally(e);
+            throw e;
+        } finally {
+            migrations.remove(identifier, migration);
+        }
+    }
+
+    private Optional<State> takeState(AuthenticationData authData, Rings actualRings) throws TransitionExecutionException {
+        Set<String> asked = new HashSet<>();
+        asked.add(nodeId);
+        for (ConsistentHashRing previousRing : actualRings.previous) {
+            String previousOwner = previousRing.getOwner(authData.getIdentifier());
+            if (!asked.add(previousOwner)) {
+                continue;
+            }
+            Optional<State> state;
+            try {
+                state = transport.handOver(previousOwner, authData, nodeId).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TransitionExecutionException("Interrupted while taking the state over", e, HAND_OVER_FAILED_CODE);
+            } catch (ExecutionException e) {
+                throw new TransitionExecutionException("Couldn't take the state over from node " + previousOwner, e.getCause(),
+                                                       HAND_OVER_FAILED_CODE);
+            }
+            if (state.isPresent()) {
+                return state;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private String getOwner(String identifier, Rings actualRings) {
+        return handedOverTo.getOrDefault(identifier, actualRings.current.getOwner(identifier));
+    }
+
+    private ReadWriteLock getLock(String identifier) {
+        return locks[(identifier.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    private static void awaitMigration(CompletableFuture<Void> migration) throws TransitionExecutionException {
+        try {
+            migration.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransitionExecutionException("Interrupted while waiting for the state migration", e, HAND_OVER_FAILED_CODE);
+        } catch (ExecutionException e) {
+            throw new TransitionExecutionException("State migration failed", e.getCause(), HAND_OVER_FAILED_CODE);
+        }
+    }
+
+    private static <R> R await(CompletableFuture<R> future) throws TransitionElectionException, TransitionExecutionException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransitionExecutionException("Interrupted while waiting for the owner node", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TransitionElectionException) {
+                throw (TransitionElectionException) cause;
+            }
+            if (cause instanceof TransitionExecutionException) {
+                throw (TransitionExecutionException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TransitionExecutionException("Owner node failed to handle the impact", cause);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class Rings {
+
+        private final ConsistentHashRing current;
+        /**
+         * Previous rings, from the newest one to the oldest one.
+         */
+        private final List<ConsistentHashRing> previous;
+    }
+}
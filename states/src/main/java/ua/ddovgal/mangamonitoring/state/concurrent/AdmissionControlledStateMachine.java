@@ -0,0 +1,391 @@
+package ua.ddovgal.mangamonitoring.state.concurrent;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.core.ManagedComponent;
+import ua.ddovgal.mangamonitoring.core.exception.ApplicationStartupException;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.StateMachine;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+import ua.ddovgal.mangamonitoring.state.metrics.StateMachineMetrics;
+
+/**
+ * Front end for any other {@link StateMachine}, which protects it from being flooded by a single initiator, and sheds the load once it
+ * can't keep up.
+ * <p/>
+ * Each initiator (same {@link AuthenticationData#getIdentifier()}) has its own token bucket, which holds at most {@link #burst} tokens
+ * and is refilled by {@link #permitsPerNano} continuously. Each impact takes one token, and impact of the initiator, whose bucket is empty, is
+ * rejected right away, with the {@link #RATE_LIMITED_CODE}. Hence, a spamming initiator can't take more than its rate of the handling
+ * capacity, and impacts of the others don't wait behind its ones.
+ * <p/>
+ * Admitted impacts are put to the global bounded queue, which is drained by {@link #workersCount} worker threads, calling the {@link
+ * #delegate}. When the queue is full, impact is handled according to the {@link SaturationPolicy}. Each rejection is reported by the {@link
+ * StateMachineMetrics#recordAdmissionRejection(String)} with the error code of the thrown {@link TransitionExecutionException}.
+ * <p/>
+ * Idle initiators don't cost anything: buckets, that were refilled completely, are removed once per {@link #BUCKETS_SWEEP_INTERVAL_MILLIS}.
+ * <p/>
+ * Keep in mind that {@link #handleImpact(Impact)} blocks the calling thread till the impact is handled by one of the workers, and the
+ * impacts of the same initiator could be handled in parallel by different workers, hence the {@link #delegate} must be thread-safe, for
+ * example {@link ua.ddovgal.mangamonitoring.state.OptimisticStateMachine}.
+ *
+ * @param <I> type of the incoming impact to handle.
+ * @param <R> type of the impact result.
+ */
+public class AdmissionControlledStateMachine<I extends Impact, R> implements StateMachine<I, R>, ManagedComponent {
+
+    /**
+     * Error code of the {@link TransitionExecutionException}, thrown when the initiator has no tokens left in its bucket.
+     */
+    public static final String RATE_LIMITED_CODE = "admissionRateLimited_01";
+
+    /**
+     * Error code of the {@link TransitionExecutionException}, thrown when the queue is full and the impact couldn't be coalesced.
+     */
+    public static final String QUEUE_SATURATED_CODE = "admissionQueueSaturated_01";
+
+    /**
+     * Error code of the {@link TransitionExecutionException}, thrown to the caller, whose queued impact was replaced by the newer impact of
+     * the same initiator, see {@link SaturationPolicy#COALESCE}.
+     */
+    public static final String COALESCED_CODE = "admissionCoalesced_01";
+
+    /**
+     * Interval between the removals of the refilled buckets.
+     */
+    public static final long BUCKETS_SWEEP_INTERVAL_MILLIS = 60_000;
+
+    private static final long WORKER_POLL_MILLIS = 100;
+
+    private final StateMachine<I, R> delegate;
+    private final StateMachineMetrics metrics;
+    private final double permitsPerNano;
+    private final int burst;
+    private final int workersCount;
+    private final SaturationPolicy saturationPolicy;
+
+    private final BlockingQueue<PendingImpact> queue;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    /**
+     * The latest queued impact of each initiator, that isn't taken by a worker yet. Used to coalesce impacts.
+     */
+    private final ConcurrentMap<String, PendingImpact> latestPending = new ConcurrentHashMap<>();
+
+    private volatile Thread[] workers;
+    private volatile ScheduledExecutorService bucketsSweeper;
+
+    /**
+     * Creates state machine, which should be {@link #start() started} before handling any impact.
+     *
+     * @param delegate         thread-safe state machine, that actually handles impacts.
+     * @param metrics          receiver of the rejections.
+     * @param permitsPerSecond rate of the impacts, each initiator is allowed to make.
+     * @param burst            maximal number of the impacts, initiator is allowed to make at once, after being idle.
+     * @param queueCapacity    maximal number of the admitted impacts, waiting for the free worker.
+     * @param workersCount     number of the worker threads.
+     * @param saturationPolicy what to do with the impact, when the queue is full.
+     */
+    public AdmissionControlledStateMachine(@NonNull StateMachine<I, R> delegate,
+                                           @NonNull StateMachineMetrics metrics,
+                                           double permitsPerSecond,
+                                           int burst,
+                                           int queueCapacity,
+                                           int workersCount,
+                                           @NonNull SaturationPolicy saturationPolicy) {
+        if (permitsPerSecond <= 0 || burst < 1 || queueCapacity < 1 || workersCount < 1) {
+            throw new IllegalArgumentException("permitsPerSecond, burst, queueCapacity and workersCount must be positive");
+        }
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.workersCount = workersCount;
+        this.saturationPolicy = saturationPolicy;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public void start() throws ApplicationStartupException {
+        if (workers != null) {
+            throw new ApplicationStartupException("Admission controlled state machine was already started");
+        }
+        Thread[] startedWorkers = new Thread[workersCount];
+        for (int i = 0; i < workersCount; i++) {
+            startedWorkers[i] = new Thread(this::work, "admission-worker-" + (i + 1));
+            startedWorkers[i].setDaemon(true);
+        }
+        // workers run while this field is set
+        workers = startedWorkers;
+        for (Thread worker : startedWorkers) {
+            worker.start();
+        }
+
+        bucketsSweeper = Executors.newSingleThreadScheduledExecutor();
+        bucketsSweeper.scheduleWithFixedDelay(this::sweepBuckets,
+                                              BUCKETS_SWEEP_INTERVAL_MILLIS,
+                                              BUCKETS_SWEEP_INTERVAL_MILLIS,
+                                              TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        Thread[] actualWorkers = workers;
+        if (actualWorkers == null) {
+            return;
+        }
+        workers = null;
+        bucketsSweeper.shutdownNow();
+        try {
+            // let the running impacts complete
+            for (Thread worker : actualWorkers) {
+                worker.join(TimeUnit.MINUTES.toMillis(1));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        PendingImpact pendingImpact;
+        while ((pendingImpact = queue.poll()) != null) {
+            pendingImpact.take().completeExceptionally(new IllegalStateException("Admission controlled state machine was stopped"));
+        }
+        latestPending.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Waits till the impact is handled by one of the workers.
+     *
+     * @throws TransitionExecutionException also if the impact wasn't admitted, see {@link #RATE_LIMITED_CODE}, {@link
+     *                                      #QUEUE_SATURATED_CODE} and {@link #COALESCED_CODE}.
+     */
+    @Override
+    public R handleImpact(I impact) throws TransitionElectionException, TransitionExecutionException {
+        if (workers == null) {
+            throw new IllegalStateException("Admission controlled state machine isn't started");
+        }
+        String initiator = impact.getInitiatorAuthData().getIdentifier();
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(initiator, key -> new TokenBucket(now));
+        if (!bucket.tryAcquire(now)) {
+            throw reject("Initiator " + initiator + " exceeded its rate", RATE_LIMITED_CODE);
+        }
+
+        PendingImpact pendingImpact = new PendingImpact(initiator, impact);
+        CompletableFuture<R> result = pendingImpact.result;
+        if (queue.offer(pendingImpact)) {
+            latestPending.put(initiator, pendingImpact);
+            if (pendingImpact.isTaken()) {
+                // worker took it before it was put, so nobody else would remove it
+                latestPending.remove(initiator, pendingImpact);
+            }
+            if (workers == null && queue.remove(pendingImpact)) {
+                // stopped meanwhile, and its drain could miss the impact, so nobody would take it
+                latestPending.remove(initiator, pendingImpact);
+                pendingImpact.take().completeExceptionally(new IllegalStateException("Admission controlled state machine was stopped"));
+            }
+        } else {
+            result = coalesce(initiator, impact);
+            if (result == null) {
+                throw reject("Queue is full, impact of initiator " + initiator + " is rejected", QUEUE_SATURATED_CODE);
+            }
+        }
+        return await(result);
+    }
+
+    /**
+     * Returns the number of the admitted impacts, waiting for the free worker.
+     *
+     * @return the number of the queued impacts.
+     */
+    public int getQueuedImpactsCount() {
+        return queue.size();
+    }
+
+    /**
+     * Replaces the queued impact of the same initiator by the provided one, if the policy allows.
+     *
+     * @return future of the provided impact result, or {@code null} if it wasn't coalesced.
+     */
+    private CompletableFuture<R> coalesce(String initiator, I impact) {
+        if (saturationPolicy != SaturationPolicy.COALESCE) {
+            return null;
+        }
+        PendingImpact queued = latestPending.get(initiator);
+        if (queued == null) {
+            return null;
+        }
+        CompletableFuture<R> result = queued.supersede(impact);
+        if (result != null) {
+            metrics.recordAdmissionRejection(COALESCED_CODE);
+        }
+        return result;
+    }
+
+    private TransitionExecutionException reject(String message, String code) {
+        metrics.recordAdmissionRejection(code);
+        return new TransitionExecutionException(message, code);
+    }
+
+    private void work() {
+        while (workers != null) {
+            PendingImpact pendingImpact;
+            try {
+                pendingImpact = queue.poll(WORKER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (pendingImpact == null) {
+                continue;
+            }
+            CompletableFuture<R> result = pendingImpact.take();
+            // can't be superseded anymore
+            I impact = pendingImpact.impact;
+            latestPending.remove(pendingImpact.initiator, pendingImpact);
+            try {
+                result.complete(delegate.handleImpact(impact));
+            } catch (Throwable e) {
+                // caller waits for the result, whatever is thrown
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void sweepBuckets() {
+        long now = System.nanoTime();
+        // bucket, that was taken by some impact right before the removal, is just forgotten, which only lets the initiator a new burst
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private static <R> R await(CompletableFuture<R> result) throws TransitionElectionException, TransitionExecutionException {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TransitionElectionException) {
+                throw (TransitionElectionException) cause;
+            }
+            if (cause instanceof TransitionExecutionException) {
+                throw (TransitionExecutionException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * What to do with the admitted impact, when the queue is full.
+     */
+    public enum SaturationPolicy {
+
+        /**
+         * Reject the impact with the {@link #QUEUE_SATURATED_CODE}.
+         */
+        REJECT,
+
+        /**
+         * If the initiator already has an impact in the queue, replace it by the new one, which is handled instead, while the caller of the
+         * replaced impact gets the {@link #COALESCED_CODE}. Otherwise, reject the impact with the {@link #QUEUE_SATURATED_CODE}. Suits the
+         * impacts, where only the latest one of the initiator matters, like repeated commands of the impatient user.
+         */
+        COALESCE
+    }
+
+    private final class TokenBucket {
+
+        /**
+         * Guarded by the bucket itself, as well as {@link #refilledAt}.
+         */
+        private double tokens;
+        private long refilledAt;
+
+        private TokenBucket(long now) {
+            this.tokens = burst;
+            this.refilledAt = now;
+        }
+
+        private synchronized boolean tryAcquire(long now) {
+            refill(now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= burst;
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerNano);
+                refilledAt = now;
+            }
+        }
+    }
+
+    private final class PendingImpact {
+
+        private final String initiator;
+        /**
+         * Guarded by the pending impact itself, as well as {@link #result} and {@link #isTaken}.
+         */
+        private I impact;
+        private CompletableFuture<R> result = new CompletableFuture<>();
+        private boolean isTaken;
+
+        private PendingImpact(String initiator, I impact) {
+            this.initiator = initiator;
+            this.impact = impact;
+        }
+
+        /**
+         * Marks the impact as taken by the worker, so it can't be superseded anymore.
+         *
+         * @return future of the impact result to complete.
+         */
+        private synchronized CompletableFuture<R> take() {
+            isTaken = true;
+            return result;
+        }
+
+        private synchronized boolean isTaken() {
+            return isTaken;
+        }
+
+        /**
+         * Replaces the queued impact by the {@code newImpact}, and fails the caller of the replaced one.
+         *
+         * @return future of the {@code newImpact} result, or {@code null} if the impact is already taken by the worker.
+         */
+        private synchronized CompletableFuture<R> supersede(I newImpact) {
+            if (isTaken) {
+                return null;
+            }
+            CompletableFuture<R> supersededResult = result;
+            impact = newImpact;
+            result = new CompletableFuture<>();
+            supersededResult.completeExceptionally(new TransitionExecutionException(
+                "Impact was superseded by the newer impact of initiator " + initiator, COALESCED_CODE));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ua.ddovgal.mangamonitoring.state.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.StateMachine;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+
+/**
+ * Front end for any other {@link StateMachine}, which short-circuits the re-delivered impacts. Impact is a duplicate, if the impact of the
+ * same initiator (same {@link AuthenticationData#getIdentifier()}) with the same {@link Impact#getIdempotencyKey()} was handled within the
+ * window. Duplicate isn't passed to the {@link #delegate}, so it doesn't run the transition and doesn't write the state once again, and
+ * gets the cached result of the original impact instead. Duplicate of the impact, which is being handled at the moment, waits for its
+ * result. Impacts without idempotency key are always passed to the {@link #delegate}.
+ * <p/>
+ * Results are kept in two generations, the current one and the previous one. Generation is rotated once it's older than the {@link
+ * #window}, or has {@link #maxEntriesPerGeneration} entries: the current generation becomes the previous one, and the previous one is
+ * dropped at once, so there is no per-entry expiry. Hence, the impact is remembered for at least the {@link #window}, unless more than
+ * {@link #maxEntriesPerGeneration} impacts came meanwhile, and for at most the two windows, while memory is bounded by the two generations.
+ * <p/>
+ * Results of the failed impacts aren't kept, so the re-delivered impact is handled once again.
+ *
+ * @param <I> type of the incoming impact to handle.
+ * @param <R> type of the impact result.
+ */
+@Slf4j
+public class DeduplicatingStateMachine<I extends Impact, R> implements StateMachine<I, R> {
+
+    private final StateMachine<I, R> delegate;
+    private final long window;
+    private final int maxEntriesPerGeneration;
+
+    private final AtomicReference<Generations<R>> generations;
+    private final LongAdder duplicates = new LongAdder();
+
+    /**
+     * Creates deduplicating front end of the {@code delegate}.
+     *
+     * @param delegate                state machine, that actually handles impacts.
+     * @param window                  minimal time the handled impact is remembered for.
+     * @param maxEntriesPerGeneration maximal number of the impacts remembered by one generation.
+     */
+    public DeduplicatingStateMachine(@NonNull StateMachine<I, R> delegate, @NonNull Duration window, int maxEntriesPerGeneration) {
+        if (window.isNegative() || window.isZero() || maxEntriesPerGeneration < 1) {
+            throw new IllegalArgumentException("window and maxEntriesPerGeneration must be positive");
+        }
+        this.delegate = delegate;
+        this.window = window.toNanos();
+        this.maxEntriesPerGeneration = maxEntriesPerGeneration;
+        this.generations = new AtomicReference<>(new Generations<>(new ConcurrentHashMap<>(),
+                                                                   new ConcurrentHashMap<>(),
+                                                                   System.nanoTime()));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Returns the cached result, if the impact is a duplicate.
+     */
+    @Override
+    public R handleImpact(I impact) throws TransitionElectionException, TransitionExecutionException {
+        String idempotencyKey = impact.getIdempotencyKey();
+        if (idempotencyKey == null) {
+            return delegate.handleImpact(impact);
+        }
+
+        // same key of different initiators isn't a duplicate
+        String key = impact.getInitiatorAuthData().getIdentifier() + '\u0000' + idempotencyKey;
+        CompletableFuture<R> result = new CompletableFuture<>();
+        Generations<R> actualGenerations = rotateIfNeeded();
+        CompletableFuture<R> original = actualGenerations.previous.get(key);
+        if (original == null) {
+            original = actualGenerations.current.putIfAbsent(key, result);
+        }
+        if (original != null) {
+            duplicates.increment();
+            log.info("Duplicate impact={} short-circuited", impact);
+            return await(original);
+        }
+
+        try {
+            R impactResult = delegate.handleImpact(impact);
+            result.complete(impactResult);
+            return impactResult;
+        } catch (Throwable e) {
+            actualGenerations.current.remove(key, result);
+            result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of the duplicates, that were short-circuited.
+     *
+     * @return the number of the short-circuited duplicates.
+     */
+    public long getDuplicatesCount() {
+        return duplicates.sum();
+    }
+
+    private Generations<R> rotateIfNeeded() {
+        while (true) {
+            Generations<R> actual = generations.get();
+            long now = System.nanoTime();
+            long age = now - actual.currentStartedAt;
+            if (age < window && actual.current.size() < maxEntriesPerGeneration) {
+                return actual;
+            }
+            // current generation is dropped as well, if it's older than the two windows
+            ConcurrentMap<String, CompletableFuture<R>> previous = age < 2 * window ? actual.current : new ConcurrentHashMap<>();
+            Generations<R> rotated = new Generations<>(new ConcurrentHashMap<>(), previous, now);
+            if (generations.compareAndSet(actual, rotated)) {
+                return rotated;
+            }
+        }
+    }
+
+    private static <R> R await(CompletableFuture<R> result) throws TransitionElectionException, TransitionExecutionException {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TransitionElectionException) {
+                throw (TransitionElectionException) cause;
+            }
+            if (cause instanceof TransitionExecutionException) {
+                throw (TransitionExecutionException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class Generations<R> {
+
+        private final ConcurrentMap<String, CompletableFuture<R>> current;
+        private final ConcurrentMap<String, CompletableFuture<R>> previous;
+        private final long currentStartedAt;
+    }
+}
@@ -0,0 +1,181 @@
+package ua.ddovgal.mangamonitoring.state.concurrent;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.StateMachine;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+
+/**
+ * Concurrent front end for any other {@link StateMachine}, which makes it safe to be used by many threads at once. Impacts of the same
+ * initiator (same {@link AuthenticationData#getIdentifier()}) are handled strictly one after another, in the order they were submitted,
+ * while impacts of different initiators are handled in parallel on the provided {@link #executor}.
+ * <p/>
+ * Under the hood, each initiator that has pending impacts gets its own mailbox — a queue of those impacts. Mailbox is drained by one
+ * executor task at a time and disappears as soon as it becomes empty, so idle initiators don't cost anything. To prevent one busy
+ * initiator from holding an executor thread forever, mailbox gives the thread up after {@link #DRAIN_BATCH_SIZE} impacts and gets back
+ * into the executor queue.
+ * <p/>
+ * Keep in mind that {@link #handleImpact(Impact)} blocks the calling thread till the impact is handled, hence it must never be called
+ * from the {@link #executor} threads, otherwise they could wait for each other forever.
+ *
+ * @param <I> type of the incoming impact to handle.
+ * @param <R> type of the impact result.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class InitiatorSerializingStateMachine<I extends Impact, R> implements StateMachine<I, R> {
+
+    /**
+     * Maximal number of impacts handled by the mailbox drain task before it gives the executor thread up for other mailboxes.
+     */
+    public static final int DRAIN_BATCH_SIZE = 16;
+
+    /**
+     * State machine that actually handles impacts. It's not required to be thread-safe for the same initiator impacts.
+     */
+    @NonNull
+    private final StateMachine<I, R> delegate;
+
+    /**
+     * Executor that runs mailboxes draining. The level of its parallelism defines how many initiators are served at the same time.
+     */
+    @NonNull
+    private final Executor executor;
+
+    private final ConcurrentMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    /**
+     * Submits the {@code impact} to be handled after all the previously submitted impacts of the same initiator. Doesn't block.
+     *
+     * @param impact object that describes impact.
+     *
+     * @return future of the impact result, that fails with the same exceptions as {@link StateMachine#handleImpact(Impact)} does.
+     */
+    public CompletableFuture<R> submit(I impact) {
+        String initiator = impact.getInitiatorAuthData().getIdentifier();
+        PendingImpact pendingImpact = new PendingImpact(impact);
+
+        boolean[] isNewMailbox = { false };
+        Mailbox mailbox = mailboxes.compute(initiator, (key, existing) -> {
+            Mailbox actual = existing;
+            if (actual == null) {
+                actual = new Mailbox(key);
+                isNewMailbox[0] = true;
+            }
+            actual.pendingImpacts.add(pendingImpact);
+            return actual;
+        });
+
+        if (isNewMailbox[0]) {
+            schedule(mailbox);
+        }
+        return pendingImpact.result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Submits the {@code impact} and waits till it's handled.
+     *
+     * @see #submit(Impact)
+     */
+    @Override
+    public R handleImpact(I impact) throws TransitionElectionException, TransitionExecutionException {
+        try {
+            return submit(impact).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TransitionElectionException) {
+                throw (TransitionElectionException) cause;
+            }
+            if (cause instanceof TransitionExecutionException) {
+                throw (TransitionExecutionException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of initiators that currently have pending impacts.
+     *
+     * @return the number of initiators that currently have pending impacts.
+     */
+    public int getActiveInitiatorsCount() {
+        return mailboxes.size();
+    }
+
+    private void schedule(Mailbox mailbox) {
+        try {
+            executor.execute(mailbox);
+        } catch (RejectedExecutionException e) {
+            log.error("Executor rejected mailbox of initiator={}", mailbox.initiator, e);
+            // nobody will drain this mailbox, so it's removed together with everything it has
+            mailboxes.remove(mailbox.initiator, mailbox);
+            PendingImpact pendingImpact;
+            while ((pendingImpact = mailbox.pendingImpacts.poll()) != null) {
+                pendingImpact.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private final class Mailbox implements Runnable {
+
+        private final String initiator;
+        private final Queue<PendingImpact> pendingImpacts = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void run() {
+            for (int handled = 0; handled < DRAIN_BATCH_SIZE; handled++) {
+                PendingImpact pendingImpact = pendingImpacts.poll();
+                if (pendingImpact == null && retireIfEmpty()) {
+                    return;
+                }
+                if (pendingImpact == null) {
+                    // new impact was added between poll and retire attempt
+                    continue;
+                }
+                pendingImpact.handle();
+            }
+            // batch is over, but mailbox may still have something, let others be served before continue
+            schedule(this);
+        }
+
+        /**
+         * Removes this mailbox if it's still empty. Done under the same map lock {@link #submit(Impact)} adds impacts with, hence impact
+         * is never added to the already retired mailbox.
+         */
+        private boolean retireIfEmpty() {
+            return mailboxes.computeIfPresent(initiator, (key, mailbox) -> mailbox.pendingImpacts.isEmpty() ? null : mailbox) == null;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private final class PendingImpact {
+
+        private final I impact;
+        private final CompletableFuture<R> result = new CompletableFuture<>();
+
+        private void handle() {
+            try {
+                result.complete(delegate.handleImpact(impact));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.NonNull;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.VersionedState;
+import ua.ddovgal.mangamonitoring.state.VersionedStateDao;
+
+/**
+ * In-memory {@link VersionedStateDao}, backed by the {@link ConcurrentHashMap}. Useful for single node deployments, which don't need the
+ * states to survive restart, and for tests.
+ * <p/>
+ * Versions are taken from the single counter of the whole store, hence they never repeat, even if the state is removed and set again.
+ * Otherwise, the optimistic attempt, that read the state before the removal, could succeed on the state, which was set after it, but got
+ * the same version.
+ * <p/>
+ * Keep in mind, users are told apart by the {@link AuthenticationData#getIdentifier()}.
+ */
+public class ConcurrentMapStateDao implements VersionedStateDao {
+
+    private final ConcurrentMap<String, VersionedState> states = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong(VersionedState.ABSENT_VERSION);
+
+    @Override
+    public VersionedState getStateVersioned(AuthenticationData authData) {
+        return states.getOrDefault(authData.getIdentifier(), VersionedState.absent());
+    }
+
+    @Override
+    public void setState(AuthenticationData authData, @NonNull State state) {
+        // version is taken under the entry lock, so it only grows for the same user
+        states.compute(authData.getIdentifier(), (identifier, existing) -> VersionedState.of(state, versions.incrementAndGet()));
+    }
+
+    @Override
+    public boolean compareAndSetState(AuthenticationData authData, long expectedVersion, @NonNull State state) {
+        boolean[] isSet = { false };
+        states.compute(authData.getIdentifier(), (identifier, existing) -> {
+            long actualVersion = existing == null ? VersionedState.ABSENT_VERSION : existing.getVersion();
+            if (actualVersion != expectedVersion) {
+                return existing;
+            }
+            isSet[0] = true;
+            return VersionedState.of(state, versions.incrementAndGet());
+        });
+        return isSet[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Deletes the state. Once it's set again, it gets the version greater than any version it had before the removal.
+     */
+    @Override
+    public void removeState(AuthenticationData authData) {
+        states.remove(authData.getIdentifier());
+    }
+
+    /**
+     * Returns the number of the stored states.
+     *
+     * @return the number of the stored states.
+     */
+    public int getStatesCount() {
+        return states.size();
+    }
+}
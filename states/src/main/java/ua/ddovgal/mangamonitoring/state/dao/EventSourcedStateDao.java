@@ -0,0 +1,547 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.core.ManagedComponent;
+import ua.ddovgal.mangamonitoring.core.exception.ApplicationStartupException;
+import ua.ddovgal.mangamonitoring.state.NoInteractionsBeforeState;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.StateDao;
+
+/**
+ * {@link StateDao} that stores states as the events of the transitions, in the append-only log file, which is never rewritten. Hence, each
+ * write is a sequential append, and the log is also the audit trail of all the transitions, that could be {@link #replay(Consumer)
+ * replayed}, without any extra writes.
+ * <p/>
+ * Each {@link #setState(AuthenticationData, State)} appends a transition event with the user identifier, the direction of the transition,
+ * in the same form as the {@link ua.ddovgal.mangamonitoring.state.util.TransitionDescriptorUtils#getDirection}, and the encoded arrival
+ * state. Departure of the direction is the state the user had before, or the {@link NoInteractionsBeforeState} for the new user. Each
+ * {@link #removeState(AuthenticationData)} appends a removal event, which has no state. Event layout is the following:
+ * <pre>
+ *  - int    length of everything after the CRC;
+ *  - int    CRC32 of everything after itself;
+ *  - byte   event type, {@link #TRANSITION_EVENT} or {@link #REMOVAL_EVENT};
+ *  - long   time of the event, in milliseconds since the epoch;
+ *  - short  length of the identifier;
+ *  - bytes  identifier in UTF-8;
+ *  - short  length of the direction;
+ *  - bytes  direction in UTF-8;
+ *  - bytes  encoded arrival state, removal has none.
+ * </pre>
+ * Hence, identifiers and directions longer than {@link Short#MAX_VALUE} bytes in UTF-8 are rejected with the {@link
+ * IllegalArgumentException}.
+ * <p/>
+ * Event holds the whole arrival state, so the actual state of a user is the one of its latest event. In-memory index keeps the offset of
+ * the latest event of each user, and reads are positional reads of the log file.
+ * <p/>
+ * Once per {@link #snapshotInterval}, if there were new events, the log is forced to the disk, and the index is written to the snapshot
+ * file, along with the log position it's actual for. Snapshot is written to the temporary file first, which then atomically replaces the
+ * previous one. On {@link #start()}, the index is loaded from the snapshot, and only the events after its position are replayed, hence
+ * recovery time depends on the number of events since the last snapshot, not on the size of the whole log. Replay stops on the first event
+ * that is incomplete or has wrong CRC, which is the event being written when the process crashed, and such tail is discarded. If the
+ * snapshot is missing or broken, the whole log is replayed.
+ * <p/>
+ * Keep in mind, users are told apart by the {@link AuthenticationData#getIdentifier()}.
+ */
+@Slf4j
+public class EventSourcedStateDao implements StateDao, ManagedComponent {
+
+    static final String LOG_FILE_NAME = "events.log";
+    static final String SNAPSHOT_FILE_NAME = "events.snapshot";
+    static final String TEMPORARY_SNAPSHOT_FILE_NAME = "events.snapshot.tmp";
+
+    private static final byte TRANSITION_EVENT = 1;
+    private static final byte REMOVAL_EVENT = 2;
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    private static final int PREFIX_SIZE = Byte.BYTES + Long.BYTES;
+    private static final String INITIAL_STATE_NAME = NoInteractionsBeforeState.class.getSimpleName();
+
+    private final Path directory;
+    private final StateCodec codec;
+    private final Duration snapshotInterval;
+
+    /**
+     * Guards the index, the log channel and the write position. Reads and snapshot copying of the index are done under the read lock, while
+     * appends are done under the write one.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, IndexEntry> index = new HashMap<>();
+    private FileChannel channel;
+    private long writePosition;
+    /**
+     * Serializes the snapshots, which are written outside the {@link #lock}. Taken before the {@link #lock}, if both are needed.
+     */
+    private final Object snapshotLock = new Object();
+    /**
+     * Guarded by the {@link #snapshotLock}, besides the {@link #start()}, which is done before any snapshot.
+     */
+    private long snapshotPosition;
+
+    private ScheduledExecutorService snapshotter;
+
+    /**
+     * Creates DAO, that keeps its log and snapshot in the {@code directory}.
+     *
+     * @param directory        directory to keep the log and snapshot in.
+     * @param codec            codec of the states.
+     * @param snapshotInterval interval between the snapshots.
+     */
+    public EventSourcedStateDao(@NonNull Path directory, @NonNull StateCodec codec, @NonNull Duration snapshotInterval) {
+        this.directory = directory;
+        this.codec = codec;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @Override
+    public void start() throws ApplicationStartupException {
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(directory);
+            // crash during snapshot, the previous one is still the actual one
+            Files.deleteIfExists(directory.resolve(TEMPORARY_SNAPSHOT_FILE_NAME));
+            channel = FileChannel.open(directory.resolve(LOG_FILE_NAME),
+                                       StandardOpenOption.CREATE,
+                                       StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE);
+            recover();
+        } catch (IOException e) {
+            throw new ApplicationStartupException("Couldn't open event log in " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        snapshotter = Executors.newSingleThreadScheduledExecutor();
+        long intervalMillis = snapshotInterval.toMillis();
+        snapshotter.scheduleWithFixedDelay(this::maintain, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Event log recovered; states={}, size={}, replayed from position={}", index.size(), writePosition, snapshotPosition);
+    }
+
+    @Override
+    public void stop() {
+        if (snapshotter != null) {
+            snapshotter.shutdown();
+            try {
+                snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized (snapshotLock) {
+            lock.writeLock().lock();
+            try {
+                if (channel != null) {
+                    snapshotIfNeeded();
+                    channel.close();
+                    channel = null;
+                    index.clear();
+                }
+            } catch (IOException | UncheckedIOException e) {
+                log.error("Couldn't close event log", e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public Optional<State> getState(AuthenticationData authData) {
+        ByteBuffer event;
+
+        lock.readLock().lock();
+        try {
+            checkStarted();
+            IndexEntry entry = index.get(authData.getIdentifier());
+            if (entry == null) {
+                return Optional.empty();
+            }
+            event = readEvent(entry.offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't read event log", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return Optional.of(codec.decode(readEncodedState(event)));
+    }
+
+    @Override
+    public void setState(AuthenticationData authData, @NonNull State state) {
+        append(authData.getIdentifier(), TRANSITION_EVENT, state.getClass().getSimpleName(), codec.encode(state));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Appends a removal event, so it looks like the state was never set. Events of the user before it stay in the log.
+     */
+    @Override
+    public void removeState(AuthenticationData authData) {
+        append(authData.getIdentifier(), REMOVAL_EVENT, INITIAL_STATE_NAME, new byte[0]);
+    }
+
+    /**
+     * Writes the snapshot, if there were new events since the last one. Index is copied under the lock, while the snapshot file is written
+     * outside it, so appends aren't blocked by the disk writes.
+     *
+     * @return whether the snapshot was written.
+     */
+    public boolean snapshotIfNeeded() {
+        synchronized (snapshotLock) {
+            long position;
+            Map<String, IndexEntry> entries;
+            lock.readLock().lock();
+            try {
+                checkStarted();
+                if (writePosition == snapshotPosition) {
+                    return false;
+                }
+                position = writePosition;
+                entries = new HashMap<>(index);
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            try {
+                snapshot(position, entries);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Couldn't write event log snapshot", e);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Reads all the events from the beginning of the log, in the order they were appended, and passes them to the {@code consumer}. Events
+     * appended during the replay aren't passed.
+     * <p/>
+     * Log is read outside the lock, so the replay doesn't block appends, however it takes time proportional to the size of the whole log.
+     *
+     * @param consumer consumer of the events.
+     */
+    public void replay(@NonNull Consumer<Event> consumer) {
+        long end;
+        lock.readLock().lock();
+        try {
+            checkStarted();
+            end = writePosition;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            long position = 0;
+            while (position < end) {
+                ByteBuffer event = readEvent(position);
+                consumer.accept(toEvent(event));
+                position += HEADER_SIZE + event.capacity();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't replay event log", e);
+        }
+    }
+
+    private void append(String identifier, byte type, String arrivalName, byte[] encodedState) {
+        byte[] encodedIdentifier = encodeWithShortLength("Identifier", identifier);
+
+        lock.writeLock().lock();
+        try {
+            checkStarted();
+            IndexEntry previous = index.get(identifier);
+            String direction = (previous == null ? INITIAL_STATE_NAME : previous.stateName) + "-" + arrivalName;
+            byte[] encodedDirection = encodeWithShortLength("Direction", direction);
+            int length = PREFIX_SIZE + Short.BYTES + encodedIdentifier.length + Short.BYTES + encodedDirection.length + encodedState.length;
+            ByteBuffer event = ByteBuffer.allocate(HEADER_SIZE + length);
+            event.putInt(length).putInt(0).put(type).putLong(System.currentTimeMillis())
+                 .putShort((short) encodedIdentifier.length).put(encodedIdentifier)
+                 .putShort((short) encodedDirection.length).put(encodedDirection)
+                 .put(encodedState);
+            event.putInt(Integer.BYTES, crc(event.array(), HEADER_SIZE, length));
+
+            long offset = writePosition;
+            event.flip();
+            while (event.hasRemaining()) {
+                channel.write(event, offset + event.position());
+            }
+            writePosition += event.capacity();
+            apply(identifier, type, offset, arrivalName);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't append to event log", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Updates the index according to the just appended or replayed event.
+     */
+    private void apply(String identifier, byte type, long offset, String arrivalName) {
+        if (type == TRANSITION_EVENT) {
+            index.put(identifier, new IndexEntry(offset, arrivalName));
+        } else {
+            index.remove(identifier);
+        }
+    }
+
+    private void recover() throws IOException {
+        snapshotPosition = 0;
+        long position = loadSnapshot();
+        long size = channel.size();
+        while (position + HEADER_SIZE <= size) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(header, position);
+            int length = header.getInt(0);
+            if (length < PREFIX_SIZE + Short.BYTES + Short.BYTES || position + HEADER_SIZE + length > size) {
+                break;
+            }
+            ByteBuffer event = ByteBuffer.allocate(length);
+            readFully(event, position + HEADER_SIZE);
+            if (crc(event.array(), 0, length) != header.getInt(Integer.BYTES)) {
+                break;
+            }
+            // states aren't decoded, only the index is rebuilt
+            ByteBuffer reader = event.duplicate().position(PREFIX_SIZE);
+            String identifier = readString(reader);
+            String direction = readString(reader);
+            apply(identifier, event.get(0), position, direction.substring(direction.lastIndexOf('-') + 1));
+            position += HEADER_SIZE + length;
+        }
+
+        if (position < size) {
+            log.warn("Discarding torn event log tail at position={}", position);
+            channel.truncate(position);
+        }
+        writePosition = position;
+    }
+
+    /**
+     * Loads the index from the snapshot, if it's intact and actual for the log.
+     *
+     * @return position of the log to replay events from.
+     */
+    private long loadSnapshot() throws IOException {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(directory.resolve(SNAPSHOT_FILE_NAME));
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+
+        ByteBuffer snapshot = ByteBuffer.wrap(content);
+        if (content.length < Integer.BYTES + Long.BYTES + Integer.BYTES
+            || crc(content, Integer.BYTES, content.length - Integer.BYTES) != snapshot.getInt()) {
+            log.warn("Event log snapshot is broken, replaying the whole log");
+            return 0;
+        }
+        long position = snapshot.getLong();
+        if (position > channel.size()) {
+            log.warn("Event log snapshot is ahead of the log, replaying the whole log");
+            return 0;
+        }
+        int count = snapshot.getInt();
+        for (int i = 0; i < count; i++) {
+            String identifier = readString(snapshot);
+            String stateName = readString(snapshot);
+            index.put(identifier, new IndexEntry(snapshot.getLong(), stateName));
+        }
+        snapshotPosition = position;
+        return position;
+    }
+
+    /**
+     * Snapshot layout is the CRC32 of everything after it, log position, number of users, and then the identifier, the arrival state name,
+     * and the offset of the latest event of each user. Must be called under the {@link #snapshotLock}.
+     *
+     * @param position log position, the {@code entries} are actual for.
+     * @param entries  copy of the index.
+     */
+    private void snapshot(long position, Map<String, IndexEntry> entries) throws IOException {
+        // offsets of the snapshot must point to the events, that are already on the disk
+        channel.force(false);
+
+        Map<String, byte[][]> encodedEntries = new HashMap<>();
+        int size = Integer.BYTES + Long.BYTES + Integer.BYTES;
+        for (Map.Entry<String, IndexEntry> entry : entries.entrySet()) {
+            byte[][] encoded = {
+                entry.getKey().getBytes(StandardCharsets.UTF_8),
+                entry.getValue().stateName.getBytes(StandardCharsets.UTF_8)
+            };
+            encodedEntries.put(entry.getKey(), encoded);
+            size += Short.BYTES + encoded[0].length + Short.BYTES + encoded[1].length + Long.BYTES;
+        }
+
+        ByteBuffer snapshot = ByteBuffer.allocate(size);
+        snapshot.putInt(0).putLong(position).putInt(entries.size());
+        for (Map.Entry<String, byte[][]> entry : encodedEntries.entrySet()) {
+            byte[][] encoded = entry.getValue();
+            snapshot.putShort((short) encoded[0].length).put(encoded[0])
+                    .putShort((short) encoded[1].length).put(encoded[1])
+                    .putLong(entries.get(entry.getKey()).offset);
+        }
+        snapshot.putInt(0, crc(snapshot.array(), Integer.BYTES, size - Integer.BYTES));
+
+        Path temporaryPath = directory.resolve(TEMPORARY_SNAPSHOT_FILE_NAME);
+        try {
+            // leftover of the failed snapshot is overwritten
+            try (FileChannel snapshotChannel = FileChannel.open(temporaryPath,
+                                                                StandardOpenOption.CREATE,
+                                                                StandardOpenOption.TRUNCATE_EXISTING,
+                                                                StandardOpenOption.WRITE)) {
+                snapshot.flip();
+                while (snapshot.hasRemaining()) {
+                    snapshotChannel.write(snapshot);
+                }
+                snapshotChannel.force(true);
+            }
+            Files.move(temporaryPath,
+                       directory.resolve(SNAPSHOT_FILE_NAME),
+                       StandardCopyOption.ATOMIC_MOVE,
+                       StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temporaryPath);
+            } catch (IOException deletionFailure) {
+                e.addSuppressed(deletionFailure);
+            }
+            throw e;
+        }
+        log.info("Event log snapshot written; states={}, position={}", entries.size(), position);
+        snapshotPosition = position;
+    }
+
+    private void maintain() {
+        try {
+            snapshotIfNeeded();
+        } catch (RuntimeException e) {
+            log.error("Event log snapshot failed", e);
+        }
+    }
+
+    /**
+     * Reads the event at the {@code offset}, without the header.
+     */
+    private ByteBuffer readEvent(long offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        readFully(length, offset);
+        ByteBuffer event = ByteBuffer.allocate(length.getInt(0));
+        readFully(event, offset + HEADER_SIZE);
+        return event;
+    }
+
+    private void readFully(ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target, position + target.position()) < 0) {
+                throw new IOException("Unexpected end of event log at position=" + position);
+            }
+        }
+    }
+
+    private Event toEvent(ByteBuffer event) {
+        ByteBuffer reader = event.duplicate().position(0);
+        byte type = reader.get();
+        Instant recordedAt = Instant.ofEpochMilli(reader.getLong());
+        String identifier = readString(reader);
+        String direction = readString(reader);
+        State state = type == TRANSITION_EVENT ? codec.decode(readEncodedState(event)) : null;
+        return new Event(identifier, direction, recordedAt, state);
+    }
+
+    private static byte[] readEncodedState(ByteBuffer event) {
+        ByteBuffer reader = event.duplicate().position(PREFIX_SIZE);
+        reader.position(reader.position() + Short.BYTES + reader.getShort(reader.position()));
+        reader.position(reader.position() + Short.BYTES + reader.getShort(reader.position()));
+        byte[] encodedState = new byte[reader.remaining()];
+        reader.get(encodedState);
+        return encodedState;
+    }
+
+    /**
+     * Encodes the {@code value}, which is stored along with its length as a short, hence must fit it.
+     */
+    private static byte[] encodeWithShortLength(String name, String value) {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        if (encoded.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException(name + " is longer than " + Short.MAX_VALUE + " bytes: " + encoded.length);
+        }
+        return encoded;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void checkStarted() {
+        if (channel == null) {
+            throw new IllegalStateException("Event log isn't started");
+        }
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Event of the log, as it's passed to the {@link #replay(Consumer)}.
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Event {
+
+        /**
+         * Identifier of the user, see {@link AuthenticationData#getIdentifier()}.
+         */
+        private final String identifier;
+        /**
+         * Direction of the transition, as "Departure-Arrival" simple names of the state classes. Removal has the {@link
+         * NoInteractionsBeforeState} arrival.
+         */
+        private final String direction;
+        private final Instant recordedAt;
+        /**
+         * Arrival state, or {@code null} for the removal.
+         */
+        private final State state;
+    }
+
+    @RequiredArgsConstructor
+    private static final class IndexEntry {
+
+        private final long offset;
+        /**
+         * Simple class name of the arrival state, which is the departure of the next event direction.
+         */
+        private final String stateName;
+    }
+}
@@ -0,0 +1,286 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.core.ManagedComponent;
+import ua.ddovgal.mangamonitoring.core.exception.ApplicationStartupException;
+import ua.ddovgal.mangamonitoring.state.NoInteractionsBeforeState;
+import ua.ddovgal.mangamonitoring.state.SimpleStateMachine;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.StateDao;
+
+/**
+ * {@link StateDao} decorator, that removes states of the users, who were idle for longer than the {@link #timeToIdle}, from the {@link
+ * #delegate} store, so that it doesn't grow without bound.
+ * <p/>
+ * Each user, whose state was set, or was read and found, is tracked by the in-memory entry with the time of the last access. Entries are kept in a queue
+ * in the order they were enqueued, hence the background sweep only looks at the head of the queue: entry, that was enqueued less than
+ * {@link #timeToIdle} ago, and all the entries after it, can't be idle yet. Entry at the head is either expired, by the {@link
+ * StateDao#removeState(AuthenticationData)} of the {@link #delegate}, or, if the user was active meanwhile, moved to the tail. So, each
+ * sweep takes time proportional to the number of entries it looks at, at most {@link #sweepBatchSize}, and never scans all the states.
+ * <p/>
+ * State, that is already idle but isn't swept yet, is expired right on the read, hence the expired user always gets no state, and {@link
+ * SimpleStateMachine} falls back to the {@link NoInteractionsBeforeState}, same as for the user, who has never interacted.
+ * <p/>
+ * {@link #delegate} must actually delete the state by the {@link StateDao#removeState(AuthenticationData)}, like {@link
+ * ConcurrentMapStateDao}, {@link MappedLogStateDao} and {@link WriteBehindCachingStateDao} do, rather than rely on the default
+ * implementation, which stores the {@link NoInteractionsBeforeState} instead, so the store doesn't shrink.
+ * <p/>
+ * Keep in mind, only users accessed since the {@link #start()} are tracked, states that are never accessed again after the restart stay in
+ * the {@link #delegate} store. Users are told apart by the {@link AuthenticationData#getIdentifier()}.
+ */
+@Slf4j
+public class ExpiringStateDao implements StateDao, ManagedComponent {
+
+    private final StateDao delegate;
+    private final long timeToIdle;
+    private final Duration sweepInterval;
+    private final int sweepBatchSize;
+
+    private final ConcurrentMap<String, Touch> touches = new ConcurrentHashMap<>();
+    private final Queue<Touch> sweepQueue = new ConcurrentLinkedQueue<>();
+    /**
+     * Sweeps must not run concurrently, since the sweep looks at the queue head, and then moves it.
+     */
+    private final Object sweepLock = new Object();
+
+    private volatile ScheduledExecutorService sweeper;
+
+    /**
+     * Creates an expiring decorator of the {@code delegate}.
+     *
+     * @param delegate       the actual store of states.
+     * @param timeToIdle     time since the last access, after which the state is removed.
+     * @param sweepInterval  interval between the background sweeps.
+     * @param sweepBatchSize maximal number of the tracked users to look at by one sweep.
+     */
+    public ExpiringStateDao(@NonNull StateDao delegate, @NonNull Duration timeToIdle, @NonNull Duration sweepInterval, int sweepBatchSize) {
+        if (sweepBatchSize < 1) {
+            throw new IllegalArgumentException("sweepBatchSize must be positive");
+        }
+        this.delegate = delegate;
+        this.timeToIdle = timeToIdle.toNanos();
+        this.sweepInterval = sweepInterval;
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    @Override
+    public Optional<State> getState(AuthenticationData authData) {
+        long now = System.nanoTime();
+        while (true) {
+            Touch touch = touches.get(authData.getIdentifier());
+            if (touch == null) {
+                return getUntrackedState(authData, now);
+            }
+            synchronized (touch) {
+                if (touch.isRetired) {
+                    // expired meanwhile, start over
+                    continue;
+                }
+                if (now - touch.lastAccess > timeToIdle) {
+                    expire(touch);
+                    return Optional.empty();
+                }
+                touch.lastAccess = now;
+                Optional<State> state = delegate.getState(authData);
+                if (state.isEmpty()) {
+                    // there is nothing to expire
+                    retire(touch);
+                }
+                return state;
+            }
+        }
+    }
+
+    @Override
+    public void setState(AuthenticationData authData, State state) {
+        long now = System.nanoTime();
+        while (true) {
+            Touch touch = getOrCreateTouch(authData, now);
+            synchronized (touch) {
+                if (touch.isRetired) {
+                    continue;
+                }
+                touch.lastAccess = now;
+                delegate.setState(authData, state);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void removeState(AuthenticationData authData) {
+        Touch touch = touches.get(authData.getIdentifier());
+        if (touch != null) {
+            synchronized (touch) {
+                retire(touch);
+            }
+        }
+        delegate.removeState(authData);
+    }
+
+    /**
+     * Returns the number of the users, whose states are tracked for the expiry.
+     *
+     * @return the number of the tracked users.
+     */
+    public int getTrackedStatesCount() {
+        return touches.size();
+    }
+
+    /**
+     * Returns the number of the entries in the sweep queue, including the ones of the users, that aren't tracked anymore, but aren't swept
+     * out of the queue yet.
+     *
+     * @return the number of the queued entries.
+     */
+    public int getSweepQueueSize() {
+        return sweepQueue.size();
+    }
+
+    @Override
+    public void start() throws ApplicationStartupException {
+        if (sweeper != null) {
+            throw new ApplicationStartupException("Idle states sweeper was already started");
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor();
+        long intervalMillis = sweepInterval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweep, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService actualSweeper = sweeper;
+        if (actualSweeper != null) {
+            actualSweeper.shutdown();
+            try {
+                // let the running sweep complete
+                actualSweeper.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sweeper = null;
+        }
+    }
+
+    /**
+     * Looks at most at {@link #sweepBatchSize} tracked users, that could be idle, and removes the states of the idle ones.
+     *
+     * @return the number of removed states.
+     */
+    public int sweep() {
+        synchronized (sweepLock) {
+            int expired = 0;
+            for (int i = 0; i < sweepBatchSize; i++) {
+                Touch touch = sweepQueue.peek();
+                long now = System.nanoTime();
+                if (touch == null || now - touch.enqueuedAt <= timeToIdle) {
+                    // all the following entries were enqueued even later
+                    break;
+                }
+                sweepQueue.poll();
+
+                synchronized (touch) {
+                    if (touch.isRetired) {
+                        continue;
+                    }
+                    if (now - touch.lastAccess > timeToIdle) {
+                        try {
+                            expire(touch);
+                            expired++;
+                            continue;
+                        } catch (RuntimeException e) {
+                            log.error("Couldn't expire state of identifier={}, will retry later", touch.identifier, e);
+                        }
+                    }
+                }
+                // was active meanwhile or couldn't be expired, hence will be checked once again after the timeToIdle since now
+                touch.enqueuedAt = now;
+                sweepQueue.add(touch);
+            }
+            return expired;
+        }
+    }
+
+    /**
+     * Starts tracking the user only if there is a state to expire, otherwise the reads of the users, who have never interacted, would fill
+     * the sweep queue with the entries, that stay there for the {@link #timeToIdle}.
+     */
+    private Optional<State> getUntrackedState(AuthenticationData authData, long now) {
+        Optional<State> state = delegate.getState(authData);
+        if (state.isPresent()) {
+            // if the user got tracked meanwhile by the concurrent access, that entry is kept
+            getOrCreateTouch(authData, now);
+        }
+        return state;
+    }
+
+    private Touch getOrCreateTouch(AuthenticationData authData, long now) {
+        String identifier = authData.getIdentifier();
+        Touch touch = touches.get(identifier);
+        if (touch != null) {
+            return touch;
+        }
+        Touch created = new Touch(identifier, authData, now);
+        touch = touches.putIfAbsent(identifier, created);
+        if (touch != null) {
+            return touch;
+        }
+        sweepQueue.add(created);
+        return created;
+    }
+
+    /**
+     * Must be called under the {@code touch} monitor.
+     */
+    private void expire(Touch touch) {
+        // if removal fails, the touch stays tracked
+        delegate.removeState(touch.authData);
+        retire(touch);
+    }
+
+    /**
+     * Must be called under the {@code touch} monitor.
+     */
+    private void retire(Touch touch) {
+        touch.isRetired = true;
+        touches.remove(touch.identifier, touch);
+    }
+
+    private static final class Touch {
+
+        private final String identifier;
+        private final AuthenticationData authData;
+        /**
+         * Time of the last read or write. Guarded by the touch itself.
+         */
+        private long lastAccess;
+        /**
+         * Time the touch was put to the tail of the sweep queue. Changed only by the sweep.
+         */
+        private volatile long enqueuedAt;
+        /**
+         * Whether the touch is not tracked anymore, and a new one should be created for the next access. Guarded by the touch itself.
+         */
+        private boolean isRetired;
+
+        private Touch(String identifier, AuthenticationData authData, long now) {
+            this.identifier = identifier;
+            this.authData = authData;
+            this.lastAccess = now;
+            this.enqueuedAt = now;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+import ua.ddovgal.mangamonitoring.state.State;
+
+/**
+ * {@link StateCodec} based on the standard java serialization. Works with any {@link Serializable} state, but produces quite large output,
+ * since each state is written together with its class description.
+ */
+public class JavaSerializationStateCodec implements StateCodec {
+
+    @Override
+    public byte[] encode(State state) {
+        if (!(state instanceof Serializable)) {
+            throw new IllegalArgumentException("State class " + state.getClass().getName() + " isn't serializable");
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(state);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Couldn't serialize state=" + state, e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public State decode(byte[] bytes) {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (State) input.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new IllegalArgumentException("Couldn't deserialize state", e);
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.core.ManagedComponent;
+import ua.ddovgal.mangamonitoring.core.exception.ApplicationStartupException;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.StateDao;
+
+/**
+ * {@link StateDao} that stores states by itself, in the append-only log file, which is memory-mapped. Doesn't need any external database.
+ * <p/>
+ * Each {@link #setState(AuthenticationData, State)} appends a record with the user identifier and the encoded state, and each {@link
+ * #removeState(AuthenticationData)} appends a tombstone record. In-memory index keeps the offset of the latest record of each user, hence
+ * both reads and writes are just memory copies. Record layout is the following:
+ * <pre>
+ *  - int    length of everything after the CRC;
+ *  - int    CRC32 of everything after itself;
+ *  - byte   record type, {@link #PUT_RECORD} or {@link #TOMBSTONE_RECORD};
+ *  - short  length of the identifier;
+ *  - bytes  identifier in UTF-8;
+ *  - bytes  encoded state, tombstone has none.
+ * </pre>
+ * Hence, identifiers longer than {@link Short#MAX_VALUE} bytes in UTF-8 are rejected with the {@link IllegalArgumentException}.
+ * <p/>
+ * On {@link #start()}, the log is scanned to rebuild the index. Scan stops on the first record that is incomplete or has wrong CRC, which
+ * is the record being written when the process crashed, and such tail is discarded.
+ * <p/>
+ * Records that were overwritten by the newer ones are garbage. Once per {@link #compactionInterval}, if garbage takes more than {@link
+ * #COMPACTION_GARBAGE_RATIO} of the log, live records are copied to the new log file, which then atomically replaces the old one. Besides,
+ * mapped pages are forced to the disk during the same periodic task and on {@link #stop()}. Since pages of the mapped file belong to the OS,
+ * process crash doesn't lose anything, while OS crash may lose writes made after the last force.
+ * <p/>
+ * Log can't be larger than 2 GiB, which is the limit of one mapped buffer.
+ * <p/>
+ * Keep in mind, users are told apart by the {@link AuthenticationData#getIdentifier()}.
+ */
+@Slf4j
+public class MappedLogStateDao implements StateDao, ManagedComponent {
+
+    /**
+     * Share of garbage in the log, starting from which log is compacted.
+     */
+    public static final double COMPACTION_GARBAGE_RATIO = 0.5;
+
+    static final String LOG_FILE_NAME = "states.log";
+    static final String COMPACTED_LOG_FILE_NAME = "states.log.compacted";
+
+    private static final byte PUT_RECORD = 1;
+    private static final byte TOMBSTONE_RECORD = 2;
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    private static final int PREFIX_SIZE = Byte.BYTES + Short.BYTES;
+
+    private final Path directory;
+    private final StateCodec codec;
+    private final int initialCapacity;
+    private final Duration compactionInterval;
+
+    /**
+     * Guards everything below. Reads are done under the read lock, while writes, remapping and compaction are done under the write one.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> index = new HashMap<>();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private long liveBytes;
+
+    private ScheduledExecutorService maintainer;
+
+    /**
+     * Creates DAO, that keeps its log in the {@code directory}.
+     *
+     * @param directory          directory to keep the log in.
+     * @param codec              codec of the states.
+     * @param initialCapacity    initial size of the log file in bytes. Log grows twice each time it's full.
+     * @param compactionInterval interval between the compaction checks.
+     */
+    public MappedLogStateDao(@NonNull Path directory, @NonNull StateCodec codec, int initialCapacity, @NonNull Duration compactionInterval) {
+        if (initialCapacity < HEADER_SIZE) {
+            throw new IllegalArgumentException("initialCapacity is too small: " + initialCapacity);
+        }
+        this.directory = directory;
+        this.codec = codec;
+        this.initialCapacity = initialCapacity;
+        this.compactionInterval = compactionInterval;
+    }
+
+    @Override
+    public void start() throws ApplicationStartupException {
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(directory);
+            // crash during compaction, the old log is still the actual one
+            Files.deleteIfExists(directory.resolve(COMPACTED_LOG_FILE_NAME));
+            map(FileChannel.open(directory.resolve(LOG_FILE_NAME),
+                                 StandardOpenOption.CREATE,
+                                 StandardOpenOption.READ,
+                                 StandardOpenOption.WRITE));
+            recover();
+        } catch (IOException e) {
+            throw new ApplicationStartupException("Couldn't open state log in " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        maintainer = Executors.newSingleThreadScheduledExecutor();
+        long intervalMillis = compactionInterval.toMillis();
+        maintainer.scheduleWithFixedDelay(this::maintain, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("State log recovered; states={}, size={}", index.size(), writePosition);
+    }
+
+    @Override
+    public void stop() {
+        if (maintainer != null) {
+            maintainer.shutdown();
+            try {
+                maintainer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                buffer.force();
+                channel.close();
+                channel = null;
+                buffer = null;
+                index.clear();
+                liveBytes = 0;
+            }
+        } catch (IOException e) {
+            log.error("Couldn't close state log", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<State> getState(AuthenticationData authData) {
+        byte[] encodedState;
+
+        lock.readLock().lock();
+        try {
+            checkStarted();
+            Integer offset = index.get(authData.getIdentifier());
+            if (offset == null) {
+                return Optional.empty();
+            }
+            ByteBuffer record = buffer.duplicate();
+            int length = record.getInt(offset);
+            int identifierLength = record.getShort(offset + HEADER_SIZE + Byte.BYTES);
+            int stateOffset = offset + HEADER_SIZE + PREFIX_SIZE + identifierLength;
+            encodedState = new byte[length - PREFIX_SIZE - identifierLength];
+            record.position(stateOffset);
+            record.get(encodedState);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return Optional.of(codec.decode(encodedState));
+    }
+
+    @Override
+    public void setState(AuthenticationData authData, @NonNull State state) {
+        append(authData.getIdentifier(), PUT_RECORD, codec.encode(state));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Appends a tombstone record, so it looks like the state was never set.
+     */
+    @Override
+    public void removeState(AuthenticationData authData) {
+        append(authData.getIdentifier(), TOMBSTONE_RECORD, new byte[0]);
+    }
+
+    /**
+     * Compacts the log if garbage takes more than {@link #COMPACTION_GARBAGE_RATIO} of it.
+     *
+     * @return whether the log was compacted.
+     */
+    public boolean compactIfNeeded() {
+        lock.writeLock().lock();
+        try {
+            checkStarted();
+            if (writePosition == 0 || (double) (writePosition - liveBytes) / writePosition <= COMPACTION_GARBAGE_RATIO) {
+                return false;
+            }
+            compact();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't compact state log", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void append(String identifier, byte type, byte[] encodedState) {
+        byte[] encodedIdentifier = identifier.getBytes(StandardCharsets.UTF_8);
+        if (encodedIdentifier.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Identifier is longer than " + Short.MAX_VALUE + " bytes: " + encodedIdentifier.length);
+        }
+        int length = PREFIX_SIZE + encodedIdentifier.length + encodedState.length;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + length);
+        record.putInt(length).putInt(0).put(type).putShort((short) encodedIdentifier.length).put(encodedIdentifier).put(encodedState);
+        record.putInt(Integer.BYTES, crc(record.array(), HEADER_SIZE, length));
+
+        lock.writeLock().lock();
+        try {
+            checkStarted();
+            ensureCapacity(record.capacity());
+            int offset = writePosition;
+            buffer.duplicate().position(offset).put(record.array());
+            writePosition += record.capacity();
+            apply(identifier, type, offset, record.capacity());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't grow state log", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Updates the index and live bytes counter according to the just appended or recovered record.
+     */
+    private void apply(String identifier, byte type, int offset, int recordSize) {
+        Integer replacedOffset = type == PUT_RECORD ? index.put(identifier, offset) : index.remove(identifier);
+        if (replacedOffset != null) {
+            liveBytes -= HEADER_SIZE + buffer.getInt(replacedOffset);
+        }
+        if (type == PUT_RECORD) {
+            liveBytes += recordSize;
+        }
+    }
+
+    private void recover() {
+        int position = 0;
+        while (position + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+
+            int recordEnd = position + HEADER_SIZE + length;
+            if (length < PREFIX_SIZE || recordEnd < 0 || recordEnd > buffer.capacity() || !isIntact(position, length)) {
+                log.warn("Discarding torn state log tail at position={}", position);
+                for (int i = position; i < Math.min(Math.max(recordEnd, position + HEADER_SIZE), buffer.capacity()); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                break;
+            }
+
+            byte type = buffer.get(position + HEADER_SIZE);
+            int identifierLength = buffer.getShort(position + HEADER_SIZE + Byte.BYTES);
+            byte[] identifier = new byte[identifierLength];
+            buffer.position(position + HEADER_SIZE + PREFIX_SIZE);
+            buffer.get(identifier);
+            apply(new String(identifier, StandardCharsets.UTF_8), type, position, HEADER_SIZE + length);
+            position = recordEnd;
+        }
+        writePosition = position;
+    }
+
+    private boolean isIntact(int position, int length) {
+        byte[] content = new byte[length];
+        buffer.position(position + HEADER_SIZE);
+        buffer.get(content);
+        return crc(content, 0, length) == buffer.getInt(position + Integer.BYTES);
+    }
+
+    private void compact() throws IOException {
+        Path compactedPath = directory.resolve(COMPACTED_LOG_FILE_NAME);
+        FileChannel compactedChannel = FileChannel.open(compactedPath,
+                                                        StandardOpenOption.CREATE_NEW,
+                                                        StandardOpenOption.READ,
+                                                        StandardOpenOption.WRITE);
+        MappedByteBuffer compacted = compactedChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacityFor(liveBytes));
+
+        int position = 0;
+        for (Map.Entry<String, Integer> entry : index.entrySet()) {
+            int offset = entry.getValue();
+            int recordSize = HEADER_SIZE + buffer.getInt(offset);
+            ByteBuffer record = buffer.duplicate();
+            record.position(offset).limit(offset + recordSize);
+            compacted.position(position);
+            compacted.put(record);
+            entry.setValue(position);
+            position += recordSize;
+        }
+        compacted.force();
+
+        Files.move(compactedPath, directory.resolve(LOG_FILE_NAME), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.info("State log compacted; size before={}, after={}", writePosition, position);
+
+        channel.close();
+        channel = compactedChannel;
+        buffer = compacted;
+        writePosition = position;
+    }
+
+    private void maintain() {
+        try {
+            compactIfNeeded();
+            lock.readLock().lock();
+            try {
+                buffer.force();
+            } finally {
+                lock.readLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            log.error("State log maintenance failed", e);
+        }
+    }
+
+    private void ensureCapacity(int recordSize) throws IOException {
+        if ((long) writePosition + recordSize <= buffer.capacity()) {
+            return;
+        }
+        if ((long) writePosition + recordSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("State log exceeded maximal size");
+        }
+        long requiredCapacity = capacityFor((long) writePosition + recordSize);
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, requiredCapacity);
+    }
+
+    private void map(FileChannel openedChannel) throws IOException {
+        channel = openedChannel;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), initialCapacity));
+    }
+
+    /**
+     * Returns the capacity, doubled from the initial one as many times as needed to fit {@code size} bytes with some free space.
+     */
+    private long capacityFor(long size) {
+        long capacity = initialCapacity;
+        while (capacity <= size) {
+            capacity *= 2;
+        }
+        return Math.min(capacity, Integer.MAX_VALUE);
+    }
+
+    private void checkStarted() {
+        if (channel == null) {
+            throw new IllegalStateException("State log isn't started");
+        }
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,32 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import ua.ddovgal.mangamonitoring.state.State;
+
+/**
+ * Converts {@link State} objects to bytes and back, for the {@link ua.ddovgal.mangamonitoring.state.StateDao}s that store states by
+ * themselves, rather than delegate it to some database.
+ */
+public interface StateCodec {
+
+    /**
+     * Encodes the {@code state} to bytes.
+     *
+     * @param state state to encode.
+     *
+     * @return encoded state.
+     *
+     * @throws IllegalArgumentException if the {@code state} can't be encoded by this codec.
+     */
+    byte[] encode(State state);
+
+    /**
+     * Decodes the state from the {@code bytes}, which were produced by {@link #encode(State)}.
+     *
+     * @param bytes encoded state.
+     *
+     * @return decoded state.
+     *
+     * @throws IllegalArgumentException if the {@code bytes} can't be decoded by this codec.
+     */
+    State decode(byte[] bytes);
+}
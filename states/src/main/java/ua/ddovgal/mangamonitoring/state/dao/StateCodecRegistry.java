@@ -0,0 +1,282 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import ua.ddovgal.mangamonitoring.state.NoInteractionsBeforeState;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+
+/**
+ * Compact binary {@link StateCodec} for the states of some particular state graph.
+ * <p/>
+ * Each state class known to the graph descriptors must be {@link Builder#register(Class, int) registered} with a small positive integer
+ * id, while {@link NoInteractionsBeforeState} always has {@code 0}. Encoded state starts with its class id, written as a variable-length
+ * integer, hence ids below 128 take 1 byte. States of the classes that have no instance fields are encoded as the id only, and are decoded
+ * with the class no-args constructor. States of the rest of classes require the {@link StateEncoder} to be registered for their class,
+ * which writes the state data after the id.
+ * <p/>
+ * Ids are stored along with the states, hence once assigned, id must never be changed or given to another class. New state classes get new
+ * ids, and classes that left the graph may stay registered, so that their states, stored before, are still decoded.
+ *
+ * @see Builder for the building steps details.
+ */
+public final class StateCodecRegistry implements StateCodec {
+
+    private final Map<Class<? extends State>, Entry> entriesByClass;
+    private final Entry[] entriesById;
+
+    private StateCodecRegistry(List<Entry> entries) {
+        int maxId = 0;
+        for (Entry entry : entries) {
+            maxId = Math.max(maxId, entry.id);
+        }
+        this.entriesById = new Entry[maxId + 1];
+        this.entriesByClass = new HashMap<>();
+        for (Entry entry : entries) {
+            entriesById[entry.id] = entry;
+            entriesByClass.put(entry.stateClass, entry);
+        }
+    }
+
+    /**
+     * Registry building starter method. Returns builder object to complete build process.
+     *
+     * @param descriptors descriptors of the graph, whose states are going to be encoded.
+     *
+     * @return registry builder object.
+     */
+    public static Builder forDescriptors(@NonNull List<? extends TransitionDescriptor<?, ?, ?, ?>> descriptors) {
+        return new Builder(descriptors);
+    }
+
+    /**
+     * Returns id of the {@code stateClass}.
+     *
+     * @param stateClass state class to get id of.
+     *
+     * @return id of the {@code stateClass}.
+     *
+     * @throws IllegalArgumentException if {@code stateClass} is unknown to this registry.
+     */
+    public int getStateClassId(Class<? extends State> stateClass) {
+        return getEntry(stateClass).id;
+    }
+
+    @Override
+    public byte[] encode(State state) {
+        Entry entry = getEntry(state.getClass());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(entry.encoder == null ? 1 : 16);
+        writeVarInt(entry.id, bytes);
+        if (entry.encoder != null) {
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+                entry.encode(state, output);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Couldn't encode state=" + state, e);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public State decode(byte[] bytes) {
+        ByteArrayInputStream input = new ByteArrayInputStream(bytes);
+        int id = readVarInt(input);
+        Entry entry = id < 0 || id >= entriesById.length ? null : entriesById[id];
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown state class id=" + id);
+        }
+
+        if (entry.encoder == null) {
+            return entry.instantiate();
+        }
+        try {
+            return entry.encoder.decode(new DataInputStream(input));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Couldn't decode state of " + entry.stateClass.getName(), e);
+        }
+    }
+
+    private Entry getEntry(Class<? extends State> stateClass) {
+        Entry entry = entriesByClass.get(stateClass);
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown state class " + stateClass.getName());
+        }
+        return entry;
+    }
+
+    private static void writeVarInt(int value, ByteArrayOutputStream output) {
+        int remained = value;
+        while ((remained & ~0x7F) != 0) {
+            output.write((remained & 0x7F) | 0x80);
+            remained >>>= 7;
+        }
+        output.write(remained);
+    }
+
+    private static int readVarInt(ByteArrayInputStream input) {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int next = input.read();
+            if (next < 0) {
+                throw new IllegalArgumentException("Encoded state is truncated");
+            }
+            value |= (next & 0x7F) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("State class id is malformed");
+    }
+
+    private static boolean hasInstanceFields(Class<?> stateClass) {
+        for (Class<?> current = stateClass; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builder of the {@link StateCodecRegistry}, that allows to register ids of the state classes and {@link StateEncoder}s of the states
+     * with fields.
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Builder {
+
+        private final List<? extends TransitionDescriptor<?, ?, ?, ?>> descriptors;
+        private final Map<Class<? extends State>, Integer> ids = new HashMap<>();
+        private final Map<Integer, Class<? extends State>> classesById = new HashMap<>();
+        private final Map<Class<? extends State>, StateEncoder<?>> encoders = new HashMap<>();
+
+        /**
+         * Registers the {@code id} of the {@code stateClass}.
+         *
+         * @param stateClass state class to register id for.
+         * @param id         positive id of the {@code stateClass}, unique within the registry.
+         *
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if the {@code id} isn't positive, or is already registered for another class, or the {@code
+         *                                  stateClass} already has another id, or is the {@link NoInteractionsBeforeState}.
+         */
+        public Builder register(@NonNull Class<? extends State> stateClass, int id) {
+            if (stateClass == NoInteractionsBeforeState.class) {
+                throw new IllegalArgumentException("NoInteractionsBeforeState always has id=0");
+            }
+            if (id < 1) {
+                throw new IllegalArgumentException("State class id must be positive, 0 is reserved for NoInteractionsBeforeState: " + id);
+            }
+            Class<? extends State> registered = classesById.get(id);
+            if (registered != null && registered != stateClass) {
+                throw new IllegalArgumentException("Id=" + id + " is already registered for " + registered.getName());
+            }
+            Integer registeredId = ids.get(stateClass);
+            if (registeredId != null && registeredId != id) {
+                throw new IllegalArgumentException("State class " + stateClass.getName() + " already has id=" + registeredId);
+            }
+            ids.put(stateClass, id);
+            classesById.put(id, stateClass);
+            return this;
+        }
+
+        /**
+         * Registers the {@code encoder} of the {@code stateClass} states.
+         *
+         * @param stateClass state class to register encoder for.
+         * @param encoder    encoder of the {@code stateClass} states.
+         * @param <S>        type of the state.
+         *
+         * @return this builder.
+         */
+        public <S extends State> Builder encoder(@NonNull Class<S> stateClass, @NonNull StateEncoder<S> encoder) {
+            encoders.put(stateClass, encoder);
+            return this;
+        }
+
+        /**
+         * Completes build process and returns the registry.
+         *
+         * @return the registry.
+         *
+         * @throws IllegalArgumentException if some state class of the graph has no registered id, or some state class has instance fields,
+         *                                  but has no registered encoder, or has neither encoder nor no-args constructor.
+         */
+        public StateCodecRegistry build() {
+            for (TransitionDescriptor<?, ?, ?, ?> descriptor : descriptors) {
+                checkRegistered(descriptor.getDepartureState());
+                checkRegistered(descriptor.getArrivalState());
+            }
+
+            List<Entry> entries = new ArrayList<>(ids.size() + 1);
+            entries.add(entry(NoInteractionsBeforeState.class, 0));
+            for (Map.Entry<Class<? extends State>, Integer> id : ids.entrySet()) {
+                entries.add(entry(id.getKey(), id.getValue()));
+            }
+            return new StateCodecRegistry(entries);
+        }
+
+        private void checkRegistered(Class<? extends State> stateClass) {
+            if (stateClass != NoInteractionsBeforeState.class && !ids.containsKey(stateClass)) {
+                throw new IllegalArgumentException("State class " + stateClass.getName() + " has no registered id");
+            }
+        }
+
+        private Entry entry(Class<? extends State> stateClass, int id) {
+            StateEncoder<?> encoder = encoders.get(stateClass);
+            if (encoder != null) {
+                return new Entry(stateClass, id, encoder, null);
+            }
+            if (hasInstanceFields(stateClass)) {
+                throw new IllegalArgumentException("State class " + stateClass.getName() + " has fields, but has no registered encoder");
+            }
+            try {
+                Constructor<? extends State> constructor = stateClass.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return new Entry(stateClass, id, null, constructor);
+            } catch (NoSuchMethodException | RuntimeException e) {
+                throw new IllegalArgumentException("Field-less state class " + stateClass.getName() + " has no accessible no-args constructor",
+                                                   e);
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class Entry {
+
+        private final Class<? extends State> stateClass;
+        private final int id;
+        private final StateEncoder<?> encoder;
+        private final Constructor<? extends State> constructor;
+
+        @SuppressWarnings("unchecked") // encoder is registered for the exact class of the state
+        private void encode(State state, DataOutputStream output) throws IOException {
+            ((StateEncoder<State>) encoder).encode(state, output);
+        }
+
+        private State instantiate() {
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Couldn't instantiate state of " + stateClass.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import ua.ddovgal.mangamonitoring.state.State;
+
+/**
+ * Binary encoder of the certain state class fields, pluggable into the {@link StateCodecRegistry}. Registry writes the state class id by
+ * itself, hence encoder is responsible only for the state data.
+ *
+ * @param <S> type of the encoded state.
+ */
+public interface StateEncoder<S extends State> {
+
+    /**
+     * Writes the {@code state} data to the {@code output}.
+     *
+     * @param state  state to encode.
+     * @param output output to write to.
+     *
+     * @throws IOException if {@code output} throws it.
+     */
+    void encode(S state, DataOutput output) throws IOException;
+
+    /**
+     * Reads the state data, written by {@link #encode(State, DataOutput)}, from the {@code input}.
+     *
+     * @param input input to read from.
+     *
+     * @return decoded state.
+     *
+     * @throws IOException if {@code input} throws it.
+     */
+    S decode(DataInput input) throws IOException;
+}
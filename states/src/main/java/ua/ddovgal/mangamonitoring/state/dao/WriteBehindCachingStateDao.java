@@ -0,0 +1,284 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.core.ManagedComponent;
+import ua.ddovgal.mangamonitoring.core.exception.ApplicationStartupException;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.StateDao;
+import ua.ddovgal.mangamonitoring.state.util.Pair;
+
+/**
+ * {@link StateDao} decorator, that saves round trips to the possibly remote {@link #delegate} store.
+ * <p/>
+ * Reads are served from the bounded in-memory cache. Cache keeps at most {@link #maxCachedStates} states, evicting the least recently used
+ * ones, and each cached state is considered actual during {@link #timeToLive} after it was read or written. Absence of the state is cached
+ * as well.
+ * <p/>
+ * Writes are applied to the cache immediately, but are written to the {@link #delegate} later, by the background flush, which runs every
+ * {@link #flushInterval}, or earlier if there are already {@link #flushBatchSize} pending writes. Each flush round sets up to {@link
+ * #flushBatchSize} states by a single {@link StateDao#setStates(List)} call. Writes are coalesced: if the same user
+ * state was set several times between flushes, only the last state is written. Pending writes are never evicted and are always visible to
+ * reads, so cache eviction doesn't lose anything. {@link #removeState(AuthenticationData)} is a pending write as well, which is flushed by
+ * the {@link StateDao#removeState(AuthenticationData)} of the {@link #delegate}.
+ * <p/>
+ * Background flush works only between {@link #start()} and {@link #stop()}. The latter flushes all the pending writes in the calling
+ * thread, so nothing is lost on a normal shutdown. Failed writes are kept to be retried by the next flush.
+ * <p/>
+ * Keep in mind, users are told apart by the {@link AuthenticationData#getIdentifier()}.
+ */
+@Slf4j
+public class WriteBehindCachingStateDao implements StateDao, ManagedComponent {
+
+    private final StateDao delegate;
+    private final int maxCachedStates;
+    private final long timeToLive;
+    private final Duration flushInterval;
+    private final int flushBatchSize;
+
+    /**
+     * Access ordered, hence iteration starts from the least recently used entry. Guarded by itself.
+     */
+    private final LinkedHashMap<String, CachedState> cache;
+    private final ConcurrentMap<String, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+    private final AtomicBoolean isEarlyFlushScheduled = new AtomicBoolean();
+    /**
+     * Flush rounds must not run concurrently, otherwise an older state could be written after the newer one.
+     */
+    private final Object flushLock = new Object();
+
+    private volatile ScheduledExecutorService flusher;
+
+    /**
+     * Creates a caching decorator of the {@code delegate}.
+     *
+     * @param delegate        the actual store of states.
+     * @param maxCachedStates maximal number of cached states.
+     * @param timeToLive      time, during which the cached state is considered actual.
+     * @param flushInterval   interval between the background flushes of pending writes.
+     * @param flushBatchSize  maximal number of pending writes to be written by one flush round.
+     */
+    public WriteBehindCachingStateDao(@NonNull StateDao delegate,
+                                      int maxCachedStates,
+                                      @NonNull Duration timeToLive,
+                                      @NonNull Duration flushInterval,
+                                      int flushBatchSize) {
+        if (maxCachedStates < 1 || flushBatchSize < 1) {
+            throw new IllegalArgumentException("maxCachedStates and flushBatchSize must be positive");
+        }
+        this.delegate = delegate;
+        this.maxCachedStates = maxCachedStates;
+        this.timeToLive = timeToLive.toNanos();
+        this.flushInterval = flushInterval;
+        this.flushBatchSize = flushBatchSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedState> eldest) {
+                return size() > WriteBehindCachingStateDao.this.maxCachedStates;
+            }
+        };
+    }
+
+    @Override
+    public Optional<State> getState(AuthenticationData authData) {
+        String identifier = authData.getIdentifier();
+
+        PendingWrite pendingWrite = pendingWrites.get(identifier);
+        if (pendingWrite != null) {
+            return Optional.ofNullable(pendingWrite.state);
+        }
+
+        long now = System.nanoTime();
+        synchronized (cache) {
+            CachedState cached = cache.get(identifier);
+            if (cached != null && now - cached.cachedAt < timeToLive) {
+                return Optional.ofNullable(cached.state);
+            }
+        }
+
+        Optional<State> state = delegate.getState(authData);
+        synchronized (cache) {
+            // state could be set during the read, and then it's more actual than the read one
+            CachedState cached = cache.get(identifier);
+            if (!pendingWrites.containsKey(identifier) && (cached == null || cached.cachedAt <= now)) {
+                cache.put(identifier, new CachedState(state.orElse(null), now));
+            }
+        }
+        return state;
+    }
+
+    @Override
+    public void setState(AuthenticationData authData, @NonNull State state) {
+        write(authData, state);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Absence of the state is cached at once, while the {@link #delegate} state is removed by the next flush.
+     */
+    @Override
+    public void removeState(AuthenticationData authData) {
+        write(authData, null);
+    }
+
+    /**
+     * Returns the number of writes that weren't flushed to the delegate yet.
+     *
+     * @return the number of writes that weren't flushed to the delegate yet.
+     */
+    public int getPendingWritesCount() {
+        return pendingWrites.size();
+    }
+
+    @Override
+    public void start() throws ApplicationStartupException {
+        if (flusher != null) {
+            throw new ApplicationStartupException("Write-behind flusher was already started");
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor();
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService actualFlusher = flusher;
+        if (actualFlusher != null) {
+            actualFlusher.shutdown();
+            try {
+                // let the running background flush complete
+                actualFlusher.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+        }
+
+        flush();
+        if (!pendingWrites.isEmpty()) {
+            log.error("Couldn't flush all the pending writes on stop, lost count={}", pendingWrites.size());
+        }
+    }
+
+    /**
+     * Writes all the pending writes to the delegate in the calling thread. Writes that failed are left pending.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            int written;
+            do {
+                written = flushRound();
+            } while (written == flushBatchSize);
+        }
+    }
+
+    /**
+     * Writes at most {@link #flushBatchSize} pending writes to the delegate. States are set by a single {@link StateDao#setStates(List)}
+     * call, while removals are applied one by one. Must be called under the {@link #flushLock}.
+     *
+     * @return the number of successfully written states.
+     */
+    private int flushRound() {
+        isEarlyFlushScheduled.set(false);
+
+        List<Map.Entry<String, PendingWrite>> sets = new ArrayList<>(Math.min(flushBatchSize, pendingWrites.size()));
+        List<Map.Entry<String, PendingWrite>> removals = new ArrayList<>();
+        for (Map.Entry<String, PendingWrite> entry : pendingWrites.entrySet()) {
+            if (sets.size() + removals.size() == flushBatchSize) {
+                break;
+            }
+            (entry.getValue().state == null ? removals : sets).add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+
+        int written = 0;
+        if (!sets.isEmpty()) {
+            List<Pair<AuthenticationData, State>> states = new ArrayList<>(sets.size());
+            for (Map.Entry<String, PendingWrite> entry : sets) {
+                states.add(Pair.of(entry.getValue().authData, entry.getValue().state));
+            }
+            try {
+                delegate.setStates(states);
+                for (Map.Entry<String, PendingWrite> entry : sets) {
+                    // if the state was set once again meanwhile, it stays pending
+                    pendingWrites.remove(entry.getKey(), entry.getValue());
+                }
+                written += sets.size();
+            } catch (RuntimeException e) {
+                log.error("Couldn't flush states of count={}, will retry later", sets.size(), e);
+            }
+        }
+        for (Map.Entry<String, PendingWrite> entry : removals) {
+            try {
+                delegate.removeState(entry.getValue().authData);
+                pendingWrites.remove(entry.getKey(), entry.getValue());
+                written++;
+            } catch (RuntimeException e) {
+                log.error("Couldn't flush removal of identifier={}, will retry later", entry.getKey(), e);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Applies the write to the cache and makes it pending.
+     *
+     * @param state state to set, or {@code null} to remove the state.
+     */
+    private void write(AuthenticationData authData, State state) {
+        String identifier = authData.getIdentifier();
+        synchronized (cache) {
+            cache.put(identifier, new CachedState(state, System.nanoTime()));
+            pendingWrites.put(identifier, new PendingWrite(authData, state));
+        }
+
+        if (pendingWrites.size() >= flushBatchSize) {
+            scheduleEarlyFlush();
+        }
+    }
+
+    private void scheduleEarlyFlush() {
+        ScheduledExecutorService actualFlusher = flusher;
+        if (actualFlusher != null && isEarlyFlushScheduled.compareAndSet(false, true)) {
+            try {
+                actualFlusher.execute(this::flush);
+            } catch (RuntimeException e) {
+                // flusher is being stopped, and stop will flush everything anyway
+                isEarlyFlushScheduled.set(false);
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class CachedState {
+
+        private final State state;
+        private final long cachedAt;
+    }
+
+    @RequiredArgsConstructor
+    private static final class PendingWrite {
+
+        private final AuthenticationData authData;
+        /**
+         * State to set, or {@code null} if the state is removed.
+         */
+        private final State state;
+    }
+}
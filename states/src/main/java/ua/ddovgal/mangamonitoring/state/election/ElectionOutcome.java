@@ -0,0 +1,167 @@
+package ua.ddovgal.mangamonitoring.state.election;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+
+/**
+ * Outcome of the election, returned by the {@link TransitionElector#elect(State, Impact)} instead of throwing {@link
+ * TransitionElectionException}. It's always one of the three: {@link Elected}, {@link None} or {@link Ambiguous}, there are no other
+ * subclasses.
+ * <p/>
+ * {@link None} is a shared instance, hence an unmatched impact costs no allocation at all.
+ *
+ * @param <I> type of the impact.
+ * @param <R> type of the impact result.
+ */
+public abstract class ElectionOutcome<I extends Impact, R> {
+
+    private static final None<?, ?> NONE = new None<>();
+
+    private ElectionOutcome() {}
+
+    /**
+     * Creates outcome of the successful election.
+     *
+     * @param transition elected transition.
+     * @param <I>        type of the impact.
+     * @param <R>        type of the impact result.
+     *
+     * @return outcome of the successful election.
+     */
+    public static <I extends Impact, R> ElectionOutcome<I, R> elected(@NonNull DepartureDefinedTransition<?, ?, I, R> transition) {
+        return new Elected<>(transition);
+    }
+
+    /**
+     * Returns outcome of the election, where none of the transitions was elected.
+     *
+     * @param <I> type of the impact.
+     * @param <R> type of the impact result.
+     *
+     * @return outcome of the election, where none of the transitions was elected.
+     */
+    @SuppressWarnings("unchecked") // None holds nothing of the I or R types
+    public static <I extends Impact, R> ElectionOutcome<I, R> none() {
+        return (ElectionOutcome<I, R>) NONE;
+    }
+
+    /**
+     * Creates outcome of the election, where more than one transition was elected.
+     *
+     * @param electedDescriptors elected transition descriptors, at least two of them.
+     * @param <I>                type of the impact.
+     * @param <R>                type of the impact result.
+     *
+     * @return outcome of the ambiguous election.
+     *
+     * @throws IllegalArgumentException if there are less than two {@code electedDescriptors}.
+     */
+    public static <I extends Impact, R> ElectionOutcome<I, R> ambiguous(@NonNull List<TransitionDescriptor<?, ?, ?, ?>> electedDescriptors) {
+        if (electedDescriptors.size() < 2) {
+            throw new IllegalArgumentException("Ambiguous election must have at least two elected descriptors");
+        }
+        return new Ambiguous<>(electedDescriptors);
+    }
+
+    /**
+     * Returns {@code true} if exactly one transition was elected.
+     *
+     * @return {@code true} if exactly one transition was elected, or else {@code false}.
+     */
+    public abstract boolean isElected();
+
+    /**
+     * Returns the elected transition, or throws the exception {@link TransitionElector#electTransition(State, Impact)} would throw for the
+     * same election.
+     *
+     * @param departure state the election was made for.
+     * @param impact    impact the election was made for.
+     *
+     * @return the elected transition.
+     *
+     * @throws TransitionElectionException if not exactly one transition was elected.
+     */
+    public abstract DepartureDefinedTransition<?, ?, I, R> getTransitionOrThrow(State departure, I impact)
+        throws TransitionElectionException;
+
+    /**
+     * Outcome of the successful election.
+     *
+     * @param <I> type of the impact.
+     * @param <R> type of the impact result.
+     */
+    public static final class Elected<I extends Impact, R> extends ElectionOutcome<I, R> {
+
+        @Getter
+        private final DepartureDefinedTransition<?, ?, I, R> transition;
+
+        private Elected(DepartureDefinedTransition<?, ?, I, R> transition) {
+            this.transition = transition;
+        }
+
+        @Override
+        public boolean isElected() {
+            return true;
+        }
+
+        @Override
+        public DepartureDefinedTransition<?, ?, I, R> getTransitionOrThrow(State departure, I impact) {
+            return transition;
+        }
+    }
+
+    /**
+     * Outcome of the election, where none of the transitions was elected.
+     *
+     * @param <I> type of the impact.
+     * @param <R> type of the impact result.
+     */
+    public static final class None<I extends Impact, R> extends ElectionOutcome<I, R> {
+
+        private None() {}
+
+        @Override
+        public boolean isElected() {
+            return false;
+        }
+
+        @Override
+        public DepartureDefinedTransition<?, ?, I, R> getTransitionOrThrow(State departure, I impact) throws TransitionElectionException {
+            throw new TransitionElectionException(impact, departure, List.of());
+        }
+    }
+
+    /**
+     * Outcome of the election, where more than one transition was elected.
+     *
+     * @param <I> type of the impact.
+     * @param <R> type of the impact result.
+     */
+    public static final class Ambiguous<I extends Impact, R> extends ElectionOutcome<I, R> {
+
+        @Getter
+        private final List<TransitionDescriptor<?, ?, ?, ?>> electedDescriptors;
+
+        private Ambiguous(List<TransitionDescriptor<?, ?, ?, ?>> electedDescriptors) {
+            this.electedDescriptors = electedDescriptors;
+        }
+
+        @Override
+        public boolean isElected() {
+            return false;
+        }
+
+        @Override
+        public DepartureDefinedTransition<?, ?, I, R> getTransitionOrThrow(State departure, I impact) throws TransitionElectionException {
+            throw new TransitionElectionException(impact, departure, electedDescriptors);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package ua.ddovgal.mangamonitoring.state.election;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.NonNull;
+
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.election.StreamingTransitionFilter.Sieve;
+import ua.ddovgal.mangamonitoring.state.election.StreamingTransitionFilter.Verdict;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.graph.DepartureTable;
+import ua.ddovgal.mangamonitoring.state.graph.StateGraph;
+import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+
+/**
+ * Fused analog of {@link SimpleTransitionElector}. It elects the same transition as {@link SimpleTransitionElector} with the same filters
+ * would do, but instead of collecting suitable transitions list first and then re-collecting it by each filter, checks suitability and
+ * passes each departing descriptor through all the {@link #filters} in one pass. Hence, no intermediate lists are created, and the only
+ * transition object created is the elected one.
+ * <p/>
+ * Filters are applied consequently, in the order of the {@link #filters} list. If some filter accepts candidate exclusively, all the
+ * candidates that remained before are dropped, and sieves of all the following filters are reset.
+ * <p/>
+ * This implementation will throw {@link TransitionElectionException} if not exactly one transition remains after the filtering, or return
+ * the corresponding {@link ElectionOutcome} from the {@link #elect(State, Impact)}, in which case the failed election allocates nothing but
+ * the sieves.
+ *
+ * @param <I> type of the impact.
+ * @param <R> type of the impact result.
+ *
+ * @see StateGraph for the graph details.
+ * @see StreamingTransitionFilter for the filtering details.
+ */
+public class FusedTransitionElector<I extends Impact, R> implements TransitionElector<I, R> {
+
+    private final StateGraph<I, R> stateGraph;
+    private final StreamingTransitionFilter<I, R>[] filters;
+
+    /**
+     * Creates elector that uses the provided {@code stateGraph} and {@code filters}.
+     *
+     * @param stateGraph graph to take departing transitions from.
+     * @param filters    filters to apply to suitable transitions, in the order of application.
+     */
+    @SuppressWarnings("unchecked") // generic array creation is impossible, but only StreamingTransitionFilter objects are put here
+    public FusedTransitionElector(@NonNull StateGraph<I, R> stateGraph, @NonNull List<? extends StreamingTransitionFilter<I, R>> filters) {
+        this.stateGraph = stateGraph;
+        this.filters = filters.toArray(new StreamingTransitionFilter[0]);
+    }
+
+    @Override
+    public DepartureDefinedTransition<?, ?, I, R> electTransition(State departure, I impact) throws TransitionElectionException {
+        return elect(departure, impact).getTransitionOrThrow(departure, impact);
+    }
+
+    @Override
+    public ElectionOutcome<I, R> elect(State departure, I impact) {
+        return electFrom(departure, impact);
+    }
+
+    @SuppressWarnings("unchecked") // state object class is always D or its subclass, while graph is keyed by the exact class
+    private <D extends State> ElectionOutcome<I, R> electFrom(D departure, I impact) {
+        DepartureTable<D, I, R> table = stateGraph.getDepartureTable((Class<D>) departure.getClass()).narrow(impact);
+        Sieve<I, R>[] sieves = openSieves(impact, departure);
+
+        TransitionDescriptor<D, ?, I, R> elected = null;
+        // created only if there is more than one remained candidate, which is a failure case anyway
+        List<TransitionDescriptor<?, ?, ?, ?>> alsoElected = null;
+
+        candidates:
+        for (TransitionDescriptor<D, ?, I, R> descriptor : table.getDescriptors()) {
+            if (!descriptor.isSuitable(departure, impact)) {
+                continue;
+            }
+
+            for (int i = 0; i < sieves.length; i++) {
+                Verdict verdict = sieves[i].sift(descriptor);
+                if (verdict == Verdict.REJECT) {
+                    continue candidates;
+                }
+                if (verdict == Verdict.ACCEPT_EXCLUSIVELY) {
+                    elected = null;
+                    alsoElected = null;
+                    for (int j = i + 1; j < sieves.length; j++) {
+                        sieves[j].reset();
+                    }
+                }
+            }
+
+            if (elected == null) {
+                elected = descriptor;
+            } else {
+                if (alsoElected == null) {
+                    alsoElected = new ArrayList<>();
+                }
+                alsoElected.add(descriptor);
+            }
+        }
+
+        if (elected == null) {
+            return ElectionOutcome.none();
+        }
+        if (alsoElected != null) {
+            List<TransitionDescriptor<?, ?, ?, ?>> electedDescriptors = new ArrayList<>();
+            electedDescriptors.add(elected);
+            electedDescriptors.addAll(alsoElected);
+            return ElectionOutcome.ambiguous(electedDescriptors);
+        }
+
+        return ElectionOutcome.elected(new DepartureDefinedTransition<>(elected, departure));
+    }
+
+    @SuppressWarnings("unchecked") // generic array creation is impossible, but only Sieve objects are put here
+    private Sieve<I, R>[] openSieves(I impact, State departure) {
+        Sieve<I, R>[] sieves = new Sieve[filters.length];
+        for (int i = 0; i < filters.length; i++) {
+            sieves[i] = filters[i].openSieve(impact, departure);
+        }
+        return sieves;
+    }
+}
@@ -12,15 +12,21 @@ import ua.ddovgal.mangamonitoring.domain.Account;
 import ua.ddovgal.mangamonitoring.domain.Privilege;
 import ua.ddovgal.mangamonitoring.state.Impact;
 import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.graph.DepartureTable;
 import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
 
 /**
  * Filter implementation which rejects all transitions that require {@link Privilege} with {@link Privilege#getAccessLevel()} higher than
  * the provided {@link Impact#getInitiatorAuthData()} assigned {@link Account} has.
+ * <p/>
+ * Account is looked up only if some of the transitions requires privilege higher than {@link Privilege#COMMON_USER}, since the rest of them
+ * are permitted for everyone. Being used as a {@link StreamingTransitionFilter}, it's looked up only when the first such candidate is
+ * sifted.
  */
 @Slf4j
 @RequiredArgsConstructor
-public class OnlyPermittedTransitionFilter<I extends Impact, R> implements TransitionFilter<I, R> {
+public class OnlyPermittedTransitionFilter<I extends Impact, R> implements StreamingTransitionFilter<I, R> {
 
     private final AccountService accountService;
 
@@ -28,14 +34,70 @@ public class OnlyPermittedTransitionFilter<I extends Impact, R> implements Trans
     public List<DepartureDefinedTransition<?, ?, I, R>> filter(I impact,
                                                                State state,
                                                                List<DepartureDefinedTransition<?, ?, I, R>> transitions) {
-        // account is optional because there is a possibility of the impact initiator never acted before
-        Optional<Account> account = accountService.getAssociatedAccount(impact.getInitiatorAuthData());
-        log.info("account={}", account.map(Account::toString).orElse(null));
-        // hence, default privilege is used for that case
-        Privilege privilege = account.map(Account::getPrivilege).orElse(Privilege.COMMON_USER);
+        if (transitions.stream().noneMatch(transition -> DepartureTable.requiresElevatedPrivilege(transition.getDescriptor()))) {
+            return transitions;
+        }
+
+        Privilege privilege = getInitiatorPrivilege(accountService, impact);
         return transitions
             .stream()
-            .filter(transition -> privilege.getAccessLevel() >= transition.getRequiredPrivilege().getAccessLevel())
+            .filter(transition -> isPermitted(privilege, transition.getRequiredPrivilege()))
             .collect(Collectors.toList());
     }
+
+    @Override
+    public Sieve<I, R> openSieve(I impact, State state) {
+        return new PermittedSieve(impact);
+    }
+
+    /**
+     * Looks up the privilege of the {@code impact} initiator.
+     *
+     * @param accountService service to look the initiator account up with.
+     * @param impact         impact to get the initiator of.
+     *
+     * @return privilege of the initiator account, or {@link Privilege#COMMON_USER} if initiator has no account.
+     */
+    static Privilege getInitiatorPrivilege(AccountService accountService, Impact impact) {
+        // account is optional because there is a possibility of the impact initiator never acted before
+        Optional<Account> account = accountService.getAssociatedAccount(impact.getInitiatorAuthData());
+        log.info("account={}", account.orElse(null));
+        // hence, default privilege is used for that case
+        return account.map(Account::getPrivilege).orElse(Privilege.COMMON_USER);
+    }
+
+    /**
+     * Checks whether the {@code privilege} is enough for the {@code requiredPrivilege}.
+     *
+     * @param privilege         privilege of the initiator.
+     * @param requiredPrivilege required privilege.
+     *
+     * @return whether the {@code privilege} is enough for the {@code requiredPrivilege}.
+     */
+    static boolean isPermitted(Privilege privilege, Privilege requiredPrivilege) {
+        return privilege.getAccessLevel() >= requiredPrivilege.getAccessLevel();
+    }
+
+    @RequiredArgsConstructor
+    private final class PermittedSieve implements Sieve<I, R> {
+
+        private final I impact;
+        private Privilege privilege;
+
+        @Override
+        public Verdict sift(TransitionDescriptor<?, ?, I, R> descriptor) {
+            if (!DepartureTable.requiresElevatedPrivilege(descriptor)) {
+                return Verdict.ACCEPT;
+            }
+            if (privilege == null) {
+                privilege = getInitiatorPrivilege(accountService, impact);
+            }
+            return isPermitted(privilege, descriptor.getRequiredPrivilege()) ? Verdict.ACCEPT : Verdict.REJECT;
+        }
+
+        @Override
+        public void reset() {
+            // privilege doesn't depend on the sifted candidates, hence nothing to forget
+        }
+    }
 }
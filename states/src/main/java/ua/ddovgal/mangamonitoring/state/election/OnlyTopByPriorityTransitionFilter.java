@@ -15,7 +15,12 @@ import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
  * For example, for transitions list with priorities {@code [2, 4, 0, 1, 0, 4, 1, 1]} the highest priority is {@code 4}, hence only
  * transitions with priority equal to {@code 4} will remain, so filtered list will be {@code [4, 4]}.
  */
-public class OnlyTopByPriorityTransitionFilter<I extends Impact, R> implements TransitionFilter<I, R> {
+public class OnlyTopByPriorityTransitionFilter<I extends Impact, R> implements StreamingTransitionFilter<I, R> {
+
+    @Override
+    public Sieve<I, R> openSieve(I impact, State state) {
+        return new TopByPrioritySieve<>();
+    }
 
     @Override
     public List<DepartureDefinedTransition<?, ?, I, R>> filter(I impact,
@@ -38,4 +43,24 @@ public class OnlyTopByPriorityTransitionFilter<I extends Impact, R> implements T
 
         return topPriorityTransitions;
     }
+
+    private static final class TopByPrioritySieve<I extends Impact, R> implements Sieve<I, R> {
+
+        private int maxPriority = -1;
+
+        @Override
+        public Verdict sift(TransitionDescriptor<?, ?, I, R> descriptor) {
+            int priority = descriptor.getPriority();
+            if (priority > maxPriority) {
+                maxPriority = priority;
+                return Verdict.ACCEPT_EXCLUSIVELY;
+            }
+            return priority == maxPriority ? Verdict.ACCEPT : Verdict.REJECT;
+        }
+
+        @Override
+        public void reset() {
+            maxPriority = -1;
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package ua.ddovgal.mangamonitoring.state.election;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import ua.ddovgal.mangamonitoring.api.AccountService;
+import ua.ddovgal.mangamonitoring.domain.Privilege;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.graph.DepartureTable;
+import ua.ddovgal.mangamonitoring.state.graph.DepartureTable.PriorityBucket;
+import ua.ddovgal.mangamonitoring.state.graph.StateGraph;
+import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+
+/**
+ * Elector that elects the same transition as {@link SimpleTransitionElector} with {@link OnlyPermittedTransitionFilter} followed by {@link
+ * OnlyTopByPriorityTransitionFilter} would do, but evaluates suitability of as few transitions as possible.
+ * <p/>
+ * Departing transitions are taken by the {@link DepartureTable#getPriorityBuckets()}, from the highest priority to the lowest one. Once
+ * some bucket has suitable and permitted transitions, lower buckets can't affect the election result anymore, hence their suitability
+ * isn't evaluated at all. Same as {@link OnlyTopByPriorityTransitionFilter}, transitions of the priority lower than {@code -1} are never
+ * elected.
+ * <p/>
+ * Initiator account is looked up at most once per election, and only when it's really needed, that is when the suitable transition
+ * requires privilege higher than {@link Privilege#COMMON_USER}. Once the privilege is known, only the transitions permitted for it are
+ * evaluated, using the precomputed {@link PriorityBucket#getDescriptors(Privilege)} lists.
+ * <p/>
+ * This implementation will throw {@link TransitionElectionException} if the first bucket with suitable and permitted transitions has more
+ * than one of them, or there is no such bucket, or return the corresponding {@link ElectionOutcome} from the {@link #elect(State, Impact)}.
+ *
+ * @param <I> type of the impact.
+ * @param <R> type of the impact result.
+ *
+ * @see StateGraph for the graph details.
+ */
+@RequiredArgsConstructor
+public class PriorityBucketTransitionElector<I extends Impact, R> implements TransitionElector<I, R> {
+
+    @NonNull
+    private final StateGraph<I, R> stateGraph;
+    @NonNull
+    private final AccountService accountService;
+
+    @Override
+    public DepartureDefinedTransition<?, ?, I, R> electTransition(State departure, I impact) throws TransitionElectionException {
+        return elect(departure, impact).getTransitionOrThrow(departure, impact);
+    }
+
+    @Override
+    public ElectionOutcome<I, R> elect(State departure, I impact) {
+        return electFrom(departure, impact);
+    }
+
+    @SuppressWarnings("unchecked") // state object class is always D or its subclass, while graph is keyed by the exact class
+    private <D extends State> ElectionOutcome<I, R> electFrom(D departure, I impact) {
+        DepartureTable<D, I, R> table = stateGraph.getDepartureTable((Class<D>) departure.getClass()).narrow(impact);
+        // if nothing requires elevated privilege, everything is permitted for everyone, hence there is no need to look the account up
+        Privilege privilege = table.requiresElevatedPrivilege() ? null : Privilege.COMMON_USER;
+
+        for (PriorityBucket<D, I, R> bucket : table.getPriorityBuckets()) {
+            if (bucket.getPriority() < -1) {
+                // buckets are ordered, hence all the following ones are of the lower priority as well
+                break;
+            }
+
+            TransitionDescriptor<D, ?, I, R> elected = null;
+            List<TransitionDescriptor<?, ?, ?, ?>> alsoElected = null;
+            List<TransitionDescriptor<D, ?, I, R>> candidates = privilege == null ? bucket.getDescriptors() : bucket.getDescriptors(privilege);
+            for (TransitionDescriptor<D, ?, I, R> descriptor : candidates) {
+                if (!descriptor.isSuitable(departure, impact)) {
+                    continue;
+                }
+                if (DepartureTable.requiresElevatedPrivilege(descriptor)) {
+                    if (privilege == null) {
+                        privilege = OnlyPermittedTransitionFilter.getInitiatorPrivilege(accountService, impact);
+                    }
+                    if (!OnlyPermittedTransitionFilter.isPermitted(privilege, descriptor.getRequiredPrivilege())) {
+                        continue;
+                    }
+                }
+
+                if (elected == null) {
+                    elected = descriptor;
+                } else {
+                    if (alsoElected == null) {
+                        alsoElected = new ArrayList<>();
+                        alsoElected.add(elected);
+                    }
+                    alsoElected.add(descriptor);
+                }
+            }
+
+            if (alsoElected != null) {
+                return ElectionOutcome.ambiguous(alsoElected);
+            }
+            if (elected != null) {
+                return ElectionOutcome.elected(new DepartureDefinedTransition<>(elected, departure));
+            }
+        }
+
+        return ElectionOutcome.none();
+    }
+}
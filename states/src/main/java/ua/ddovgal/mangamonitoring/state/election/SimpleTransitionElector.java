@@ -1,5 +1,6 @@
 package ua.ddovgal.mangamonitoring.state.election;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -10,6 +11,7 @@ import lombok.extern.slf4j.Slf4j;
 import ua.ddovgal.mangamonitoring.state.Impact;
 import ua.ddovgal.mangamonitoring.state.State;
 import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.graph.DepartureTable;
 import ua.ddovgal.mangamonitoring.state.graph.StateGraph;
 import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
 import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
@@ -21,7 +23,11 @@ import static ua.ddovgal.mangamonitoring.state.util.TransitionDescriptorUtils.ge
  * filtering suitable transitions got from a graph. Filters applied to the suitable transitions list consequently, hence if the filtering
  * order is important, specify it in the {@link #filters} list.
  * <p/>
- * This implementation will throw {@link TransitionElectionException} if not exactly one transition remains after the filtering.
+ * This implementation will throw {@link TransitionElectionException} if not exactly one transition remains after the filtering, or return
+ * the corresponding {@link ElectionOutcome} from the {@link #elect(State, Impact)}.
+ * <p/>
+ * Each filter creates its own new list here, so if all the filters are {@link StreamingTransitionFilter}s, consider using {@link
+ * FusedTransitionElector} instead, which does the same in one pass.
  *
  * @param <I> type of the impact.
  * @param <R> type of the impact result.
@@ -40,27 +46,44 @@ public class SimpleTransitionElector<I extends Impact, R> implements TransitionE
 
     @Override
     public DepartureDefinedTransition<?, ?, I, R> electTransition(State departure, I impact) throws TransitionElectionException {
+        return elect(departure, impact).getTransitionOrThrow(departure, impact);
+    }
+
+    @Override
+    public ElectionOutcome<I, R> elect(State departure, I impact) {
         List<DepartureDefinedTransition<?, ?, I, R>> suitableTransitions = getSuitableTransitions(departure, impact);
-        log.info("suitableTransitions={}", getDescriptorsSimpleForm(suitableTransitions));
+        if (log.isInfoEnabled()) {
+            log.info("suitableTransitions={}", getDescriptorsSimpleForm(suitableTransitions));
+        }
         List<DepartureDefinedTransition<?, ?, I, R>> electedTransitions = filterTransitions(suitableTransitions, departure, impact);
 
-        if (electedTransitions.size() != 1) {
+        if (electedTransitions.isEmpty()) {
+            return ElectionOutcome.none();
+        }
+        if (electedTransitions.size() > 1) {
             List<TransitionDescriptor<?, ?, ?, ?>> electedDescriptors = electedTransitions
                 .stream()
                 .map(DepartureDefinedTransition::getDescriptor)
                 .collect(Collectors.toList());
-            throw new TransitionElectionException(impact, departure, electedDescriptors);
+            return ElectionOutcome.ambiguous(electedDescriptors);
         }
 
-        return electedTransitions.get(0);
+        return ElectionOutcome.elected(electedTransitions.get(0));
     }
 
-    private List<DepartureDefinedTransition<?, ?, I, R>> getSuitableTransitions(State departure, I impact) {
-        return stateGraph
-            .getDepartingTransitions(departure)
-            .stream()
-            .filter(transition -> transition.isSuitable(impact))
-            .collect(Collectors.toList());
+    /**
+     * Checks suitability right on the precompiled descriptors, so only the suitable ones are bound with the {@code departure}.
+     */
+    @SuppressWarnings("unchecked") // state object class is always D or its subclass, while graph is keyed by the exact class
+    private <D extends State> List<DepartureDefinedTransition<?, ?, I, R>> getSuitableTransitions(D departure, I impact) {
+        DepartureTable<D, I, R> table = stateGraph.getDepartureTable((Class<D>) departure.getClass()).narrow(impact);
+        List<DepartureDefinedTransition<?, ?, I, R>> suitableTransitions = new ArrayList<>();
+        for (TransitionDescriptor<D, ?, I, R> descriptor : table.getDescriptors()) {
+            if (descriptor.isSuitable(departure, impact)) {
+                suitableTransitions.add(new DepartureDefinedTransition<>(descriptor, departure));
+            }
+        }
+        return suitableTransitions;
     }
 
     private List<DepartureDefinedTransition<?, ?, I, R>> filterTransitions(List<DepartureDefinedTransition<?, ?, I, R>> transitions,
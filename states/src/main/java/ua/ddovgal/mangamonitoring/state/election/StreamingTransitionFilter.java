@@ -0,0 +1,105 @@
+package ua.ddovgal.mangamonitoring.state.election;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+
+/**
+ * Filter that is able to make its decision about transitions one by one, while they are being found, rather than for the whole already
+ * collected list. This allows {@link FusedTransitionElector} to run all the filters together with the suitability check in a single pass,
+ * without any intermediate lists.
+ * <p/>
+ * For each election, filter opens a new {@link Sieve}, which gets each candidate descriptor and tells its {@link Verdict}. Sieve is allowed
+ * to be stateful, since it's used for one election only.
+ *
+ * @param <I> type of the impact.
+ * @param <R> type of the impact result.
+ *
+ * @see FusedTransitionElector for the details about the place, implementations of this class are intended to be used.
+ */
+public interface StreamingTransitionFilter<I extends Impact, R> extends TransitionFilter<I, R> {
+
+    /**
+     * Opens a new sieve for the single election by the provided {@code impact} and {@code state}.
+     *
+     * @param impact impact that was taken as an election parameter.
+     * @param state  departure state that was taken as an election parameter.
+     *
+     * @return new sieve for the single election.
+     */
+    Sieve<I, R> openSieve(I impact, State state);
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Default implementation just passes all the {@code transitions} through the new opened {@link Sieve}.
+     */
+    @Override
+    default List<DepartureDefinedTransition<?, ?, I, R>> filter(I impact,
+                                                                State state,
+                                                                List<DepartureDefinedTransition<?, ?, I, R>> transitions) {
+        Sieve<I, R> sieve = openSieve(impact, state);
+        List<DepartureDefinedTransition<?, ?, I, R>> filteredTransitions = new ArrayList<>();
+
+        for (DepartureDefinedTransition<?, ?, I, R> transition : transitions) {
+            Verdict verdict = sieve.sift(transition.getDescriptor());
+            if (verdict == Verdict.ACCEPT_EXCLUSIVELY) {
+                filteredTransitions.clear();
+            }
+            if (verdict != Verdict.REJECT) {
+                filteredTransitions.add(transition);
+            }
+        }
+
+        return filteredTransitions;
+    }
+
+    /**
+     * Single election decision maker of the {@link StreamingTransitionFilter}.
+     *
+     * @param <I> type of the impact.
+     * @param <R> type of the impact result.
+     */
+    interface Sieve<I extends Impact, R> {
+
+        /**
+         * Decides what to do with the next candidate {@code descriptor}.
+         *
+         * @param descriptor candidate descriptor.
+         *
+         * @return decision about the candidate.
+         */
+        Verdict sift(TransitionDescriptor<?, ?, I, R> descriptor);
+
+        /**
+         * Forgets all the previously sifted candidates, making the sieve as it was just opened. Called when some preceding filter has
+         * rejected everything this sieve was able to see before.
+         */
+        void reset();
+    }
+
+    /**
+     * Decision that {@link Sieve} makes about the candidate descriptor.
+     */
+    enum Verdict {
+
+        /**
+         * Candidate doesn't pass.
+         */
+        REJECT,
+
+        /**
+         * Candidate passes, together with all the previously passed ones.
+         */
+        ACCEPT,
+
+        /**
+         * Candidate passes, but all the previously passed ones are rejected now.
+         */
+        ACCEPT_EXCLUSIVELY
+    }
+}
@@ -33,4 +33,25 @@ public interface TransitionElector<I extends Impact, R> {
      * @see DepartureDefinedTransition for the reasons it was created and is used insted of plain {@code TransitionDescriptor}.
      */
     DepartureDefinedTransition<?, ?, I, R> electTransition(State departure, I impact) throws TransitionElectionException;
+
+    /**
+     * Elects exactly one transition, same as {@link #electTransition(State, Impact)} does, but reports the failed election by the returned
+     * outcome instead of the exception. Impacts, which match no transition, are very common, hence this is the preferred way for the hot
+     * path.
+     * <p/>
+     * Default implementation just catches the exception of the {@link #electTransition(State, Impact)}. Implementations are encouraged to
+     * override it, so that no exception is created at all.
+     *
+     * @param departure state to elect transition.
+     * @param impact    impact to elect transition.
+     *
+     * @return outcome of the election.
+     */
+    default ElectionOutcome<I, R> elect(State departure, I impact) {
+        try {
+            return ElectionOutcome.elected(electTransition(departure, impact));
+        } catch (TransitionElectionException e) {
+            return e.isZeroElected() ? ElectionOutcome.none() : ElectionOutcome.ambiguous(e.getElectedDescriptors());
+        }
+    }
 }
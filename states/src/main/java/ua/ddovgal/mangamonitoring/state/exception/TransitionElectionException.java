@@ -7,11 +7,15 @@ import lombok.Getter;
 import ua.ddovgal.mangamonitoring.exception.ApplicationException;
 import ua.ddovgal.mangamonitoring.state.Impact;
 import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.election.TransitionElector;
 import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
 
 /**
  * Throws to indicate that transition couldn't be determined for sure for the provided {@link #impact} while being in {@link #departure}
  * state. Actually there are only two possible cases for that: there are no transitions that could be made, or there is more than one.
+ * <p/>
+ * Unmatched impacts are very common, and where the exception was thrown from tells nothing about them, hence the exception has no stack
+ * trace. Consider {@link TransitionElector#elect(State, Impact)}, which doesn't throw at all.
  */
 @Getter
 public class TransitionElectionException extends ApplicationException {
@@ -34,7 +38,7 @@ public class TransitionElectionException extends ApplicationException {
      * @throws IllegalArgumentException if {@code electedDescriptors} has exactly one descriptor.
      */
     public TransitionElectionException(Impact impact, State departure, List<TransitionDescriptor<?, ?, ?, ?>> electedDescriptors) {
-        super(selectMessageForElectedAmount(electedDescriptors.size()));
+        super(selectMessageForElectedAmount(electedDescriptors.size()), null, false, false);
         this.departure = departure;
         this.impact = impact;
         this.electedDescriptors = electedDescriptors;
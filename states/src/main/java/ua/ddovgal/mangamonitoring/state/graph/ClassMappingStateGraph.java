@@ -1,5 +1,6 @@
 package ua.ddovgal.mangamonitoring.state.graph;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -8,13 +9,14 @@ import lombok.extern.slf4j.Slf4j;
 
 import ua.ddovgal.mangamonitoring.state.Impact;
 import ua.ddovgal.mangamonitoring.state.State;
-import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
 import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
 
 import static ua.ddovgal.mangamonitoring.state.util.TransitionDescriptorUtils.getSimpleForm;
 
 /**
- * Implementation that uses {@link Map} to compare {@link State} type (java Class) and list of it possible departing transitions.
+ * Implementation that uses {@link Map} to compare {@link State} type (java Class) and precompiled {@link DepartureTable} of it possible
+ * departing transitions. Map and all the tables are built only once, in the constructor, and are never changed after, hence lookups don't
+ * allocate anything and the graph is safe to be shared between threads.
  *
  * @param <I> type of the impact.
  * @param <R> type of the impact result.
@@ -23,11 +25,11 @@ import static ua.ddovgal.mangamonitoring.state.util.TransitionDescriptorUtils.ge
 public class ClassMappingStateGraph<I extends Impact, R> implements StateGraph<I, R> {
 
     // This map has some restriction for types that couldn't be described in Java.
-    // Actually it's Map<Class<S_TYPE>, List<TransitionDescriptor<S_TYPE, ?, I, R>>> where S_TYPE is unique for each Entry,
+    // Actually it's Map<Class<S_TYPE>, DepartureTable<S_TYPE, I, R>> where S_TYPE is unique for each Entry,
     // but at the same time, within one Entry, key-side S_TYPE is equal to value-side S_TYPE.
-    // Meaning that for Class<FooState> key actual value is List<TransitionDescriptor<FooState, ?, I, R>>,
-    // for Class<BarState> key actual value is List<TransitionDescriptor<BarState, ?, I, R>> and so on.
-    private final Map<Class<? extends State>, List<TransitionDescriptor<?, ?, I, R>>> stateAndItsDepartingTransitions;
+    // Meaning that for Class<FooState> key actual value is DepartureTable<FooState, I, R>,
+    // for Class<BarState> key actual value is DepartureTable<BarState, I, R> and so on.
+    private final Map<Class<? extends State>, DepartureTable<?, I, R>> stateAndItsDepartureTable;
 
     /**
      * Builds graph by the provided forming transition {@code descriptors}. While it will build graph for any descriptors list, even for
@@ -38,25 +40,32 @@ public class ClassMappingStateGraph<I extends Impact, R> implements StateGraph<I
      */
     public ClassMappingStateGraph(List<TransitionDescriptor<?, ?, I, R>> descriptors) {
         log.info("Building from descriptors={}", getSimpleForm(descriptors));
-        stateAndItsDepartingTransitions = descriptors.stream().collect(Collectors.groupingBy(TransitionDescriptor::getDepartureState));
+        Map<Class<? extends State>, List<TransitionDescriptor<?, ?, I, R>>> stateAndItsDepartingTransitions = descriptors
+            .stream()
+            .collect(Collectors.groupingBy(TransitionDescriptor::getDepartureState));
+
+        Map<Class<? extends State>, DepartureTable<?, I, R>> tables = new HashMap<>();
+        stateAndItsDepartingTransitions.forEach((state, departing) -> tables.put(state, compile(departing)));
+        stateAndItsDepartureTable = Map.copyOf(tables);
     }
 
     /**
      * {@inheritDoc}
      * <p/>
-     * It's safe to clarify {@code D} type for each {@link TransitionDescriptor} because {@link #stateAndItsDepartingTransitions} map is
-     * designed in such a way, that for each {@link Map.Entry} the class of its {@code key} will be equal to {@code D} generic of each
-     * {@link TransitionDescriptor} from {@code value} list. This is guarantied by the way {@link #stateAndItsDepartingTransitions} is
-     * created (see {@link #ClassMappingStateGraph(List)}).
+     * It's safe to clarify {@code S} type for the {@link DepartureTable} because {@link #stateAndItsDepartureTable} map is designed in such
+     * a way, that for each {@link Map.Entry} the class of its {@code key} will be equal to {@code D} generic of each {@link
+     * TransitionDescriptor} from {@code value} table. This is guarantied by the way {@link #stateAndItsDepartureTable} is created (see
+     * {@link #ClassMappingStateGraph(List)}).
      */
     @SuppressWarnings("unchecked") // check description above
     @Override
-    public <D extends State> List<DepartureDefinedTransition<D, ?, I, R>> getDepartingTransitions(D state) {
-        return stateAndItsDepartingTransitions
-            .getOrDefault(state.getClass(), List.of())
-            .stream()
-            .map(descriptor -> (TransitionDescriptor<D, ?, I, R>) descriptor)
-            .map(descriptor -> new DepartureDefinedTransition<>(descriptor, state))
-            .collect(Collectors.toList());
+    public <S extends State> DepartureTable<S, I, R> getDepartureTable(Class<S> stateClass) {
+        DepartureTable<?, I, R> table = stateAndItsDepartureTable.get(stateClass);
+        return table == null ? DepartureTable.empty() : (DepartureTable<S, I, R>) table;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" }) // all the descriptors are grouped by the departure state, hence D is the same for them
+    private static <D extends State, I extends Impact, R> DepartureTable<D, I, R> compile(List<TransitionDescriptor<?, ?, I, R>> departing) {
+        return new DepartureTable<>((List) departing);
     }
 }
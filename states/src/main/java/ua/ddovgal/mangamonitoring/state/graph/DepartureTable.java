@@ -0,0 +1,288 @@
+package ua.ddovgal.mangamonitoring.state.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import ua.ddovgal.mangamonitoring.domain.Privilege;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+
+/**
+ * Immutable, precompiled set of the transitions departing from a single state class. It's built only once, together with the graph, and
+ * then is shared between all the lookups, so obtaining it costs nothing but a map access.
+ * <p/>
+ * Unlike {@link StateGraph#getDepartingTransitions(State)}, table isn't bound to any particular departure state object, hence it can't
+ * provide {@link DepartureDefinedTransition}s by itself. Use {@link #bind(State)} for that, or work with {@link #getDescriptors()} directly,
+ * passing the departure object to the {@link TransitionDescriptor} methods.
+ * <p/>
+ * Besides, table knows in advance, which descriptors are permitted for each {@link Privilege}, and whether any of them requires privilege
+ * higher than {@link Privilege#COMMON_USER}. It allows electors to not look up the initiator account, when it can't affect the result.
+ * <p/>
+ * Descriptors with a {@link TransitionDescriptor#getDiscriminator()} are indexed by it. {@link #narrow(Impact)} picks, by a single hash
+ * lookup, the subtable with only those descriptors, that could be suitable for the impact: ones with the same discriminator as the impact
+ * has, together with ones without discriminator at all.
+ *
+ * @param <D> type of the departure state.
+ * @param <I> type of the impact.
+ * @param <R> type of the impact result.
+ */
+public final class DepartureTable<D extends State, I extends Impact, R> {
+
+    @SuppressWarnings("rawtypes")
+    private static final DepartureTable EMPTY = new DepartureTable<>(List.of());
+
+    private final List<TransitionDescriptor<D, ?, I, R>> descriptors;
+    private final Map<Privilege, List<TransitionDescriptor<D, ?, I, R>>> permittedDescriptors;
+    private final boolean requiresElevatedPrivilege;
+    private final List<PriorityBucket<D, I, R>> priorityBuckets;
+    private final Map<String, DepartureTable<D, I, R>> discriminatedTables;
+    private final DepartureTable<D, I, R> undiscriminatedTable;
+
+    DepartureTable(List<TransitionDescriptor<D, ?, I, R>> descriptors) {
+        this(descriptors, true);
+    }
+
+    private DepartureTable(List<TransitionDescriptor<D, ?, I, R>> descriptors, boolean isIndexed) {
+        this.descriptors = List.copyOf(descriptors);
+        this.permittedDescriptors = partitionByPrivilege(this.descriptors);
+        this.requiresElevatedPrivilege = this.descriptors.stream().anyMatch(DepartureTable::requiresElevatedPrivilege);
+        this.priorityBuckets = groupByPriority(this.descriptors);
+
+        if (isIndexed && this.descriptors.stream().anyMatch(descriptor -> descriptor.getDiscriminator() != null)) {
+            this.discriminatedTables = indexByDiscriminator(this.descriptors);
+            this.undiscriminatedTable = new DepartureTable<>(subtableDescriptors(this.descriptors, null), false);
+        } else {
+            // nothing to narrow
+            this.discriminatedTables = Map.of();
+            this.undiscriminatedTable = this;
+        }
+    }
+
+    /**
+     * Checks whether the {@code descriptor} requires privilege higher than {@link Privilege#COMMON_USER}, which everyone has.
+     *
+     * @param descriptor descriptor to check.
+     *
+     * @return whether the {@code descriptor} requires privilege higher than {@link Privilege#COMMON_USER}.
+     */
+    public static boolean requiresElevatedPrivilege(TransitionDescriptor<?, ?, ?, ?> descriptor) {
+        return descriptor.getRequiredPrivilege().getAccessLevel() > Privilege.COMMON_USER.getAccessLevel();
+    }
+
+    /**
+     * Returns shared table without any transitions. Used for states that don't have departing transitions at all.
+     *
+     * @param <D> type of the departure state.
+     * @param <I> type of the impact.
+     * @param <R> type of the impact result.
+     *
+     * @return shared empty table.
+     */
+    @SuppressWarnings("unchecked") // empty table doesn't hold anything of D, I or R types
+    public static <D extends State, I extends Impact, R> DepartureTable<D, I, R> empty() {
+        return (DepartureTable<D, I, R>) EMPTY;
+    }
+
+    /**
+     * Returns unmodifiable list of the departing transition descriptors. The same list object is returned for each call.
+     *
+     * @return unmodifiable list of the departing transition descriptors.
+     */
+    public List<TransitionDescriptor<D, ?, I, R>> getDescriptors() {
+        return descriptors;
+    }
+
+    /**
+     * Returns unmodifiable list of the departing transition descriptors, which are permitted for the initiator with the {@code privilege}.
+     * Keeps the order of {@link #getDescriptors()}. The same list object is returned for each call with the same {@code privilege}.
+     *
+     * @param privilege privilege of the initiator.
+     *
+     * @return unmodifiable list of the permitted departing transition descriptors.
+     */
+    public List<TransitionDescriptor<D, ?, I, R>> getDescriptors(Privilege privilege) {
+        return permittedDescriptors.get(privilege);
+    }
+
+    /**
+     * Returns {@code true} if some departing transition requires privilege higher than {@link Privilege#COMMON_USER}. If it doesn't, all
+     * the departing transitions are permitted for everyone, and there is no need to know the initiator privilege at all.
+     *
+     * @return {@code true} if some departing transition requires privilege higher than {@link Privilege#COMMON_USER}, or else {@code
+     *     false}.
+     */
+    public boolean requiresElevatedPrivilege() {
+        return requiresElevatedPrivilege;
+    }
+
+    /**
+     * Returns unmodifiable list of the departing transition descriptors grouped by their priority. Buckets are ordered from the highest
+     * priority to the lowest one, while descriptors inside each bucket keep the order of {@link #getDescriptors()}. The same list object is
+     * returned for each call.
+     *
+     * @return unmodifiable list of the priority buckets.
+     */
+    public List<PriorityBucket<D, I, R>> getPriorityBuckets() {
+        return priorityBuckets;
+    }
+
+    /**
+     * Returns the table with only those descriptors, which could be suitable for the provided {@code impact}: ones with the same {@link
+     * TransitionDescriptor#getDiscriminator()} as the {@link Impact#getDiscriminator()}, together with ones without discriminator at all.
+     * Descriptors keep the order of {@link #getDescriptors()}. Returned tables are precompiled, so it costs nothing but a map access.
+     * <p/>
+     * If there are no descriptors with discriminator in this table, or if this table was already narrowed, this table itself is returned.
+     *
+     * @param impact impact to pick candidate descriptors for.
+     *
+     * @return table with the candidate descriptors for the provided {@code impact}.
+     */
+    public DepartureTable<D, I, R> narrow(I impact) {
+        String discriminator = impact.getDiscriminator();
+        if (discriminator == null) {
+            return undiscriminatedTable;
+        }
+        return discriminatedTables.getOrDefault(discriminator, undiscriminatedTable);
+    }
+
+    /**
+     * Returns {@code true} if there are no departing transitions in this table.
+     *
+     * @return {@code true} if there are no departing transitions in this table, or else {@code false}.
+     */
+    public boolean isEmpty() {
+        return descriptors.isEmpty();
+    }
+
+    /**
+     * Binds each held descriptor with the provided {@code departure} and returns unmodifiable list of the resulted transitions.
+     *
+     * @param departure departure state object to bind with.
+     *
+     * @return unmodifiable list of the departing transitions, bound with the provided {@code departure}.
+     */
+    public List<DepartureDefinedTransition<D, ?, I, R>> bind(D departure) {
+        if (descriptors.isEmpty()) {
+            return List.of();
+        }
+
+        @SuppressWarnings("unchecked") // generic array creation is impossible, but only DepartureDefinedTransition objects are put here
+        DepartureDefinedTransition<D, ?, I, R>[] transitions = new DepartureDefinedTransition[descriptors.size()];
+        for (int i = 0; i < transitions.length; i++) {
+            transitions[i] = new DepartureDefinedTransition<>(descriptors.get(i), departure);
+        }
+        return Collections.unmodifiableList(Arrays.asList(transitions));
+    }
+
+    private static <D extends State, I extends Impact, R> Map<String, DepartureTable<D, I, R>> indexByDiscriminator(
+        List<TransitionDescriptor<D, ?, I, R>> descriptors) {
+
+        Map<String, DepartureTable<D, I, R>> tables = new HashMap<>();
+        for (TransitionDescriptor<D, ?, I, R> descriptor : descriptors) {
+            String discriminator = descriptor.getDiscriminator();
+            if (discriminator != null && !tables.containsKey(discriminator)) {
+                tables.put(discriminator, new DepartureTable<>(subtableDescriptors(descriptors, discriminator), false));
+            }
+        }
+        return Map.copyOf(tables);
+    }
+
+    /**
+     * Returns descriptors with the provided {@code discriminator} together with descriptors without discriminator at all, keeping their
+     * order.
+     */
+    private static <D extends State, I extends Impact, R> List<TransitionDescriptor<D, ?, I, R>> subtableDescriptors(
+        List<TransitionDescriptor<D, ?, I, R>> descriptors,
+        String discriminator) {
+
+        return descriptors
+            .stream()
+            .filter(descriptor -> descriptor.getDiscriminator() == null || descriptor.getDiscriminator().equals(discriminator))
+            .collect(Collectors.toList());
+    }
+
+    private static <D extends State, I extends Impact, R> List<PriorityBucket<D, I, R>> groupByPriority(
+        List<TransitionDescriptor<D, ?, I, R>> descriptors) {
+
+        List<TransitionDescriptor<D, ?, I, R>> sorted = new ArrayList<>(descriptors);
+        // stable sort, hence the original order is kept inside of each bucket
+        sorted.sort(Comparator.comparingInt((TransitionDescriptor<D, ?, I, R> descriptor) -> descriptor.getPriority()).reversed());
+
+        List<PriorityBucket<D, I, R>> buckets = new ArrayList<>();
+        int bucketStart = 0;
+        for (int i = 1; i <= sorted.size(); i++) {
+            if (i == sorted.size() || sorted.get(i).getPriority() != sorted.get(bucketStart).getPriority()) {
+                List<TransitionDescriptor<D, ?, I, R>> bucketDescriptors = List.copyOf(sorted.subList(bucketStart, i));
+                buckets.add(new PriorityBucket<>(sorted.get(bucketStart).getPriority(),
+                                                 bucketDescriptors,
+                                                 partitionByPrivilege(bucketDescriptors)));
+                bucketStart = i;
+            }
+        }
+        return List.copyOf(buckets);
+    }
+
+    private static <D extends State, I extends Impact, R> Map<Privilege, List<TransitionDescriptor<D, ?, I, R>>> partitionByPrivilege(
+        List<TransitionDescriptor<D, ?, I, R>> descriptors) {
+
+        Map<Privilege, List<TransitionDescriptor<D, ?, I, R>>> partitions = new EnumMap<>(Privilege.class);
+        for (Privilege privilege : Privilege.values()) {
+            List<TransitionDescriptor<D, ?, I, R>> permitted = descriptors
+                .stream()
+                .filter(descriptor -> privilege.getAccessLevel() >= descriptor.getRequiredPrivilege().getAccessLevel())
+                .collect(Collectors.toUnmodifiableList());
+            // the same list object for all the privileges, if there is nothing to filter out
+            partitions.put(privilege, permitted.size() == descriptors.size() ? descriptors : permitted);
+        }
+        return partitions;
+    }
+
+    /**
+     * Departing transition descriptors of the same priority.
+     *
+     * @param <D> type of the departure state.
+     * @param <I> type of the impact.
+     * @param <R> type of the impact result.
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class PriorityBucket<D extends State, I extends Impact, R> {
+
+        /**
+         * Priority of all the descriptors in this bucket.
+         */
+        @Getter
+        private final int priority;
+
+        /**
+         * Unmodifiable list of the descriptors of this bucket.
+         */
+        @Getter
+        private final List<TransitionDescriptor<D, ?, I, R>> descriptors;
+
+        private final Map<Privilege, List<TransitionDescriptor<D, ?, I, R>>> permittedDescriptors;
+
+        /**
+         * Returns unmodifiable list of the descriptors of this bucket, which are permitted for the initiator with the {@code privilege}.
+         *
+         * @param privilege privilege of the initiator.
+         *
+         * @return unmodifiable list of the permitted descriptors of this bucket.
+         */
+        public List<TransitionDescriptor<D, ?, I, R>> getDescriptors(Privilege privilege) {
+            return permittedDescriptors.get(privilege);
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package ua.ddovgal.mangamonitoring.state.graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.experimental.UtilityClass;
 
 import ua.ddovgal.mangamonitoring.state.Impact;
@@ -33,8 +37,14 @@ public class GraphValidator {
      * Method checks for:
      *  - unreachable states, should be absent;
      *  - dead-end states, should be absent;
+     *  - trap cycles, groups of states that can't be left once entered, there should be at most one such group;
      *  - initial transitions (that start from {@link NoInteractionsBeforeState}), should exist;
      * </pre>
+     * Each unreachable state, dead-end state and trap is reported by its own violation. State is unreachable if there is no path to it
+     * from the {@link NoInteractionsBeforeState}, or, if there are no initial transitions at all, if there are no transitions to it from
+     * other states.
+     * <p/>
+     * All the checks are done on the {@link Adjacency} lists, and take time linear to the number of states and descriptors.
      *
      * @param descriptors list that serves as a source for the graph creation.
      * @param <I>         type of the {@link Impact} object provided {@code descriptors} work with.
@@ -45,21 +55,31 @@ public class GraphValidator {
     public <I extends Impact, R> List<String> checkBaseAcceptability(List<TransitionDescriptor<?, ?, I, R>> descriptors) {
         List<String> violations = new ArrayList<>();
 
-        Pair<SquareMatrix, List<Class<? extends State>>> matrixAndStates = buildTransitionMatrix(descriptors);
-        List<Class<? extends State>> states = matrixAndStates.getRight();
-        SquareMatrix matrix = matrixAndStates.getLeft();
+        Adjacency adjacency = buildAdjacency(descriptors);
+        List<Class<? extends State>> states = adjacency.getStates();
+        int initialStateIndex = adjacency.indexOf(NoInteractionsBeforeState.class);
 
-        int guiltyStateIndex;
+        BitSet unreachable = getUnreachableVertices(adjacency, initialStateIndex);
+        for (int i = unreachable.nextSetBit(0); i >= 0; i = unreachable.nextSetBit(i + 1)) {
+            violations.add(String.format("Provided descriptors form a graph with an unreachable state=%s", states.get(i).getSimpleName()));
+        }
 
-        guiltyStateIndex = GraphValidator.getUnreachableVertexIndex(matrix, states.indexOf(NoInteractionsBeforeState.class));
-        if (guiltyStateIndex != GraphValidator.OK_INDEX) {
-            violations.add(String.format("Provided descriptors form a graph with an unreachable state=%s",
-                                         states.get(guiltyStateIndex).getSimpleName()));
+        BitSet endings = getEndingVertices(adjacency);
+        for (int i = endings.nextSetBit(0); i >= 0; i = endings.nextSetBit(i + 1)) {
+            violations.add(String.format("Provided descriptors form a graph with a dead-end state=%s", states.get(i).getSimpleName()));
         }
-        guiltyStateIndex = GraphValidator.getEndingVertexIndex(matrix);
-        if (guiltyStateIndex != GraphValidator.OK_INDEX) {
-            violations.add(String.format("Provided descriptors form a graph with a dead-end state=%s",
-                                         states.get(guiltyStateIndex).getSimpleName()));
+
+        // unreachable states can't trap anyone
+        BitSet reachable = new BitSet(adjacency.size());
+        reachable.set(0, adjacency.size());
+        reachable.andNot(unreachable);
+        List<BitSet> traps = getTrapComponents(adjacency, reachable);
+        if (traps.size() > 1) {
+            for (BitSet trap : traps) {
+                String trapStates = trap.stream().mapToObj(i -> states.get(i).getSimpleName()).collect(Collectors.joining(", ", "[", "]"));
+                violations.add(String.format("Provided descriptors form a graph with a trap of states=%s, which can't be left once entered",
+                                             trapStates));
+            }
         }
 
         boolean initialTransitionsExist = descriptors
@@ -72,10 +92,234 @@ public class GraphValidator {
         return violations;
     }
 
+    /**
+     * Builds from the provided {@code descriptors} list the adjacency lists of the graph they form. Vertex indexes are assigned to the states
+     * in the same order, as {@link #buildTransitionMatrix(List)} does.
+     *
+     * @param descriptors list that serves as a source for the graph creation.
+     * @param <I>         type of the {@link Impact} object provided {@code descriptors} work with.
+     * @param <R>         type of the {@code impactResult} object provided {@code descriptors} return.
+     *
+     * @return adjacency lists of the graph, formed by the provided {@code descriptors}.
+     */
+    public <I extends Impact, R> Adjacency buildAdjacency(List<TransitionDescriptor<?, ?, I, R>> descriptors) {
+        Map<Class<? extends State>, Integer> stateIndexes = new LinkedHashMap<>();
+        int[] departures = new int[descriptors.size()];
+        int[] arrivals = new int[descriptors.size()];
+        for (int i = 0; i < descriptors.size(); i++) {
+            TransitionDescriptor<?, ?, I, R> descriptor = descriptors.get(i);
+            // stateIndexes.size() serves as always actual index for another new state
+            departures[i] = stateIndexes.computeIfAbsent(descriptor.getDepartureState(), state -> stateIndexes.size());
+            arrivals[i] = stateIndexes.computeIfAbsent(descriptor.getArrivalState(), state -> stateIndexes.size());
+        }
+
+        int size = stateIndexes.size();
+        // counting sort of the edges by the departure, so that edges of each departure are processed together
+        int[] edgesStart = new int[size + 1];
+        for (int departure : departures) {
+            edgesStart[departure + 1]++;
+        }
+        for (int vertex = 0; vertex < size; vertex++) {
+            edgesStart[vertex + 1] += edgesStart[vertex];
+        }
+        int[] sortedArrivals = new int[arrivals.length];
+        int[] nextPosition = Arrays.copyOf(edgesStart, size);
+        for (int i = 0; i < departures.length; i++) {
+            sortedArrivals[nextPosition[departures[i]]++] = arrivals[i];
+        }
+
+        int[][] successors = new int[size][];
+        int[] inDegrees = new int[size];
+        // departure, for which the arrival was added last time, since the same edge can be described by several descriptors
+        int[] addedForDeparture = new int[size];
+        Arrays.fill(addedForDeparture, -1);
+        for (int departure = 0; departure < size; departure++) {
+            int[] departureSuccessors = new int[edgesStart[departure + 1] - edgesStart[departure]];
+            int count = 0;
+            for (int edge = edgesStart[departure]; edge < edgesStart[departure + 1]; edge++) {
+                int arrival = sortedArrivals[edge];
+                // self-directed transition doesn't count
+                if (arrival != departure && addedForDeparture[arrival] != departure) {
+                    addedForDeparture[arrival] = departure;
+                    departureSuccessors[count++] = arrival;
+                    inDegrees[arrival]++;
+                }
+            }
+            successors[departure] = count == departureSuccessors.length ? departureSuccessors : Arrays.copyOf(departureSuccessors, count);
+        }
+
+        return new Adjacency(List.copyOf(stateIndexes.keySet()), stateIndexes, successors, inDegrees);
+    }
+
+    /**
+     * Finds the vertices of the provided {@code adjacency} that can't be reached from the initial one. Reachability is found by the
+     * breadth-first search. If there is no initial vertex, that is {@code initialStateIndex} is {@link #OK_INDEX}, vertices without
+     * incoming edges are considered unreachable.
+     *
+     * @param adjacency         adjacency lists of the graph to check.
+     * @param initialStateIndex index of the initial state, or {@link #OK_INDEX} if there is no such state.
+     *
+     * @return set of the unreachable vertex indexes, empty if there are no such vertices.
+     */
+    public BitSet getUnreachableVertices(Adjacency adjacency, int initialStateIndex) {
+        int size = adjacency.size();
+        BitSet unreachable = new BitSet(size);
+        if (initialStateIndex == OK_INDEX) {
+            for (int vertex = 0; vertex < size; vertex++) {
+                if (adjacency.getInDegree(vertex) == 0) {
+                    unreachable.set(vertex);
+                }
+            }
+            return unreachable;
+        }
+
+        BitSet reached = new BitSet(size);
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        reached.set(initialStateIndex);
+        queue[tail++] = initialStateIndex;
+        while (head < tail) {
+            for (int successor : adjacency.getSuccessors(queue[head++])) {
+                if (!reached.get(successor)) {
+                    reached.set(successor);
+                    queue[tail++] = successor;
+                }
+            }
+        }
+
+        unreachable.set(0, size);
+        unreachable.andNot(reached);
+        return unreachable;
+    }
+
+    /**
+     * Finds the dead-end vertices of the provided {@code adjacency}, that are vertices without outgoing edges. Self-directed edges don't
+     * count.
+     *
+     * @param adjacency adjacency lists of the graph to check.
+     *
+     * @return set of the dead-end vertex indexes, empty if there are no such vertices.
+     */
+    public BitSet getEndingVertices(Adjacency adjacency) {
+        BitSet endings = new BitSet(adjacency.size());
+        for (int vertex = 0; vertex < adjacency.size(); vertex++) {
+            if (adjacency.getSuccessors(vertex).length == 0) {
+                endings.set(vertex);
+            }
+        }
+        return endings;
+    }
+
+    /**
+     * Finds the traps among the provided {@code vertices} of the provided {@code adjacency}. Trap is a strongly connected component, which
+     * has no edges to the other components, that is, once entered, it can't be left. Dead-end vertices aren't considered traps, they are
+     * found by the {@link #getEndingVertices(Adjacency)}.
+     * <p/>
+     * A valid graph always has at least one trap: the part of the graph, where users are cycling through the states once they've made the
+     * initial transition. But several traps mean, that users are split between them, and some states can't be reached anymore.
+     * <p/>
+     * Components are found by the iterative Tarjan's algorithm, so huge graphs don't overflow the stack.
+     *
+     * @param adjacency adjacency lists of the graph to check.
+     * @param vertices  vertices to check, edges to other vertices are ignored.
+     *
+     * @return list of the traps, each one is a set of the vertex indexes.
+     */
+    public List<BitSet> getTrapComponents(Adjacency adjacency, BitSet vertices) {
+        int size = adjacency.size();
+        int[] discoveryOrder = new int[size];
+        Arrays.fill(discoveryOrder, -1);
+        int[] lowLink = new int[size];
+        int[] component = new int[size];
+        BitSet onStack = new BitSet(size);
+        int[] stack = new int[size];
+        int stackSize = 0;
+        // emulation of the recursive calls: vertex and the index of its next successor to visit
+        int[] callVertex = new int[size];
+        int[] callNextSuccessor = new int[size];
+        int callDepth = 0;
+        int discovered = 0;
+        int componentsCount = 0;
+
+        for (int root = vertices.nextSetBit(0); root >= 0; root = vertices.nextSetBit(root + 1)) {
+            if (discoveryOrder[root] != -1) {
+                continue;
+            }
+            discoveryOrder[root] = lowLink[root] = discovered++;
+            stack[stackSize++] = root;
+            onStack.set(root);
+            callVertex[callDepth] = root;
+            callNextSuccessor[callDepth++] = 0;
+
+            while (callDepth > 0) {
+                int vertex = callVertex[callDepth - 1];
+                int[] successors = adjacency.getSuccessors(vertex);
+                if (callNextSuccessor[callDepth - 1] < successors.length) {
+                    int successor = successors[callNextSuccessor[callDepth - 1]++];
+                    if (!vertices.get(successor)) {
+                        continue;
+                    }
+                    if (discoveryOrder[successor] == -1) {
+                        discoveryOrder[successor] = lowLink[successor] = discovered++;
+                        stack[stackSize++] = successor;
+                        onStack.set(successor);
+                        callVertex[callDepth] = successor;
+                        callNextSuccessor[callDepth++] = 0;
+                    } else if (onStack.get(successor)) {
+                        lowLink[vertex] = Math.min(lowLink[vertex], discoveryOrder[successor]);
+                    }
+                    continue;
+                }
+
+                callDepth--;
+                if (callDepth > 0) {
+                    int caller = callVertex[callDepth - 1];
+                    lowLink[caller] = Math.min(lowLink[caller], lowLink[vertex]);
+                }
+                if (lowLink[vertex] == discoveryOrder[vertex]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack.clear(member);
+                        component[member] = componentsCount;
+                    } while (member != vertex);
+                    componentsCount++;
+                }
+            }
+        }
+
+        boolean[] hasExit = new boolean[componentsCount];
+        BitSet[] members = new BitSet[componentsCount];
+        for (int vertex = vertices.nextSetBit(0); vertex >= 0; vertex = vertices.nextSetBit(vertex + 1)) {
+            int vertexComponent = component[vertex];
+            if (members[vertexComponent] == null) {
+                members[vertexComponent] = new BitSet(size);
+            }
+            members[vertexComponent].set(vertex);
+            for (int successor : adjacency.getSuccessors(vertex)) {
+                if (vertices.get(successor) && component[successor] != vertexComponent) {
+                    hasExit[vertexComponent] = true;
+                }
+            }
+        }
+
+        List<BitSet> traps = new ArrayList<>();
+        for (int i = 0; i < componentsCount; i++) {
+            // single vertex component without exits is a dead-end, not a trap
+            if (!hasExit[i] && members[i].cardinality() > 1) {
+                traps.add(members[i]);
+            }
+        }
+        return traps;
+    }
+
     /**
      * Builds from the provided {@code descriptors} list a square matrix and returns it together with list of state classes. This list
      * serves like the marker row for the matrix, meaning that row/column in a matrix with a particular index corresponds to the state in
      * the list with the {@code index} position.
+     * <p/>
+     * Matrix takes memory quadratic to the number of states, prefer {@link #buildAdjacency(List)} for the big graphs.
      *
      * @param descriptors list that serves as a source for the graph creation.
      * @param <I>         type of the {@link Impact} object provided {@code descriptors} work with.
@@ -122,10 +366,9 @@ public class GraphValidator {
                 continue;
             }
 
-            boolean[] column = matrix.getColumn(i);
             for (int j = 0; j < size; j++) {
                 // self-directed transition doesn't count
-                if (column[j] && j != i) {
+                if (matrix.matrix[j][i] && j != i) {
                     continue columns;
                 }
             }
@@ -218,4 +461,69 @@ public class GraphValidator {
             return assembledColumn;
         }
     }
+
+    /**
+     * Represents a graph as the lists of the successors of each vertex. Takes memory linear to the number of vertices and edges, unlike
+     * {@link SquareMatrix}. Self-directed edges and duplicated edges are omitted.
+     */
+    public static final class Adjacency {
+
+        @Getter
+        private final List<Class<? extends State>> states;
+        private final Map<Class<? extends State>, Integer> stateIndexes;
+        private final int[][] successors;
+        private final int[] inDegrees;
+
+        private Adjacency(List<Class<? extends State>> states,
+                          Map<Class<? extends State>, Integer> stateIndexes,
+                          int[][] successors,
+                          int[] inDegrees) {
+            this.states = states;
+            this.stateIndexes = stateIndexes;
+            this.successors = successors;
+            this.inDegrees = inDegrees;
+        }
+
+        /**
+         * Returns the number of vertices.
+         *
+         * @return the number of vertices.
+         */
+        public int size() {
+            return successors.length;
+        }
+
+        /**
+         * Returns index of the vertex of the provided {@code state}.
+         *
+         * @param state state class to search for.
+         *
+         * @return index of the vertex, or {@link #OK_INDEX} if there is no such state in the graph.
+         */
+        public int indexOf(Class<? extends State> state) {
+            return stateIndexes.getOrDefault(state, OK_INDEX);
+        }
+
+        /**
+         * Returns indexes of the vertices, that the provided vertex has edges to. Returned array must not be modified.
+         *
+         * @param vertex index of the vertex.
+         *
+         * @return indexes of the successor vertices.
+         */
+        public int[] getSuccessors(int vertex) {
+            return successors[vertex];
+        }
+
+        /**
+         * Returns the number of vertices, that have edges to the provided vertex.
+         *
+         * @param vertex index of the vertex.
+         *
+         * @return the number of predecessor vertices.
+         */
+        public int getInDegree(int vertex) {
+            return inDegrees[vertex];
+        }
+    }
 }
@@ -13,7 +13,8 @@ import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
  * {@link State}s and edges are {@link TransitionDescriptor}s.
  * <p/>
  * The only thing graph can do, is to provide a list of edges (transitions) that possible to use while being it a certain vertex. In other
- * words, provides edges directed from certain vertex. See {@link #getDepartingTransitions(State)} for the details.
+ * words, provides edges directed from certain vertex. See {@link #getDepartingTransitions(State)} for the details. The same edges could
+ * also be obtained in a precompiled, not bound to a particular state object form with {@link #getDepartureTable(Class)}.
  *
  * @param <I> type of the impact.
  * @param <R> type of the impact result.
@@ -38,5 +39,37 @@ public interface StateGraph<I extends Impact, R> {
      *
      * @return a list of departing transitions.
      */
-    <S extends State> List<DepartureDefinedTransition<S, ?, I, R>> getDepartingTransitions(S state);
+    @SuppressWarnings("unchecked") // state object class is always S or its subclass, while graph is keyed by the exact class
+    default <S extends State> List<DepartureDefinedTransition<S, ?, I, R>> getDepartingTransitions(S state) {
+        return getDepartureTable((Class<S>) state.getClass()).bind(state);
+    }
+
+    /**
+     * Returns a list of transitions departing from the provided {@code state}, which could be suitable for the provided {@code impact}.
+     * Same as {@link #getDepartingTransitions(State)}, but skips the transitions with a {@link TransitionDescriptor#getDiscriminator()}
+     * different from the {@link Impact#getDiscriminator()}, without checking their suitability.
+     *
+     * @param state  state to get departing transitions.
+     * @param impact impact to get candidate transitions for.
+     * @param <S>    type of the state to get departing transitions.
+     *
+     * @return a list of departing transitions, which could be suitable for the provided {@code impact}.
+     * @see DepartureTable#narrow(Impact) for the details.
+     */
+    @SuppressWarnings("unchecked") // state object class is always S or its subclass, while graph is keyed by the exact class
+    default <S extends State> List<DepartureDefinedTransition<S, ?, I, R>> getDepartingTransitions(S state, I impact) {
+        return getDepartureTable((Class<S>) state.getClass()).narrow(impact).bind(state);
+    }
+
+    /**
+     * Returns a precompiled table of the transitions departing from the provided {@code stateClass}. Same as {@link
+     * #getDepartingTransitions(State)}, but works on a class level, hence doesn't require an actual state object and is able to return the
+     * same shared object for each call with the same {@code stateClass}.
+     *
+     * @param stateClass state class to get departing transitions table.
+     * @param <S>        type of the state to get departing transitions table.
+     *
+     * @return a table of departing transitions, empty one if there are no such transitions.
+     */
+    <S extends State> DepartureTable<S, I, R> getDepartureTable(Class<S> stateClass);
 }
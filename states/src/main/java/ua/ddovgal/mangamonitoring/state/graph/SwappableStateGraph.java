@@ -0,0 +1,111 @@
+package ua.ddovgal.mangamonitoring.state.graph;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+
+/**
+ * Holder of the immutable {@link StateGraph} snapshot, that could be replaced by a new one while the application is running, so that
+ * transitions could be changed without a restart.
+ * <p/>
+ * New descriptors are {@link #replace(List) validated} by the {@link GraphValidator#checkBaseAcceptability(List)} and compiled into the
+ * {@link ClassMappingStateGraph} on the {@link #executor}, and then, if there are no violations, the new graph is published atomically.
+ * Reads take the current snapshot by a single volatile read, without any locking. Each election reads the graph once, hence the election,
+ * that was in flight during the replacement, completes on the old snapshot, while the next ones use the new snapshot.
+ * <p/>
+ * Replacements may be requested concurrently, and the one requested last wins, even if the earlier one completes validation later.
+ *
+ * @param <I> type of the impact.
+ * @param <R> type of the impact result.
+ */
+@Slf4j
+public class SwappableStateGraph<I extends Impact, R> implements StateGraph<I, R> {
+
+    private final Executor executor;
+    private final AtomicReference<Snapshot<I, R>> current;
+    private final AtomicLong lastRequestedVersion = new AtomicLong();
+
+    /**
+     * Creates holder of the {@code initial} graph.
+     *
+     * @param initial  graph to use till the first replacement.
+     * @param executor executor to validate and compile replacements on.
+     */
+    public SwappableStateGraph(@NonNull StateGraph<I, R> initial, @NonNull Executor executor) {
+        this.executor = executor;
+        this.current = new AtomicReference<>(new Snapshot<>(0, initial));
+    }
+
+    @Override
+    public <S extends State> DepartureTable<S, I, R> getDepartureTable(Class<S> stateClass) {
+        return current.get().graph.getDepartureTable(stateClass);
+    }
+
+    /**
+     * Returns the current graph snapshot. Could be used to make several reads from the same snapshot.
+     *
+     * @return the current graph snapshot.
+     */
+    public StateGraph<I, R> getSnapshot() {
+        return current.get().graph;
+    }
+
+    /**
+     * Returns the version of the current graph snapshot. Initial graph has version {@code 0}, each replacement request gets the next one.
+     *
+     * @return the version of the current graph snapshot.
+     */
+    public long getVersion() {
+        return current.get().version;
+    }
+
+    /**
+     * Validates the {@code descriptors}, and if they are acceptable, builds a graph of them and publishes it instead of the current one.
+     *
+     * @param descriptors transition descriptors that define the whole new graph.
+     *
+     * @return future of the found violations. Graph is replaced only if there are none. Future completes exceptionally, if the validation or
+     * the graph building failed, and then the current graph is kept.
+     */
+    public CompletableFuture<List<String>> replace(@NonNull List<TransitionDescriptor<?, ?, I, R>> descriptors) {
+        long version = lastRequestedVersion.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> {
+            List<String> violations = GraphValidator.checkBaseAcceptability(descriptors);
+            if (!violations.isEmpty()) {
+                log.warn("Graph replacement version={} rejected, violations={}", version, violations);
+                return violations;
+            }
+            publish(new Snapshot<>(version, new ClassMappingStateGraph<>(descriptors)));
+            return violations;
+        }, executor);
+    }
+
+    private void publish(Snapshot<I, R> snapshot) {
+        Snapshot<I, R> actual = current.get();
+        while (actual.version < snapshot.version) {
+            if (current.compareAndSet(actual, snapshot)) {
+                log.info("Graph replaced, version={}", snapshot.version);
+                return;
+            }
+            actual = current.get();
+        }
+        log.info("Graph replacement version={} is outdated by version={}", snapshot.version, actual.version);
+    }
+
+    @RequiredArgsConstructor
+    private static final class Snapshot<I extends Impact, R> {
+
+        private final long version;
+        private final StateGraph<I, R> graph;
+    }
+}
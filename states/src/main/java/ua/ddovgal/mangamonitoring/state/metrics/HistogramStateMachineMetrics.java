@@ -0,0 +1,129 @@
+package ua.ddovgal.mangamonitoring.state.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+import ua.ddovgal.mangamonitoring.state.util.TransitionDescriptorUtils;
+
+/**
+ * {@link StateMachineMetrics}, that keeps all the measurements in-process, in the {@link LatencyHistogram}s and counters. Percentiles could
+ * be read at any moment, without any external services, for example to be logged or exposed by some admin command.
+ * <p/>
+ * Executions are grouped by the transition {@link TransitionDescriptorUtils#getDirection(TransitionDescriptor) direction}, so several
+ * descriptors of the same direction share the histogram. Histograms are never reset.
+ */
+public class HistogramStateMachineMetrics implements StateMachineMetrics {
+
+    private final ConcurrentMap<String, LatencyHistogram> executionsByDirection = new ConcurrentHashMap<>();
+    /**
+     * Shortcut to the {@link #executionsByDirection}, so that direction string isn't built for each execution.
+     */
+    private final ConcurrentMap<TransitionDescriptor<?, ?, ?, ?>, LatencyHistogram> executionsByDescriptor = new ConcurrentHashMap<>();
+
+    @Getter
+    private final LatencyHistogram elections = new LatencyHistogram();
+    @Getter
+    private final LatencyHistogram stateLoads = new LatencyHistogram();
+    @Getter
+    private final LatencyHistogram stateStores = new LatencyHistogram();
+
+    private final LongAdder failedExecutions = new LongAdder();
+    private final LongAdder zeroElectedFailures = new LongAdder();
+    private final LongAdder manyElectedFailures = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> admissionRejectionsByCode = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordExecution(TransitionDescriptor<?, ?, ?, ?> descriptor, long nanos, boolean isSucceeded) {
+        LatencyHistogram histogram = executionsByDescriptor.get(descriptor);
+        if (histogram == null) {
+            histogram = executionsByDescriptor.computeIfAbsent(descriptor, key -> executionsByDirection.computeIfAbsent(
+                TransitionDescriptorUtils.getDirection(key), direction -> new LatencyHistogram()));
+        }
+        histogram.record(nanos);
+        if (!isSucceeded) {
+            failedExecutions.increment();
+        }
+    }
+
+    @Override
+    public void recordElection(long nanos) {
+        elections.record(nanos);
+    }
+
+    @Override
+    public void recordElectionFailure(boolean isZeroElected) {
+        if (isZeroElected) {
+            zeroElectedFailures.increment();
+        } else {
+            manyElectedFailures.increment();
+        }
+    }
+
+    @Override
+    public void recordStateLoad(long nanos) {
+        stateLoads.record(nanos);
+    }
+
+    @Override
+    public void recordStateStore(long nanos) {
+        stateStores.record(nanos);
+    }
+
+    @Override
+    public void recordAdmissionRejection(String code) {
+        admissionRejectionsByCode.computeIfAbsent(code, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Returns execution histograms of each transition direction, that was executed at least once.
+     *
+     * @return unmodifiable view of the execution histograms by the transition direction.
+     */
+    public Map<String, LatencyHistogram> getExecutions() {
+        return Map.copyOf(executionsByDirection);
+    }
+
+    /**
+     * Returns the number of the executions, that completed with exception.
+     *
+     * @return the number of the failed executions.
+     */
+    public long getFailedExecutionsCount() {
+        return failedExecutions.sum();
+    }
+
+    /**
+     * Returns the number of the elections, that failed because none of the transitions was elected.
+     *
+     * @return the number of the zero-elected failures.
+     */
+    public long getZeroElectedFailuresCount() {
+        return zeroElectedFailures.sum();
+    }
+
+    /**
+     * Returns the number of the elections, that failed because more than one transition was elected.
+     *
+     * @return the number of the many-elected failures.
+     */
+    public long getManyElectedFailuresCount() {
+        return manyElectedFailures.sum();
+    }
+
+    /**
+     * Returns the number of the impacts, that weren't admitted with the provided error {@code code}.
+     *
+     * @param code error code of the rejection.
+     *
+     * @return the number of the rejections with the {@code code}.
+     */
+    public long getAdmissionRejectionsCount(String code) {
+        LongAdder rejections = admissionRejectionsByCode.get(code);
+        return rejections == null ? 0 : rejections.sum();
+    }
+}
@@ -0,0 +1,112 @@
+package ua.ddovgal.mangamonitoring.state.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Lock-free histogram of the non-negative values, such as durations, in the fashion of the HdrHistogram. Takes a fixed, small amount of
+ * memory, while covering the whole {@code long} range with a relative error below 1%.
+ * <p/>
+ * Values below {@link #SUB_BUCKET_COUNT} are counted exactly. Bigger values are counted in the buckets, one per each power of two, and each
+ * bucket is split into {@link #SUB_BUCKET_COUNT} / 2 linear sub-buckets. Recording is a few bit operations and one atomic increment, so it
+ * is cheap enough for the hot path.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Number of the sub-buckets. Each value is counted with a precision of {@code 1 / (SUB_BUCKET_COUNT / 2)}, less than 1%.
+     */
+    static final int SUB_BUCKET_COUNT = 256;
+
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKET_COUNT);
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int COUNTS_LENGTH = SUB_BUCKET_COUNT + (Long.SIZE - 1 - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(COUNTS_LENGTH);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records the provided {@code value}. Negative values are recorded as zero.
+     *
+     * @param value value to record.
+     */
+    public void record(long value) {
+        long actualValue = Math.max(0, value);
+        counts.incrementAndGet(indexOf(actualValue));
+        max.accumulate(actualValue);
+    }
+
+    /**
+     * Returns the number of the recorded values.
+     *
+     * @return the number of the recorded values.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the maximal recorded value, or zero if nothing was recorded.
+     *
+     * @return the maximal recorded value.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the value, that the provided {@code percentile} of the recorded values don't exceed. For example, {@code 99.9} gives p999.
+     * Returned value is the highest value, that is counted together with the actual one, hence it may be bigger than the actual one, but
+     * by less than 1%, and never bigger than {@link #getMax()}.
+     *
+     * @param percentile percentile, from 0 to 100.
+     *
+     * @return the value at the provided {@code percentile}, or zero if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be from 0 to 100, but was " + percentile);
+        }
+        long[] snapshot = new long[COUNTS_LENGTH];
+        long total = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // value >>> shift has exactly SUB_BUCKET_BITS bits, that is, it's in [HALF_SUB_BUCKET_COUNT, SUB_BUCKET_COUNT)
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift) - HALF_SUB_BUCKET_COUNT;
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return (subBucket << shift) + (1L << shift) - 1;
+    }
+}
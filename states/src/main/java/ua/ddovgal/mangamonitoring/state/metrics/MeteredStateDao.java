@@ -0,0 +1,75 @@
+package ua.ddovgal.mangamonitoring.state.metrics;
+
+import java.util.List;
+import java.util.Optional;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.StateDao;
+import ua.ddovgal.mangamonitoring.state.util.Pair;
+
+/**
+ * {@link StateDao} decorator, that reports load and store durations of the {@link #delegate} to the {@link #metrics}. Batch operations are
+ * reported as a single load or store, since they are a single round trip.
+ */
+@RequiredArgsConstructor
+public class MeteredStateDao implements StateDao {
+
+    @NonNull
+    private final StateDao delegate;
+    @NonNull
+    private final StateMachineMetrics metrics;
+
+    @Override
+    public Optional<State> getState(AuthenticationData authData) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getState(authData);
+        } finally {
+            metrics.recordStateLoad(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void setState(AuthenticationData authData, State state) {
+        long start = System.nanoTime();
+        try {
+            delegate.setState(authData, state);
+        } finally {
+            metrics.recordStateStore(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Optional<State>> getStates(List<AuthenticationData> authData) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getStates(authData);
+        } finally {
+            metrics.recordStateLoad(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void setStates(List<Pair<AuthenticationData, State>> states) {
+        long start = System.nanoTime();
+        try {
+            delegate.setStates(states);
+        } finally {
+            metrics.recordStateStore(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void removeState(AuthenticationData authData) {
+        long start = System.nanoTime();
+        try {
+            delegate.removeState(authData);
+        } finally {
+            metrics.recordStateStore(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ua.ddovgal.mangamonitoring.state.metrics;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.election.ElectionOutcome;
+import ua.ddovgal.mangamonitoring.state.election.ElectionOutcome.Ambiguous;
+import ua.ddovgal.mangamonitoring.state.election.TransitionElector;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+
+/**
+ * {@link TransitionElector} decorator, that reports election duration and failures of the {@link #delegate} to the {@link #metrics}.
+ *
+ * @param <I> type of the impact.
+ * @param <R> type of the impact result.
+ */
+@RequiredArgsConstructor
+public class MeteredTransitionElector<I extends Impact, R> implements TransitionElector<I, R> {
+
+    @NonNull
+    private final TransitionElector<I, R> delegate;
+    @NonNull
+    private final StateMachineMetrics metrics;
+
+    @Override
+    public DepartureDefinedTransition<?, ?, I, R> electTransition(State departure, I impact) throws TransitionElectionException {
+        long start = System.nanoTime();
+        try {
+            return delegate.electTransition(departure, impact);
+        } catch (TransitionElectionException e) {
+            metrics.recordElectionFailure(e.isZeroElected());
+            throw e;
+        } finally {
+            metrics.recordElection(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public ElectionOutcome<I, R> elect(State departure, I impact) {
+        long start = System.nanoTime();
+        ElectionOutcome<I, R> outcome = delegate.elect(departure, impact);
+        metrics.recordElection(System.nanoTime() - start);
+        if (!outcome.isElected()) {
+            metrics.recordElectionFailure(!(outcome instanceof Ambiguous));
+        }
+        return outcome;
+    }
+}
@@ -0,0 +1,72 @@
+package ua.ddovgal.mangamonitoring.state.metrics;
+
+import ua.ddovgal.mangamonitoring.state.SimpleStateMachine;
+import ua.ddovgal.mangamonitoring.state.StateDao;
+import ua.ddovgal.mangamonitoring.state.concurrent.AdmissionControlledStateMachine;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+
+/**
+ * Receiver of the measurements, made while handling impacts. Implementations decide, how to aggregate and where to publish them, for
+ * example {@link HistogramStateMachineMetrics} keeps them in-process.
+ * <p/>
+ * Methods are called on the hot path, from many threads concurrently, hence implementations must be thread safe and cheap. All the
+ * methods do nothing by default, so implementations could pick only the measurements they need.
+ * <p/>
+ * Measurements are reported by {@link SimpleStateMachine} (transition execution), {@link MeteredTransitionElector} (election), {@link
+ * MeteredStateDao} (state load and store) and {@link AdmissionControlledStateMachine} (admission rejections). Durations are in
+ * nanoseconds.
+ */
+public interface StateMachineMetrics {
+
+    /**
+     * Metrics, which ignore all the measurements. Used when there is no metrics configured.
+     */
+    StateMachineMetrics NOOP = new StateMachineMetrics() {};
+
+    /**
+     * Records the duration of the {@link TransitionDescriptor#execute} call, whether it succeeded or not.
+     *
+     * @param descriptor  descriptor of the executed transition.
+     * @param nanos       duration of the execution.
+     * @param isSucceeded whether the execution completed without exception.
+     */
+    default void recordExecution(TransitionDescriptor<?, ?, ?, ?> descriptor, long nanos, boolean isSucceeded) {}
+
+    /**
+     * Records the duration of the election, whether it elected the transition or not.
+     *
+     * @param nanos duration of the election.
+     */
+    default void recordElection(long nanos) {}
+
+    /**
+     * Records the failed election.
+     *
+     * @param isZeroElected {@code true} if none of the transitions was elected, {@code false} if more than one was.
+     *
+     * @see TransitionElectionException#isZeroElected()
+     */
+    default void recordElectionFailure(boolean isZeroElected) {}
+
+    /**
+     * Records the duration of the state load by the {@link StateDao}.
+     *
+     * @param nanos duration of the load.
+     */
+    default void recordStateLoad(long nanos) {}
+
+    /**
+     * Records the duration of the state store by the {@link StateDao}.
+     *
+     * @param nanos duration of the store.
+     */
+    default void recordStateStore(long nanos) {}
+
+    /**
+     * Records the impact, that wasn't admitted to be handled.
+     *
+     * @param code error code of the rejection, see {@link AdmissionControlledStateMachine}.
+     */
+    default void recordAdmissionRejection(String code) {}
+}
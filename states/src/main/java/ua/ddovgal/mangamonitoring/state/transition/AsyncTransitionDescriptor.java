@@ -0,0 +1,62 @@
+package ua.ddovgal.mangamonitoring.state.transition;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.async.AsyncStateMachine;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+
+/**
+ * {@link TransitionDescriptor}, which action doesn't block the calling thread while waiting for some I/O, like a provider response.
+ * <p/>
+ * Such a descriptor is executed by the {@link #executeAsync(State, Impact)} when it's used by the {@link AsyncStateMachine}, and by the
+ * blocking {@link #execute(State, Impact)}, which just waits for the {@link #executeAsync(State, Impact)} completion, otherwise. Hence, the
+ * same descriptor could be used in both blocking and non-blocking state graphs.
+ *
+ * @param <D> type of the departure state.
+ * @param <A> type of the arrival state.
+ * @param <I> type of the impact.
+ * @param <R> type of the impact result.
+ */
+public interface AsyncTransitionDescriptor<D extends State, A extends State, I extends Impact, R> extends TransitionDescriptor<D, A, I, R> {
+
+    /**
+     * Starts the action of the transition. Same as {@link #execute(State, Impact)} does, but returns immediately.
+     *
+     * @param departure machine current state.
+     * @param impact    external impact.
+     *
+     * @return future of the arrived state with filled internal data. Completes exceptionally with the {@link TransitionExecutionException}
+     * if for any possible case transition can't be completed successfully.
+     */
+    CompletableFuture<A> executeAsync(D departure, I impact);
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Default implementation blocks till the {@link #executeAsync(State, Impact)} completion.
+     */
+    @Override
+    default A execute(D departure, I impact) throws TransitionExecutionException {
+        try {
+            return executeAsync(departure, impact).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransitionExecutionException("Interrupted while waiting for the transition action", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TransitionExecutionException) {
+                throw (TransitionExecutionException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TransitionExecutionException("Transition action failed", cause);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package ua.ddovgal.mangamonitoring.state.transition;
 
+import java.util.concurrent.CompletableFuture;
+
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
@@ -78,4 +80,30 @@ public final class DepartureDefinedTransition<D extends State, A extends State,
         A arrival = descriptor.execute(departure, impact);
         return new TransitionResult<>(descriptor, impact, departure, arrival);
     }
+
+    /**
+     * Starts the transition and returns future of the object with the transition results. If the held {@link #descriptor} is an {@link
+     * AsyncTransitionDescriptor}, its {@link AsyncTransitionDescriptor#executeAsync(State, Impact)} is used, otherwise blocking {@link
+     * #execute(Impact)} is done in the calling thread, and already completed future is returned.
+     *
+     * @param impact impact to execute held transition.
+     *
+     * @return future of the object with the transition results. Completes exceptionally with the {@link TransitionExecutionException} if
+     * transition failed for any possible case.
+     * @see #execute(Impact) for the blocking version.
+     */
+    public CompletableFuture<TransitionResult<D, A, I, R>> executeAsync(I impact) {
+        if (descriptor instanceof AsyncTransitionDescriptor) {
+            return ((AsyncTransitionDescriptor<D, A, I, R>) descriptor).executeAsync(departure, impact)
+                                                                       .thenApply(arrival -> new TransitionResult<>(descriptor,
+                                                                                                                    impact,
+                                                                                                                    departure,
+                                                                                                                    arrival));
+        }
+        try {
+            return CompletableFuture.completedFuture(execute(impact));
+        } catch (TransitionExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
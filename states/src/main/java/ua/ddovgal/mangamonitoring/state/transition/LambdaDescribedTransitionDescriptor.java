@@ -1,5 +1,6 @@
 package ua.ddovgal.mangamonitoring.state.transition;
 
+import java.time.Duration;
 import java.util.function.BiPredicate;
 
 import lombok.AccessLevel;
@@ -47,6 +48,12 @@ public final class LambdaDescribedTransitionDescriptor<D extends State, A extend
     @Getter
     private final Privilege requiredPrivilege;
 
+    @Getter
+    private final String discriminator;
+
+    @Getter
+    private final Duration executionDeadline;
+
     @NonNull
     private final BiPredicate<D, I> suitabilityCondition;
 
@@ -74,6 +81,9 @@ public final class LambdaDescribedTransitionDescriptor<D extends State, A extend
 
     @Override
     public boolean isSuitable(D departure, I impact) {
+        if (discriminator != null && !discriminator.equals(impact.getDiscriminator())) {
+            return false;
+        }
         return suitabilityCondition.test(departure, impact);
     }
 
@@ -111,6 +121,20 @@ public final class LambdaDescribedTransitionDescriptor<D extends State, A extend
         @Setter
         private Privilege requiredPrivilege = Privilege.COMMON_USER;
 
+        /**
+         * Optional discriminator of the suitable impacts. If set, {@link #suitabilityCondition} is checked only for the impacts with the same
+         * {@link Impact#getDiscriminator()}.
+         */
+        @Setter
+        private String discriminator;
+
+        /**
+         * Optional deadline of the {@link #executionFunction}, applied instead of the default one, when the transition is executed by the
+         * {@link TransitionExecutionPool}.
+         */
+        @Setter
+        private Duration executionDeadline;
+
         @Setter
         private BiPredicate<D, I> suitabilityCondition;
 
@@ -127,7 +151,8 @@ public final class LambdaDescribedTransitionDescriptor<D extends State, A extend
          */
         public TransitionDescriptor<D, A, I, R> build() {
             return new LambdaDescribedTransitionDescriptor<>(departureStateClass, arrivalStateClass, priority, requiredPrivilege,
-                                                             suitabilityCondition, executionFunction, impactResultBuilder);
+                                                             discriminator, executionDeadline, suitabilityCondition, executionFunction,
+                                                             impactResultBuilder);
         }
     }
 }
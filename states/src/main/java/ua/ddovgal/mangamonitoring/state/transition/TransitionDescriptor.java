@@ -1,5 +1,7 @@
 package ua.ddovgal.mangamonitoring.state.transition;
 
+import java.time.Duration;
+
 import ua.ddovgal.mangamonitoring.domain.Privilege;
 import ua.ddovgal.mangamonitoring.state.Impact;
 import ua.ddovgal.mangamonitoring.state.State;
@@ -62,6 +64,31 @@ public interface TransitionDescriptor<D extends State, A extends State, I extend
      */
     Privilege getRequiredPrivilege();
 
+    /**
+     * Returns the discriminator of the impacts, this transition can be suitable for, such as a command word or a callback data prefix.
+     * Transition with a discriminator must never be suitable for an impact with a different {@link Impact#getDiscriminator()}, so the graph
+     * could skip such transitions without checking them.
+     * <p/>
+     * Default implementation returns {@code null}, meaning that the transition can be suitable for any impact.
+     *
+     * @return the discriminator of the suitable impacts, or {@code null} if there is no one.
+     */
+    default String getDiscriminator() {
+        return null;
+    }
+
+    /**
+     * Returns the time, the {@link #execute(State, Impact)} is allowed to take, when the transition is executed by the {@link
+     * TransitionExecutionPool}. Once it's exceeded, execution is cancelled and considered failed.
+     * <p/>
+     * Default implementation returns {@code null}, meaning that the default deadline of the pool is applied.
+     *
+     * @return the execution deadline of the transition, or {@code null} if there is no specific one.
+     */
+    default Duration getExecutionDeadline() {
+        return null;
+    }
+
     /**
      * Checks if the transition is suitable to make with the provided {@code departure} and {@code impact}.
      *
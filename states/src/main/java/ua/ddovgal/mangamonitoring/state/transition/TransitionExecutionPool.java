@@ -0,0 +1,314 @@
+package ua.ddovgal.mangamonitoring.state.transition;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import ua.ddovgal.mangamonitoring.core.ManagedComponent;
+import ua.ddovgal.mangamonitoring.core.exception.ApplicationStartupException;
+import ua.ddovgal.mangamonitoring.domain.Privilege;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+
+import static ua.ddovgal.mangamonitoring.state.util.TransitionDescriptorUtils.getSimpleForm;
+
+/**
+ * Bounded pool of threads, which executes transitions in isolation from the threads handling impacts, so that one slow transition, such as
+ * a provider search, can't block its caller for longer than the deadline.
+ * <p/>
+ * Descriptors, {@link #guard(TransitionDescriptor) guarded} by the pool, run their {@link TransitionDescriptor#execute(State, Impact)} on
+ * the pool, while the caller waits for at most the {@link TransitionDescriptor#getExecutionDeadline()}, or the {@link #defaultDeadline}, if
+ * the descriptor has no specific one. Once the deadline is exceeded, execution is cancelled, which interrupts the pool thread, and {@link
+ * TransitionExecutionException} with the {@link #DEADLINE_EXCEEDED_CODE} is thrown. If the pool and its queue are both full, execution
+ * isn't even started, and {@link TransitionExecutionException} with the {@link #POOL_SATURATED_CODE} is thrown.
+ * <p/>
+ * {@link TransitionDescriptor#isSuitable(State, Impact)} is evaluated many times per election, hence it isn't moved to the pool, but each
+ * evaluation, which takes longer than {@link #slowSuitabilityThreshold}, is logged as a warning, pointing at the predicate to be fixed.
+ * <p/>
+ * {@link AsyncTransitionDescriptor} stays asynchronous once guarded: its {@link AsyncTransitionDescriptor#executeAsync(State, Impact)} isn't
+ * moved to the pool, since it doesn't block anyway, but its future is completed exceptionally with the same {@link #DEADLINE_EXCEEDED_CODE}
+ * once the deadline is exceeded.
+ * <p/>
+ * Keep in mind, cancellation only interrupts the action. Action, which ignores interruption, keeps occupying the pool thread till it
+ * completes by itself, but its result is discarded anyway.
+ */
+@Slf4j
+public class TransitionExecutionPool implements ManagedComponent {
+
+    /**
+     * Error code of the {@link TransitionExecutionException}, thrown when the transition execution exceeded its deadline.
+     */
+    public static final String DEADLINE_EXCEEDED_CODE = "executionDeadline_01";
+
+    /**
+     * Error code of the {@link TransitionExecutionException}, thrown when there is no room in the pool to execute the transition.
+     */
+    public static final String POOL_SATURATED_CODE = "executionRejected_01";
+
+    private final int poolSize;
+    private final int queueCapacity;
+    @Getter
+    private final Duration defaultDeadline;
+    @Getter
+    private final Duration slowSuitabilityThreshold;
+    private final long slowSuitabilityThresholdNanos;
+
+    private volatile ThreadPoolExecutor executor;
+
+    /**
+     * Creates pool, which should be {@link #start() started} before executing any transition.
+     *
+     * @param poolSize                 number of the threads, executing transitions.
+     * @param queueCapacity            maximal number of the transitions, waiting for the free thread.
+     * @param defaultDeadline          deadline of the transitions, that have no specific one.
+     * @param slowSuitabilityThreshold duration of the suitability check, which is considered slow.
+     */
+    public TransitionExecutionPool(int poolSize,
+                                   int queueCapacity,
+                                   @NonNull Duration defaultDeadline,
+                                   @NonNull Duration slowSuitabilityThreshold) {
+        if (poolSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("poolSize and queueCapacity must be positive");
+        }
+        this.poolSize = poolSize;
+        this.queueCapacity = queueCapacity;
+        this.defaultDeadline = defaultDeadline;
+        this.slowSuitabilityThreshold = slowSuitabilityThreshold;
+        this.slowSuitabilityThresholdNanos = slowSuitabilityThreshold.toNanos();
+    }
+
+    /**
+     * Wraps the {@code descriptor}, so that it's executed by this pool, while the rest of its methods are delegated as is. {@link
+     * AsyncTransitionDescriptor} is wrapped into the {@link AsyncTransitionDescriptor} as well, which only applies the deadline.
+     *
+     * @param descriptor descriptor to guard.
+     * @param <D>        type of the departure state.
+     * @param <A>        type of the arrival state.
+     * @param <I>        type of the impact.
+     * @param <R>        type of the impact result.
+     *
+     * @return guarded descriptor.
+     */
+    public <D extends State, A extends State, I extends Impact, R> TransitionDescriptor<D, A, I, R> guard(
+        @NonNull TransitionDescriptor<D, A, I, R> descriptor) {
+        if (descriptor instanceof AsyncTransitionDescriptor) {
+            return new GuardedAsyncTransitionDescriptor<>((AsyncTransitionDescriptor<D, A, I, R>) descriptor);
+        }
+        return new GuardedTransitionDescriptor<>(descriptor);
+    }
+
+    /**
+     * Wraps each of the {@code descriptors} by the {@link #guard(TransitionDescriptor)}, keeping the order. Result is ready to be passed to
+     * the state graph.
+     *
+     * @param descriptors descriptors to guard.
+     * @param <I>         type of the impact.
+     * @param <R>         type of the impact result.
+     *
+     * @return guarded descriptors.
+     */
+    public <I extends Impact, R> List<TransitionDescriptor<?, ?, I, R>> guardAll(@NonNull List<TransitionDescriptor<?, ?, I, R>> descriptors) {
+        List<TransitionDescriptor<?, ?, I, R>> guarded = new ArrayList<>(descriptors.size());
+        for (TransitionDescriptor<?, ?, I, R> descriptor : descriptors) {
+            guarded.add(guard(descriptor));
+        }
+        return guarded;
+    }
+
+    @Override
+    public void start() throws ApplicationStartupException {
+        if (executor != null) {
+            throw new ApplicationStartupException("Transition execution pool was already started");
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "transition-executor-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void stop() {
+        ThreadPoolExecutor actualExecutor = executor;
+        if (actualExecutor != null) {
+            executor = null;
+            // callers are waiting with the deadline anyway, so there is no reason to let the running transitions complete
+            actualExecutor.shutdownNow();
+        }
+    }
+
+    private <A extends State> A execute(TransitionDescriptor<?, A, ?, ?> descriptor, Action<A> action)
+        throws TransitionExecutionException {
+        ThreadPoolExecutor actualExecutor = executor;
+        if (actualExecutor == null) {
+            throw new IllegalStateException("Transition execution pool isn't started");
+        }
+        Duration deadline = getDeadline(descriptor);
+
+        Future<A> future;
+        try {
+            future = actualExecutor.submit(action::execute);
+        } catch (RejectedExecutionException e) {
+            throw new TransitionExecutionException("No room in the pool to execute " + getSimpleForm(descriptor), e, POOL_SATURATED_CODE);
+        }
+
+        try {
+            return future.get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            // if it's still queued, free the room right away
+            actualExecutor.remove((Runnable) future);
+            log.warn("Execution deadline={} exceeded by {}", deadline, getSimpleForm(descriptor));
+            throw new TransitionExecutionException("Execution deadline " + deadline + " exceeded", e, DEADLINE_EXCEEDED_CODE);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new TransitionExecutionException("Interrupted while waiting for the transition action", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TransitionExecutionException) {
+                throw (TransitionExecutionException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TransitionExecutionException("Transition action failed", cause);
+        }
+    }
+
+    private <A extends State> CompletableFuture<A> executeAsync(TransitionDescriptor<?, A, ?, ?> descriptor, CompletableFuture<A> action) {
+        Duration deadline = getDeadline(descriptor);
+        CompletableFuture<A> guarded = new CompletableFuture<>();
+        // completes the action future itself on timeout, which tells the action, that its result isn't awaited anymore
+        action.orTimeout(deadline.toNanos(), TimeUnit.NANOSECONDS).whenComplete((arrival, failure) -> {
+            if (failure == null) {
+                guarded.complete(arrival);
+                return;
+            }
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            if (cause instanceof TimeoutException) {
+                guarded.completeExceptionally(new TransitionExecutionException("Execution deadline " + deadline + " exceeded",
+                                                                               cause,
+                                                                               DEADLINE_EXCEEDED_CODE));
+                log.warn("Execution deadline={} exceeded by {}", deadline, getSimpleForm(descriptor));
+            } else {
+                guarded.completeExceptionally(cause);
+            }
+        });
+        return guarded;
+    }
+
+    private Duration getDeadline(TransitionDescriptor<?, ?, ?, ?> descriptor) {
+        return descriptor.getExecutionDeadline() != null ? descriptor.getExecutionDeadline() : defaultDeadline;
+    }
+
+    @FunctionalInterface
+    private interface Action<A> {
+
+        A execute() throws TransitionExecutionException;
+    }
+
+    @RequiredArgsConstructor
+    private class GuardedTransitionDescriptor<D extends State, A extends State, I extends Impact, R>
+        implements TransitionDescriptor<D, A, I, R> {
+
+        private final TransitionDescriptor<D, A, I, R> delegate;
+
+        @Override
+        public Class<D> getDepartureState() {
+            return delegate.getDepartureState();
+        }
+
+        @Override
+        public Class<A> getArrivalState() {
+            return delegate.getArrivalState();
+        }
+
+        @Override
+        public int getPriority() {
+            return delegate.getPriority();
+        }
+
+        @Override
+        public Privilege getRequiredPrivilege() {
+            return delegate.getRequiredPrivilege();
+        }
+
+        @Override
+        public String getDiscriminator() {
+            return delegate.getDiscriminator();
+        }
+
+        @Override
+        public Duration getExecutionDeadline() {
+            return delegate.getExecutionDeadline();
+        }
+
+        @Override
+        public boolean isSuitable(D departure, I impact) {
+            long start = System.nanoTime();
+            boolean isSuitable = delegate.isSuitable(departure, impact);
+            long elapsed = System.nanoTime() - start;
+            if (elapsed > slowSuitabilityThresholdNanos) {
+                log.warn("Slow suitability check took {}ms in {}", TimeUnit.NANOSECONDS.toMillis(elapsed), getSimpleForm(delegate));
+            }
+            return isSuitable;
+        }
+
+        @Override
+        public A execute(D departure, I impact) throws TransitionExecutionException {
+            return TransitionExecutionPool.this.execute(delegate, () -> delegate.execute(departure, impact));
+        }
+
+        @Override
+        public R buildImpactResult(D departure, A arrival, I impact) {
+            return delegate.buildImpactResult(departure, arrival, impact);
+        }
+    }
+
+    private final class GuardedAsyncTransitionDescriptor<D extends State, A extends State, I extends Impact, R>
+        extends GuardedTransitionDescriptor<D, A, I, R> implements AsyncTransitionDescriptor<D, A, I, R> {
+
+        private final AsyncTransitionDescriptor<D, A, I, R> asyncDelegate;
+
+        private GuardedAsyncTransitionDescriptor(AsyncTransitionDescriptor<D, A, I, R> asyncDelegate) {
+            super(asyncDelegate);
+            this.asyncDelegate = asyncDelegate;
+        }
+
+        @Override
+        public CompletableFuture<A> executeAsync(D departure, I impact) {
+            return TransitionExecutionPool.this.executeAsync(asyncDelegate, asyncDelegate.executeAsync(departure, impact));
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p/>
+         * Waits for the guarded {@link #executeAsync(State, Impact)} in the calling thread, rather than occupying the pool thread.
+         */
+        @Override
+        public A execute(D departure, I impact) throws TransitionExecutionException {
+            return AsyncTransitionDescriptor.super.execute(departure, impact);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ua.ddovgal.mangamonitoring.state;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.dao.ConcurrentMapStateDao;
+import ua.ddovgal.mangamonitoring.state.election.SimpleTransitionElector;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+import ua.ddovgal.mangamonitoring.state.graph.ClassMappingStateGraph;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+import ua.ddovgal.mangamonitoring.state.utils.States.BarState;
+import ua.ddovgal.mangamonitoring.state.utils.States.FooState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.Mockito.when;
+
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+import static ua.ddovgal.mangamonitoring.state.utils.DescriptorUtils.descriptorBuilder;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticStateMachineTest {
+
+    private final ConcurrentMapStateDao stateDao = new ConcurrentMapStateDao();
+    private final List<String> executedTransitions = new ArrayList<>();
+
+    @Mock
+    private Impact impact;
+
+    @Test
+    void handleImpact_stateChangedConcurrentlyOnce_reElectedFromActualState() throws TransitionElectionException,
+                                                                                   TransitionExecutionException {
+        AuthenticationData auth = initiatorAuthData();
+        // the first attempt, NIB->FOO, races with some other impact, that moves user to BAR
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(NoInteractionsBeforeState.class, FooState.class)
+                .executionFunction((departure, impact) -> {
+                    executedTransitions.add("NIB->FOO");
+                    stateDao.setState(auth, new BarState());
+                    return new FooState();
+                })
+                .impactResultBuilder((departure, arrival, impact) -> "NIB->FOO")
+                .build(),
+            descriptorBuilder(BarState.class, FooState.class)
+                .executionFunction((departure, impact) -> {
+                    executedTransitions.add("BAR->FOO");
+                    return new FooState();
+                })
+                .impactResultBuilder((departure, arrival, impact) -> "BAR->FOO")
+                .build()
+        );
+
+        Object result = stateMachine(descriptors, 3).handleImpact(impact);
+
+        assertThat(result).isEqualTo("BAR->FOO");
+        assertThat(executedTransitions).containsExactly("NIB->FOO", "BAR->FOO");
+        VersionedState actual = stateDao.getStateVersioned(auth);
+        assertThat(actual.getState()).containsInstanceOf(FooState.class);
+        assertThat(actual.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void handleImpact_stateChangedConcurrentlyOnEachAttempt_throwsConflict() {
+        AuthenticationData auth = initiatorAuthData();
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(NoInteractionsBeforeState.class, FooState.class)
+                .executionFunction((departure, impact) -> new FooState())
+                .build(),
+            descriptorBuilder(FooState.class, FooState.class)
+                .executionFunction((departure, impact) -> {
+                    executedTransitions.add("FOO->FOO");
+                    stateDao.setState(auth, new FooState());
+                    return new FooState();
+                })
+                .build()
+        );
+        stateDao.setState(auth, new FooState());
+
+        TransitionExecutionException exception = catchThrowableOfType(() -> stateMachine(descriptors, 2).handleImpact(impact),
+                                                                      TransitionExecutionException.class);
+
+        assertThat(exception).isNotNull();
+        assertThat(exception.getCode()).isEqualTo(OptimisticStateMachine.STATE_CONFLICT_CODE);
+        assertThat(executedTransitions).hasSize(2);
+    }
+
+    private OptimisticStateMachine<Impact, Object> stateMachine(List<TransitionDescriptor<?, ?, Impact, Object>> descriptors,
+                                                                int maxAttempts) {
+        return new OptimisticStateMachine<>(stateDao,
+                                            new SimpleTransitionElector<>(new ClassMappingStateGraph<>(descriptors), List.of()),
+                                            maxAttempts);
+    }
+
+    private AuthenticationData initiatorAuthData() {
+        AuthenticationData auth = authData("alice");
+        when(impact.getInitiatorAuthData()).thenReturn(auth);
+        return auth;
+    }
+}
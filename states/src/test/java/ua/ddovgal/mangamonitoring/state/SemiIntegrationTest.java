@@ -108,12 +108,7 @@ class SemiIntegrationTest {
             Optional.of(new BarState())
         );
 
-        // define accounts that will be retrieved
-        // the first try nothing is found due to being in NIB, then COMMON_USER
-        when(mockAccountService.getAssociatedAccount(same(TEST_AUTH_DATA))).thenReturn(
-            Optional.empty(),
-            accountWithPrivilege(Privilege.COMMON_USER)
-        );
+        // all transitions are permitted for everyone, hence accounts are never retrieved
 
         String impactResult;
 
@@ -143,9 +138,8 @@ class SemiIntegrationTest {
         );
         StateMachine<TestImpact, String> stateMachine = constructStateMachine(descriptors);
 
-        // system will be in FOO state, have COMMON_USER account
+        // system will be in FOO state, account is never retrieved since all transitions are permitted for everyone
         when(mockStateDao.getState(same(TEST_AUTH_DATA))).thenReturn(Optional.of(new FooState()));
-        when(mockAccountService.getAssociatedAccount(same(TEST_AUTH_DATA))).thenReturn(accountWithPrivilege(Privilege.COMMON_USER));
 
         // ---- null data - second transition also is suitable
         assertThatExceptionOfType(TransitionElectionException.class).isThrownBy(() -> stateMachine.handleImpact(TestImpact.of(null)));
@@ -164,9 +158,8 @@ class SemiIntegrationTest {
         );
         StateMachine<TestImpact, String> stateMachine = constructStateMachine(descriptors);
 
-        // system will be in FOO state, have COMMON_USER account
+        // system will be in FOO state, account is never retrieved since all transitions are permitted for everyone
         when(mockStateDao.getState(same(TEST_AUTH_DATA))).thenReturn(Optional.of(new FooState()));
-        when(mockAccountService.getAssociatedAccount(same(TEST_AUTH_DATA))).thenReturn(accountWithPrivilege(Privilege.COMMON_USER));
 
         TransitionElectionException exception = catchThrowableOfType(() -> stateMachine.handleImpact(TestImpact.IGNORE),
                                                                      TransitionElectionException.class);
@@ -185,9 +178,8 @@ class SemiIntegrationTest {
         );
         StateMachine<TestImpact, String> stateMachine = constructStateMachine(descriptors);
 
-        // system will be in FOO state, have COMMON_USER account
+        // system will be in FOO state, account is never retrieved since all transitions are permitted for everyone
         when(mockStateDao.getState(same(TEST_AUTH_DATA))).thenReturn(Optional.of(new FooState()));
-        when(mockAccountService.getAssociatedAccount(same(TEST_AUTH_DATA))).thenReturn(accountWithPrivilege(Privilege.COMMON_USER));
 
         TransitionElectionException exception = catchThrowableOfType(() -> stateMachine.handleImpact(TestImpact.IGNORE),
                                                                      TransitionElectionException.class);
@@ -207,9 +199,8 @@ class SemiIntegrationTest {
         );
         StateMachine<TestImpact, String> stateMachine = constructStateMachine(descriptors);
 
-        // system will be in FOO state, have COMMON_USER account
+        // system will be in FOO state, account is never retrieved since all transitions are permitted for everyone
         when(mockStateDao.getState(same(TEST_AUTH_DATA))).thenReturn(Optional.of(new FooState()));
-        when(mockAccountService.getAssociatedAccount(same(TEST_AUTH_DATA))).thenReturn(accountWithPrivilege(Privilege.COMMON_USER));
 
         // FOO->BAR has higher priority
         stateMachine.handleImpact(TestImpact.IGNORE);
@@ -10,24 +10,33 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.election.ElectionOutcome;
 import ua.ddovgal.mangamonitoring.state.election.TransitionElector;
 import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
 import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+import ua.ddovgal.mangamonitoring.state.metrics.StateMachineMetrics;
 import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
 import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+import ua.ddovgal.mangamonitoring.state.util.Pair;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.catchThrowableOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+
 @ExtendWith(MockitoExtension.class)
 class SimpleStateMachineTest {
 
@@ -37,6 +46,9 @@ class SimpleStateMachineTest {
     @Mock
     private TransitionElector<Impact, Object> transitionElector;
 
+    @Mock
+    private StateMachineMetrics metrics;
+
     @InjectMocks
     private SimpleStateMachine<Impact, Object> stateMachine;
 
@@ -59,6 +71,7 @@ class SimpleStateMachineTest {
 
         assertThat(impactResult).isSameAs(result);
         verify(stateDao).setState(same(auth), same(arrived));
+        verify(metrics).recordExecution(same(descriptor), anyLong(), eq(true));
         verifyNoMoreInteractions(stateDao, transitionElector);
     }
 
@@ -97,6 +110,21 @@ class SimpleStateMachineTest {
         verifyNoMoreInteractions(stateDao, transitionElector);
     }
 
+    @Test
+    void tryHandleImpact_noTransitionElected_unmatchedOutcomeWithoutException(@Mock Impact impact) {
+        AuthenticationData auth = mock(AuthenticationData.class);
+        when(impact.getInitiatorAuthData()).thenReturn(auth);
+        State current = mock(State.class);
+        when(stateDao.getState(same(auth))).thenReturn(Optional.of(current));
+        when(transitionElector.elect(same(current), same(impact))).thenReturn(ElectionOutcome.none());
+
+        ImpactOutcome<Object> outcome = stateMachine.tryHandleImpact(impact);
+
+        assertThat(outcome).isInstanceOf(ImpactOutcome.Unmatched.class);
+        assertThat(outcome.isHandled()).isFalse();
+        verifyNoMoreInteractions(stateDao, transitionElector);
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     @Test
     void handleImpact_exceptionWhileExecuting_exceptionNotCaught(@Mock Impact impact) throws TransitionElectionException, TransitionExecutionException {
@@ -110,15 +138,83 @@ class SimpleStateMachineTest {
             .thenReturn(new DepartureDefinedTransition(descriptor, current));
 
         assertThatExceptionOfType(TransitionExecutionException.class).isThrownBy(() -> stateMachine.handleImpact(impact));
+        verify(metrics).recordExecution(same(descriptor), anyLong(), eq(false));
         verifyNoMoreInteractions(stateDao, transitionElector);
     }
 
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Test
+    void handleImpacts_severalImpactsOfSameInitiator_statesReadAndSetOnce(@Mock Impact first,
+                                                                         @Mock Impact second,
+                                                                         @Mock Impact failing)
+        throws TransitionElectionException, TransitionExecutionException {
+        AuthenticationData alice = authData("alice");
+        AuthenticationData bob = authData("bob");
+        when(first.getInitiatorAuthData()).thenReturn(alice);
+        when(second.getInitiatorAuthData()).thenReturn(alice);
+        when(failing.getInitiatorAuthData()).thenReturn(bob);
+        State aliceCurrent = mock(State.class);
+        State bobCurrent = mock(State.class);
+        when(stateDao.getStates(List.of(alice, bob))).thenReturn(List.of(Optional.of(aliceCurrent), Optional.of(bobCurrent)));
+
+        State intermediate = mock(State.class);
+        State last = mock(State.class);
+        TransitionDescriptor<State, State, Impact, Object> firstDescriptor = mockDescriptor();
+        when(firstDescriptor.execute(same(aliceCurrent), same(first))).thenReturn(intermediate);
+        when(firstDescriptor.buildImpactResult(same(aliceCurrent), any(), same(first))).thenReturn("first");
+        when(transitionElector.elect(same(aliceCurrent), same(first)))
+            .thenReturn(ElectionOutcome.elected(new DepartureDefinedTransition(firstDescriptor, aliceCurrent)));
+        TransitionDescriptor<State, State, Impact, Object> secondDescriptor = mockDescriptor();
+        when(secondDescriptor.execute(same(intermediate), same(second))).thenReturn(last);
+        when(secondDescriptor.buildImpactResult(same(intermediate), any(), same(second))).thenReturn("second");
+        when(transitionElector.elect(same(intermediate), same(second)))
+            .thenReturn(ElectionOutcome.elected(new DepartureDefinedTransition(secondDescriptor, intermediate)));
+        when(transitionElector.elect(same(bobCurrent), same(failing))).thenReturn(ElectionOutcome.none());
+
+        List<ImpactOutcome<Object>> outcomes = stateMachine.handleImpacts(List.of(first, failing, second));
+
+        assertThat(outcomes).hasSize(3);
+        assertThat(outcomes.get(0)).isInstanceOfSatisfying(ImpactOutcome.Handled.class, handled ->
+            assertThat(handled.getResult()).isEqualTo("first"));
+        assertThat(outcomes.get(1)).isInstanceOf(ImpactOutcome.Unmatched.class);
+        assertThat(outcomes.get(2)).isInstanceOfSatisfying(ImpactOutcome.Handled.class, handled ->
+            assertThat(handled.getResult()).isEqualTo("second"));
+        // bob's state wasn't changed, hence only alice's last arrival is set
+        verify(stateDao).setStates(List.of(Pair.of(alice, last)));
+        verifyNoMoreInteractions(stateDao, transitionElector);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Test
+    void handleImpacts_unexpectedFailure_collectedArrivalsSetBeforeRethrow(@Mock Impact first, @Mock Impact failing)
+        throws TransitionElectionException, TransitionExecutionException {
+        AuthenticationData alice = authData("alice");
+        AuthenticationData bob = authData("bob");
+        when(first.getInitiatorAuthData()).thenReturn(alice);
+        when(failing.getInitiatorAuthData()).thenReturn(bob);
+        State aliceCurrent = mock(State.class);
+        State bobCurrent = mock(State.class);
+        when(stateDao.getStates(List.of(alice, bob))).thenReturn(List.of(Optional.of(aliceCurrent), Optional.of(bobCurrent)));
+
+        State arrival = mock(State.class);
+        TransitionDescriptor<State, State, Impact, Object> firstDescriptor = mockDescriptor();
+        when(firstDescriptor.execute(same(aliceCurrent), same(first))).thenReturn(arrival);
+        when(transitionElector.elect(same(aliceCurrent), same(first)))
+            .thenReturn(ElectionOutcome.elected(new DepartureDefinedTransition(firstDescriptor, aliceCurrent)));
+        IllegalStateException unexpected = new IllegalStateException("Oops");
+        when(transitionElector.elect(same(bobCurrent), same(failing))).thenThrow(unexpected);
+
+        assertThatThrownBy(() -> stateMachine.handleImpacts(List.of(first, failing))).isSameAs(unexpected);
+
+        verify(stateDao).setStates(List.of(Pair.of(alice, arrival)));
+    }
+
     @SuppressWarnings("unchecked")
     private static TransitionDescriptor<State, State, Impact, Object> mockDescriptor() {
         TransitionDescriptor<State, State, Impact, Object> descriptor = mock(TransitionDescriptor.class);
-        // need to prevent NPE due to logging
-        when(descriptor.getDepartureState()).thenReturn(State.class);
-        when(descriptor.getArrivalState()).thenReturn(State.class);
+        // need to prevent NPE due to logging, but only if it's enabled
+        lenient().when(descriptor.getDepartureState()).thenReturn(State.class);
+        lenient().when(descriptor.getArrivalState()).thenReturn(State.class);
         return descriptor;
     }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package ua.ddovgal.mangamonitoring.state.async;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.election.TransitionElector;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+import ua.ddovgal.mangamonitoring.state.transition.AsyncTransitionDescriptor;
+import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+
+@ExtendWith(MockitoExtension.class)
+class SimpleAsyncStateMachineTest {
+
+    @Mock
+    private AsyncStateDao stateDao;
+
+    @Mock
+    private TransitionElector<Impact, Object> transitionElector;
+
+    @Mock
+    private Impact impact;
+
+    private final AuthenticationData auth = authData("alice");
+    private final State current = mock(State.class);
+
+    private SimpleAsyncStateMachine<Impact, Object> stateMachine;
+
+    @BeforeEach
+    void setUp() {
+        stateMachine = new SimpleAsyncStateMachine<>(stateDao, transitionElector, Runnable::run);
+        when(impact.getInitiatorAuthData()).thenReturn(auth);
+        when(stateDao.getStateAsync(same(auth))).thenReturn(CompletableFuture.completedFuture(Optional.of(current)));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Test
+    void handleImpactAsync_asyncDescriptor_completesOnceActionAndWriteComplete() throws TransitionElectionException {
+        State arrived = mock(State.class);
+        Object result = new Object();
+        CompletableFuture<State> action = new CompletableFuture<>();
+        CompletableFuture<Void> write = new CompletableFuture<>();
+        AsyncTransitionDescriptor<State, State, Impact, Object> descriptor = mock(AsyncTransitionDescriptor.class);
+        when(descriptor.executeAsync(same(current), same(impact))).thenReturn(action);
+        when(descriptor.buildImpactResult(same(current), same(arrived), same(impact))).thenReturn(result);
+        when(transitionElector.electTransition(same(current), same(impact)))
+            .thenReturn(new DepartureDefinedTransition(descriptor, current));
+        when(stateDao.setStateAsync(same(auth), same(arrived))).thenReturn(write);
+
+        CompletableFuture<Object> impactResult = stateMachine.handleImpactAsync(impact);
+
+        assertThat(impactResult).isNotDone();
+        action.complete(arrived);
+        assertThat(impactResult).isNotDone();
+        write.complete(null);
+        assertThat(impactResult).isCompletedWithValue(result);
+    }
+
+    @Test
+    void handleImpactAsync_cantElect_completesExceptionally() throws TransitionElectionException {
+        when(transitionElector.electTransition(same(current), same(impact)))
+            .thenThrow(new TransitionElectionException(impact, current, List.of()));
+
+        CompletableFuture<Object> impactResult = stateMachine.handleImpactAsync(impact);
+
+        assertThatExceptionOfType(ExecutionException.class).isThrownBy(impactResult::get)
+                                                           .withCauseInstanceOf(TransitionElectionException.class);
+        verify(stateDao, never()).setStateAsync(any(), any());
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Test
+    void handleImpact_asyncDescriptorFailed_executionExceptionRethrown() throws TransitionElectionException {
+        AsyncTransitionDescriptor<State, State, Impact, Object> descriptor = mock(AsyncTransitionDescriptor.class);
+        TransitionExecutionException failure = new TransitionExecutionException("Oops", "oops_01");
+        when(descriptor.executeAsync(same(current), same(impact))).thenReturn(CompletableFuture.failedFuture(failure));
+        when(transitionElector.electTransition(same(current), same(impact)))
+            .thenReturn(new DepartureDefinedTransition(descriptor, current));
+
+        assertThatExceptionOfType(TransitionExecutionException.class).isThrownBy(() -> stateMachine.handleImpact(impact))
+                                                                     .isSameAs(failure);
+        verify(stateDao).getStateAsync(same(auth));
+        verifyNoMoreInteractions(stateDao);
+    }
+}
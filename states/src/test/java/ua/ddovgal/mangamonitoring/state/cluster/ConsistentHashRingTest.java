@@ -0,0 +1,55 @@
+package ua.ddovgal.mangamonitoring.state.cluster;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+    private static final int USERS_COUNT = 10_000;
+
+    @Test
+    void getOwner_severalNodes_usersSpreadEvenly() {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of("a", "b", "c", "d"));
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < USERS_COUNT; i++) {
+            counts.merge(ring.getOwner("user-" + i), 1, Integer::sum);
+        }
+
+        assertThat(counts).containsOnlyKeys("a", "b", "c", "d");
+        // each node should get roughly a quarter of the users
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(USERS_COUNT / 6, USERS_COUNT / 3));
+    }
+
+    @Test
+    void withNode_nodeJoined_onlyUsersOfJoinedNodeMoved() {
+        ConsistentHashRing before = ConsistentHashRing.of(List.of("a", "b", "c"));
+        ConsistentHashRing after = before.withNode("d");
+
+        int moved = 0;
+        for (int i = 0; i < USERS_COUNT; i++) {
+            String previousOwner = before.getOwner("user-" + i);
+            String owner = after.getOwner("user-" + i);
+            if (!owner.equals(previousOwner)) {
+                assertThat(owner).isEqualTo("d");
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(USERS_COUNT / 6, USERS_COUNT / 3);
+    }
+
+    @Test
+    void of_nodesInDifferentOrder_sameOwners() {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of("a", "b", "c"));
+        ConsistentHashRing reordered = ConsistentHashRing.of(List.of("c", "a", "b"));
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(reordered.getOwner("user-" + i)).isEqualTo(ring.getOwner("user-" + i));
+        }
+    }
+}
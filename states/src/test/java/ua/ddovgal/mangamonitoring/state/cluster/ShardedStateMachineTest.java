@@ -0,0 +1,154 @@
+package ua.ddovgal.mangamonitoring.state.cluster;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.StateDao;
+import ua.ddovgal.mangamonitoring.state.StateMachine;
+import ua.ddovgal.mangamonitoring.state.dao.ConcurrentMapStateDao;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+import ua.ddovgal.mangamonitoring.state.utils.States.BarState;
+import ua.ddovgal.mangamonitoring.state.utils.States.FooState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedStateMachineTest {
+
+    @Mock
+    private StateMachine<Impact, Object> firstLocal;
+
+    @Mock
+    private StateMachine<Impact, Object> secondLocal;
+
+    @Mock
+    private StateMachine<Impact, Object> thirdLocal;
+
+    private final ConcurrentMapStateDao firstStateDao = new ConcurrentMapStateDao();
+    private final ConcurrentMapStateDao secondStateDao = new ConcurrentMapStateDao();
+    private final ConcurrentMapStateDao thirdStateDao = new ConcurrentMapStateDao();
+    private final LocalImpactTransport<Impact, Object> transport = new LocalImpactTransport<>();
+
+    @Test
+    void handleImpact_userOwnedByOtherNode_forwardedToOwner(@Mock Impact impact)
+        throws TransitionElectionException, TransitionExecutionException {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of("first", "second"));
+        ShardedStateMachine<Impact, Object> first = node("first", ring, firstLocal, firstStateDao);
+        node("second", ring, secondLocal, secondStateDao);
+        AuthenticationData authData = authData(identifierOwnedBy(ring, "second"));
+        when(impact.getInitiatorAuthData()).thenReturn(authData);
+        when(secondLocal.handleImpact(same(impact))).thenReturn("handled by second");
+
+        assertThat(first.handleImpact(impact)).isEqualTo("handled by second");
+        verifyNoInteractions(firstLocal);
+    }
+
+    @Test
+    void updateRing_nodeJoined_stateHandedOverToNewOwner(@Mock Impact impact)
+        throws TransitionElectionException, TransitionExecutionException {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of("first"));
+        ConsistentHashRing joinedRing = ring.withNode("second");
+        ShardedStateMachine<Impact, Object> first = node("first", ring, firstLocal, firstStateDao);
+        ShardedStateMachine<Impact, Object> second = node("second", ring, secondLocal, secondStateDao);
+        AuthenticationData authData = authData(identifierOwnedBy(joinedRing, "second"));
+        State state = new FooState();
+        firstStateDao.setState(authData, state);
+        when(impact.getInitiatorAuthData()).thenReturn(authData);
+        when(secondLocal.handleImpact(same(impact))).thenReturn("handled by second");
+
+        // the new owner gets the ring first, while the previous one still has the old ring
+        second.updateRing(joinedRing);
+        assertThat(second.handleImpact(impact)).isEqualTo("handled by second");
+        // previous owner forwards the user to the new owner even before it gets the new ring
+        assertThat(first.handleImpact(impact)).isEqualTo("handled by second");
+
+        assertThat(secondStateDao.getState(authData)).containsSame(state);
+        assertThat(firstStateDao.getState(authData)).isEmpty();
+        verifyNoInteractions(firstLocal);
+    }
+
+    @Test
+    void updateRing_ringUpdatedTwiceBeforeMigration_stateTakenFromOwnerOfOldestRing(@Mock Impact impact)
+        throws TransitionElectionException, TransitionExecutionException {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of("first"));
+        ConsistentHashRing joinedRing = ring.withNode("second");
+        ConsistentHashRing twiceJoinedRing = joinedRing.withNode("third");
+        node("first", ring, firstLocal, firstStateDao);
+        ShardedStateMachine<Impact, Object> second = node("second", ring, secondLocal, secondStateDao);
+        ShardedStateMachine<Impact, Object> third = node("third", ring, thirdLocal, thirdStateDao);
+        AuthenticationData authData = authData(identifier(identifier -> joinedRing.getOwner(identifier).equals("second")
+                                                                        && twiceJoinedRing.getOwner(identifier).equals("third")));
+        State state = new FooState();
+        firstStateDao.setState(authData, state);
+        when(impact.getInitiatorAuthData()).thenReturn(authData);
+        when(thirdLocal.handleImpact(same(impact))).thenReturn("handled by third");
+
+        // the user isn't migrated to the second node, before the third one joins
+        for (ShardedStateMachine<Impact, Object> node : List.of(second, third)) {
+            node.updateRing(joinedRing);
+            node.updateRing(twiceJoinedRing);
+        }
+        assertThat(third.handleImpact(impact)).isEqualTo("handled by third");
+
+        assertThat(thirdStateDao.getState(authData)).containsSame(state);
+        assertThat(firstStateDao.getStatesCount()).isZero();
+        assertThat(secondStateDao.getStatesCount()).isZero();
+    }
+
+    @Test
+    void handleImpact_staleLocalStateOfMovedUser_stateStillTakenFromPreviousOwner(@Mock Impact impact)
+        throws TransitionElectionException, TransitionExecutionException {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of("first"));
+        ConsistentHashRing joinedRing = ring.withNode("second");
+        node("first", ring, firstLocal, firstStateDao);
+        ShardedStateMachine<Impact, Object> second = node("second", ring, secondLocal, secondStateDao);
+        AuthenticationData authData = authData(identifier(identifier -> joinedRing.getOwner(identifier).equals("second")));
+        State state = new FooState();
+        firstStateDao.setState(authData, state);
+        secondStateDao.setState(authData, new BarState());
+        when(impact.getInitiatorAuthData()).thenReturn(authData);
+        when(secondLocal.handleImpact(same(impact))).thenReturn("handled by second");
+
+        second.updateRing(joinedRing);
+        second.handleImpact(impact);
+        second.handleImpact(impact);
+
+        assertThat(secondStateDao.getState(authData)).containsSame(state);
+        assertThat(firstStateDao.getStatesCount()).isZero();
+    }
+
+    private ShardedStateMachine<Impact, Object> node(String nodeId,
+                                                     ConsistentHashRing ring,
+                                                     StateMachine<Impact, Object> local,
+                                                     StateDao stateDao) {
+        ShardedStateMachine<Impact, Object> node = new ShardedStateMachine<>(nodeId, ring, local, stateDao, transport);
+        transport.register(node);
+        return node;
+    }
+
+    private static String identifierOwnedBy(ConsistentHashRing ring, String nodeId) {
+        return identifier(identifier -> ring.getOwner(identifier).equals(nodeId));
+    }
+
+    private static String identifier(Predicate<String> isSuitable) {
+        for (int i = 0; ; i++) {
+            if (isSuitable.test("user-" + i)) {
+                return "user-" + i;
+            }
+        }
+    }
+}
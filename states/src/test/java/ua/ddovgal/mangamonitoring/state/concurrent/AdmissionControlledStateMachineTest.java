@@ -0,0 +1,167 @@
+package ua.ddovgal.mangamonitoring.state.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import lombok.RequiredArgsConstructor;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.core.exception.ApplicationStartupException;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.StateMachine;
+import ua.ddovgal.mangamonitoring.state.concurrent.AdmissionControlledStateMachine.SaturationPolicy;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+import ua.ddovgal.mangamonitoring.state.metrics.HistogramStateMachineMetrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+
+class AdmissionControlledStateMachineTest {
+
+    private static final double ALMOST_NO_REFILL = 0.001;
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final HistogramStateMachineMetrics metrics = new HistogramStateMachineMetrics();
+    private final CountDownLatch blockerStarted = new CountDownLatch(1);
+    private final CountDownLatch blockerReleased = new CountDownLatch(1);
+
+    private AdmissionControlledStateMachine<TestImpact, Integer> stateMachine;
+
+    @AfterEach
+    void stopStateMachine() throws InterruptedException {
+        blockerReleased.countDown();
+        stateMachine.stop();
+        callers.shutdownNow();
+        callers.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void handleImpact_initiatorExceededBurst_rejectedWhileOthersHandled()
+        throws ApplicationStartupException, TransitionElectionException, TransitionExecutionException {
+        stateMachine = startedStateMachine(2, 16, SaturationPolicy.REJECT);
+
+        assertThat(stateMachine.handleImpact(new TestImpact("alice", 1))).isEqualTo(1);
+        assertThat(stateMachine.handleImpact(new TestImpact("alice", 2))).isEqualTo(2);
+        TransitionExecutionException exception = catchThrowableOfType(() -> stateMachine.handleImpact(new TestImpact("alice", 3)),
+                                                                      TransitionExecutionException.class);
+
+        assertThat(exception.getCode()).isEqualTo(AdmissionControlledStateMachine.RATE_LIMITED_CODE);
+        assertThat(stateMachine.handleImpact(new TestImpact("bob", 4))).isEqualTo(4);
+        assertThat(metrics.getAdmissionRejectionsCount(AdmissionControlledStateMachine.RATE_LIMITED_CODE)).isEqualTo(1);
+    }
+
+    @Test
+    void handleImpact_queueFullAndRejectPolicy_rejected() throws ApplicationStartupException, InterruptedException, ExecutionException {
+        stateMachine = startedStateMachine(16, 1, SaturationPolicy.REJECT);
+        CompletableFuture<Integer> blocker = handleInBackground(new TestImpact("blocker", 0));
+        blockerStarted.await();
+        CompletableFuture<Integer> queued = handleInBackground(new TestImpact("alice", 1));
+        awaitQueued();
+
+        TransitionExecutionException exception = catchThrowableOfType(() -> stateMachine.handleImpact(new TestImpact("alice", 2)),
+                                                                      TransitionExecutionException.class);
+
+        assertThat(exception.getCode()).isEqualTo(AdmissionControlledStateMachine.QUEUE_SATURATED_CODE);
+        assertThat(metrics.getAdmissionRejectionsCount(AdmissionControlledStateMachine.QUEUE_SATURATED_CODE)).isEqualTo(1);
+        blockerReleased.countDown();
+        assertThat(blocker.get()).isZero();
+        assertThat(queued.get()).isEqualTo(1);
+    }
+
+    @Test
+    void handleImpact_queueFullAndCoalescePolicy_queuedImpactOfSameInitiatorReplaced()
+        throws ApplicationStartupException, InterruptedException, ExecutionException {
+        stateMachine = startedStateMachine(16, 1, SaturationPolicy.COALESCE);
+        CompletableFuture<Integer> blocker = handleInBackground(new TestImpact("blocker", 0));
+        blockerStarted.await();
+        CompletableFuture<Integer> superseded = handleInBackground(new TestImpact("alice", 1));
+        awaitQueued();
+
+        CompletableFuture<Integer> coalesced = handleInBackground(new TestImpact("alice", 2));
+        ExecutionException supersededFailure = catchThrowableOfType(superseded::get, ExecutionException.class);
+        TransitionExecutionException bobFailure = catchThrowableOfType(() -> stateMachine.handleImpact(new TestImpact("bob", 3)),
+                                                                       TransitionExecutionException.class);
+        blockerReleased.countDown();
+
+        assertThat(supersededFailure.getCause()).isInstanceOfSatisfying(TransitionExecutionException.class, exception ->
+            assertThat(exception.getCode()).isEqualTo(AdmissionControlledStateMachine.COALESCED_CODE));
+        assertThat(bobFailure.getCode()).isEqualTo(AdmissionControlledStateMachine.QUEUE_SATURATED_CODE);
+        assertThat(blocker.get()).isZero();
+        assertThat(coalesced.get()).isEqualTo(2);
+        assertThat(metrics.getAdmissionRejectionsCount(AdmissionControlledStateMachine.COALESCED_CODE)).isEqualTo(1);
+    }
+
+    @Test
+    void handleImpact_delegateThrowsError_errorRethrownToCaller()
+        throws ApplicationStartupException, TransitionElectionException, TransitionExecutionException {
+        stateMachine = startedStateMachine(16, 1, SaturationPolicy.REJECT);
+
+        Throwable error = catchThrowable(() -> stateMachine.handleImpact(new TestImpact("failing", 1)));
+
+        assertThat(error).isInstanceOf(AssertionError.class).hasMessage("Oops");
+        assertThat(stateMachine.handleImpact(new TestImpact("alice", 2))).isEqualTo(2);
+    }
+
+    private AdmissionControlledStateMachine<TestImpact, Integer> startedStateMachine(int burst, int queueCapacity, SaturationPolicy policy)
+        throws ApplicationStartupException {
+        StateMachine<TestImpact, Integer> delegate = impact -> {
+            if (impact.initiator.equals("blocker")) {
+                blockerStarted.countDown();
+                try {
+                    blockerReleased.await();
+                } catch (InterruptedException e) {
+                    throw new TransitionExecutionException("Interrupted", e);
+                }
+            }
+            if (impact.initiator.equals("failing")) {
+                throw new AssertionError("Oops");
+            }
+            return impact.sequence;
+        };
+        AdmissionControlledStateMachine<TestImpact, Integer> started =
+            new AdmissionControlledStateMachine<>(delegate, metrics, ALMOST_NO_REFILL, burst, queueCapacity, 1, policy);
+        started.start();
+        return started;
+    }
+
+    private CompletableFuture<Integer> handleInBackground(TestImpact impact) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        callers.execute(() -> {
+            try {
+                result.complete(stateMachine.handleImpact(impact));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private void awaitQueued() throws InterruptedException {
+        while (stateMachine.getQueuedImpactsCount() == 0) {
+            Thread.sleep(1);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class TestImpact implements Impact {
+
+        private final String initiator;
+        private final int sequence;
+
+        @Override
+        public AuthenticationData getInitiatorAuthData() {
+            return authData(initiator);
+        }
+    }
+}
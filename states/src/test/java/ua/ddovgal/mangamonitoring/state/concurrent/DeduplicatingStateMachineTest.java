@@ -0,0 +1,143 @@
+package ua.ddovgal.mangamonitoring.state.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import lombok.RequiredArgsConstructor;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.StateMachine;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+
+class DeduplicatingStateMachineTest {
+
+    private static final Duration LONG_WINDOW = Duration.ofHours(1);
+
+    private final AtomicInteger handledCount = new AtomicInteger();
+    private final StateMachine<TestImpact, Integer> delegate = impact -> {
+        if (impact.isFailing) {
+            throw new TransitionExecutionException("Oops");
+        }
+        return handledCount.incrementAndGet();
+    };
+
+    @Test
+    void handleImpact_duplicate_cachedResultReturnedWithoutHandling() throws TransitionElectionException, TransitionExecutionException {
+        DeduplicatingStateMachine<TestImpact, Integer> stateMachine = new DeduplicatingStateMachine<>(delegate, LONG_WINDOW, 100);
+
+        assertThat(stateMachine.handleImpact(new TestImpact("alice", "update-1", false))).isEqualTo(1);
+        assertThat(stateMachine.handleImpact(new TestImpact("alice", "update-1", false))).isEqualTo(1);
+
+        assertThat(handledCount).hasValue(1);
+        assertThat(stateMachine.getDuplicatesCount()).isEqualTo(1);
+    }
+
+    @Test
+    void handleImpact_noKeyOrSameKeyOfOtherInitiator_handledEachTime() throws TransitionElectionException, TransitionExecutionException {
+        DeduplicatingStateMachine<TestImpact, Integer> stateMachine = new DeduplicatingStateMachine<>(delegate, LONG_WINDOW, 100);
+
+        stateMachine.handleImpact(new TestImpact("alice", null, false));
+        stateMachine.handleImpact(new TestImpact("alice", null, false));
+        stateMachine.handleImpact(new TestImpact("alice", "update-1", false));
+        stateMachine.handleImpact(new TestImpact("bob", "update-1", false));
+
+        assertThat(handledCount).hasValue(4);
+        assertThat(stateMachine.getDuplicatesCount()).isZero();
+    }
+
+    @Test
+    void handleImpact_originalFailed_redeliveredImpactHandledAgain() throws TransitionElectionException, TransitionExecutionException {
+        DeduplicatingStateMachine<TestImpact, Integer> stateMachine = new DeduplicatingStateMachine<>(delegate, LONG_WINDOW, 100);
+
+        assertThatExceptionOfType(TransitionExecutionException.class)
+            .isThrownBy(() -> stateMachine.handleImpact(new TestImpact("alice", "update-1", true)));
+
+        assertThat(stateMachine.handleImpact(new TestImpact("alice", "update-1", false))).isEqualTo(1);
+    }
+
+    @Test
+    void handleImpact_generationsRotatedTwiceBySize_forgottenImpactHandledAgain()
+        throws TransitionElectionException, TransitionExecutionException {
+        DeduplicatingStateMachine<TestImpact, Integer> stateMachine = new DeduplicatingStateMachine<>(delegate, LONG_WINDOW, 2);
+
+        stateMachine.handleImpact(new TestImpact("alice", "update-1", false));
+        stateMachine.handleImpact(new TestImpact("alice", "update-2", false));
+        // still remembered by the previous generation
+        assertThat(stateMachine.handleImpact(new TestImpact("alice", "update-1", false))).isEqualTo(1);
+        stateMachine.handleImpact(new TestImpact("alice", "update-3", false));
+        stateMachine.handleImpact(new TestImpact("alice", "update-4", false));
+
+        assertThat(stateMachine.handleImpact(new TestImpact("alice", "update-1", false))).isEqualTo(5);
+    }
+
+    @Test
+    void handleImpact_twoWindowsElapsed_forgottenImpactHandledAgain()
+        throws TransitionElectionException, TransitionExecutionException, InterruptedException {
+        Duration window = Duration.ofMillis(20);
+        DeduplicatingStateMachine<TestImpact, Integer> stateMachine = new DeduplicatingStateMachine<>(delegate, window, 100);
+
+        stateMachine.handleImpact(new TestImpact("alice", "update-1", false));
+        Thread.sleep(window.multipliedBy(3).toMillis());
+
+        assertThat(stateMachine.handleImpact(new TestImpact("alice", "update-1", false))).isEqualTo(2);
+    }
+
+    @Test
+    void handleImpact_duplicateOfOriginalFailedWithError_sameErrorThrown() throws InterruptedException, ExecutionException {
+        CountDownLatch originalStarted = new CountDownLatch(1);
+        CountDownLatch duplicateArrived = new CountDownLatch(1);
+        AssertionError error = new AssertionError("Oops");
+        DeduplicatingStateMachine<TestImpact, Integer> stateMachine = new DeduplicatingStateMachine<>(impact -> {
+            originalStarted.countDown();
+            try {
+                duplicateArrived.await();
+                // let the duplicate start waiting for the original
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                throw new TransitionExecutionException("Interrupted", e);
+            }
+            throw error;
+        }, LONG_WINDOW, 100);
+        CompletableFuture<Throwable> originalFailure = CompletableFuture.supplyAsync(
+            () -> catchThrowable(() -> stateMachine.handleImpact(new TestImpact("alice", "update-1", false))));
+        originalStarted.await();
+
+        duplicateArrived.countDown();
+        Throwable duplicateFailure = catchThrowable(() -> stateMachine.handleImpact(new TestImpact("alice", "update-1", false)));
+
+        assertThat(originalFailure.get()).isSameAs(error);
+        assertThat(duplicateFailure).isSameAs(error);
+        assertThat(stateMachine.getDuplicatesCount()).isOne();
+    }
+
+    @RequiredArgsConstructor
+    private static final class TestImpact implements Impact {
+
+        private final String initiator;
+        private final String idempotencyKey;
+        private final boolean isFailing;
+
+        @Override
+        public AuthenticationData getInitiatorAuthData() {
+            return authData(initiator);
+        }
+
+        @Override
+        public String getIdempotencyKey() {
+            return idempotencyKey;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package ua.ddovgal.mangamonitoring.state.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import lombok.RequiredArgsConstructor;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.StateMachine;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+
+class InitiatorSerializingStateMachineTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdownExecutor() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void submit_sameInitiator_handledInOrderOneAtATime() {
+        Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+        Map<String, List<Integer>> handledSequences = new ConcurrentHashMap<>();
+        StateMachine<TestImpact, Integer> delegate = impact -> {
+            AtomicInteger initiatorInFlight = inFlight.computeIfAbsent(impact.initiator, key -> new AtomicInteger());
+            assertThat(initiatorInFlight.incrementAndGet()).isEqualTo(1);
+            // no synchronization needed, since the same initiator impacts are never handled concurrently
+            handledSequences.computeIfAbsent(impact.initiator, key -> new ArrayList<>()).add(impact.sequence);
+            Thread.yield();
+            initiatorInFlight.decrementAndGet();
+            return impact.sequence;
+        };
+        InitiatorSerializingStateMachine<TestImpact, Integer> stateMachine = new InitiatorSerializingStateMachine<>(delegate, executor);
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int sequence = 0; sequence < 200; sequence++) {
+            for (String initiator : List.of("alice", "bob", "carol")) {
+                results.add(stateMachine.submit(new TestImpact(initiator, sequence)));
+            }
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+
+        assertThat(handledSequences).hasSize(3);
+        handledSequences.values().forEach(sequence -> assertThat(sequence).hasSize(200).isSorted());
+    }
+
+    @Test
+    void submit_differentInitiators_handledInParallel() throws Exception {
+        CountDownLatch bobStarted = new CountDownLatch(1);
+        StateMachine<TestImpact, Integer> delegate = impact -> {
+            if (impact.initiator.equals("alice")) {
+                // alice's impact can complete only if bob's impact is being handled at the same time
+                try {
+                    if (!bobStarted.await(5, TimeUnit.SECONDS)) {
+                        throw new TransitionExecutionException("Bob wasn't handled in parallel");
+                    }
+                } catch (InterruptedException e) {
+                    throw new TransitionExecutionException("Interrupted", e);
+                }
+            } else {
+                bobStarted.countDown();
+            }
+            return impact.sequence;
+        };
+        InitiatorSerializingStateMachine<TestImpact, Integer> stateMachine = new InitiatorSerializingStateMachine<>(delegate, executor);
+
+        CompletableFuture<Integer> aliceResult = stateMachine.submit(new TestImpact("alice", 1));
+        CompletableFuture<Integer> bobResult = stateMachine.submit(new TestImpact("bob", 2));
+
+        assertThat(aliceResult.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(bobResult.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+    }
+
+    @Test
+    void handleImpact_delegateThrows_sameExceptionIsThrown() {
+        StateMachine<TestImpact, Integer> delegate = impact -> {
+            throw new TransitionExecutionException("Oops");
+        };
+        InitiatorSerializingStateMachine<TestImpact, Integer> stateMachine = new InitiatorSerializingStateMachine<>(delegate, executor);
+
+        assertThatExceptionOfType(TransitionExecutionException.class)
+            .isThrownBy(() -> stateMachine.handleImpact(new TestImpact("alice", 1)))
+            .withMessage("Oops");
+    }
+
+    @Test
+    void handleImpact_failedImpact_doesNotBlockFollowingOnes() throws TransitionElectionException, TransitionExecutionException {
+        StateMachine<TestImpact, Integer> delegate = impact -> {
+            if (impact.sequence == 1) {
+                throw new IllegalStateException("Unexpected");
+            }
+            return impact.sequence;
+        };
+        InitiatorSerializingStateMachine<TestImpact, Integer> stateMachine = new InitiatorSerializingStateMachine<>(delegate, executor);
+
+        CompletableFuture<Integer> failed = stateMachine.submit(new TestImpact("alice", 1));
+
+        assertThat(stateMachine.handleImpact(new TestImpact("alice", 2))).isEqualTo(2);
+        assertThat(failed).isCompletedExceptionally();
+    }
+
+    @RequiredArgsConstructor
+    private static final class TestImpact implements Impact {
+
+        private final String initiator;
+        private final int sequence;
+
+        @Override
+        public AuthenticationData getInitiatorAuthData() {
+            return authData(initiator);
+        }
+    }
+}
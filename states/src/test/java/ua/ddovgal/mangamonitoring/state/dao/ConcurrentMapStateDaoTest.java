@@ -0,0 +1,70 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import org.junit.jupiter.api.Test;
+
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.VersionedState;
+import ua.ddovgal.mangamonitoring.state.utils.States.BarState;
+import ua.ddovgal.mangamonitoring.state.utils.States.FooState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+
+class ConcurrentMapStateDaoTest {
+
+    private final ConcurrentMapStateDao stateDao = new ConcurrentMapStateDao();
+
+    @Test
+    void getStateVersioned_neverSet_returnsAbsent() {
+        assertThat(stateDao.getStateVersioned(authData("alice"))).isSameAs(VersionedState.absent());
+        assertThat(stateDao.getState(authData("alice"))).isEmpty();
+    }
+
+    @Test
+    void compareAndSetState_expectedVersionIsActual_setsAndIncrementsVersion() {
+        State state = new FooState();
+
+        boolean isSet = stateDao.compareAndSetState(authData("alice"), VersionedState.ABSENT_VERSION, state);
+
+        assertThat(isSet).isTrue();
+        assertThat(stateDao.getStateVersioned(authData("alice"))).isEqualTo(VersionedState.of(state, 1));
+    }
+
+    @Test
+    void compareAndSetState_versionChangedSinceRead_doesNotSet() {
+        State state = new FooState();
+        stateDao.setState(authData("alice"), state);
+        long readVersion = stateDao.getStateVersioned(authData("alice")).getVersion();
+        stateDao.setState(authData("alice"), state);
+
+        boolean isSet = stateDao.compareAndSetState(authData("alice"), readVersion, new BarState());
+
+        assertThat(isSet).isFalse();
+        assertThat(stateDao.getStateVersioned(authData("alice"))).isEqualTo(VersionedState.of(state, 2));
+    }
+
+    @Test
+    void removeState_storedState_deleted() {
+        stateDao.setState(authData("alice"), new FooState());
+
+        stateDao.removeState(authData("alice"));
+
+        assertThat(stateDao.getStateVersioned(authData("alice"))).isSameAs(VersionedState.absent());
+        assertThat(stateDao.getStatesCount()).isZero();
+    }
+
+    @Test
+    void compareAndSetState_stateRemovedAndSetAgainSinceRead_doesNotSet() {
+        State state = new FooState();
+        stateDao.setState(authData("alice"), state);
+        long readVersion = stateDao.getStateVersioned(authData("alice")).getVersion();
+        stateDao.removeState(authData("alice"));
+        stateDao.setState(authData("alice"), state);
+
+        boolean isSet = stateDao.compareAndSetState(authData("alice"), readVersion, new BarState());
+
+        assertThat(isSet).isFalse();
+        assertThat(stateDao.getStateVersioned(authData("alice")).getVersion()).isGreaterThan(readVersion);
+    }
+}
@@ -0,0 +1,151 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import lombok.Value;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.core.exception.ApplicationStartupException;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.dao.EventSourcedStateDao.Event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+
+class EventSourcedStateDaoTest {
+
+    @TempDir
+    Path directory;
+
+    private EventSourcedStateDao stateDao;
+
+    @AfterEach
+    void stopStateDao() {
+        stateDao.stop();
+    }
+
+    @Test
+    void getState_afterRestart_latestStatesAreRecovered() throws ApplicationStartupException {
+        stateDao = startedStateDao();
+        stateDao.setState(authData("alice"), new NamedState("first"));
+        stateDao.setState(authData("alice"), new NamedState("second"));
+        stateDao.setState(authData("bob"), new NamedState("bob's"));
+        stateDao.removeState(authData("bob"));
+        stateDao.stop();
+
+        stateDao = startedStateDao();
+
+        assertThat(stateDao.getState(authData("alice"))).contains(new NamedState("second"));
+        assertThat(stateDao.getState(authData("bob"))).isEmpty();
+    }
+
+    @Test
+    void start_snapshotIsBroken_wholeLogIsReplayed() throws ApplicationStartupException, IOException {
+        stateDao = startedStateDao();
+        stateDao.setState(authData("alice"), new NamedState("alice's"));
+        assertThat(stateDao.snapshotIfNeeded()).isTrue();
+        assertThat(stateDao.snapshotIfNeeded()).isFalse();
+        stateDao.setState(authData("bob"), new NamedState("bob's"));
+        stateDao.stop();
+        byte[] garbage = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16 };
+        Files.write(directory.resolve(EventSourcedStateDao.SNAPSHOT_FILE_NAME), garbage);
+
+        stateDao = startedStateDao();
+
+        assertThat(stateDao.getState(authData("alice"))).contains(new NamedState("alice's"));
+        assertThat(stateDao.getState(authData("bob"))).contains(new NamedState("bob's"));
+    }
+
+    @Test
+    void snapshotIfNeeded_temporaryFileLeftOver_snapshotWritten() throws ApplicationStartupException, IOException {
+        stateDao = startedStateDao();
+        stateDao.setState(authData("alice"), new NamedState("alice's"));
+        Path temporaryPath = directory.resolve(EventSourcedStateDao.TEMPORARY_SNAPSHOT_FILE_NAME);
+        Files.write(temporaryPath, new byte[] { 1, 2, 3 });
+
+        assertThat(stateDao.snapshotIfNeeded()).isTrue();
+
+        assertThat(temporaryPath).doesNotExist();
+        assertThat(directory.resolve(EventSourcedStateDao.SNAPSHOT_FILE_NAME)).exists();
+    }
+
+    @Test
+    void setState_identifierLongerThanShortMaxBytes_rejected() throws ApplicationStartupException {
+        stateDao = startedStateDao();
+        AuthenticationData authData = authData("a".repeat(Short.MAX_VALUE + 1));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> stateDao.setState(authData, new NamedState("too long")));
+        assertThat(stateDao.getState(authData)).isEmpty();
+    }
+
+    @Test
+    void start_lastEventIsTorn_tailIsDiscarded() throws ApplicationStartupException, IOException {
+        stateDao = startedStateDao();
+        stateDao.setState(authData("alice"), new NamedState("intact"));
+        stateDao.stop();
+        // as if process crashed while appending the event after the snapshot
+        byte[] tornEvent = { 0, 0, 1, 0, 0, 0, 0, 0, 1 };
+        Files.write(directory.resolve(EventSourcedStateDao.LOG_FILE_NAME), tornEvent, StandardOpenOption.APPEND);
+
+        stateDao = startedStateDao();
+
+        assertThat(stateDao.getState(authData("alice"))).contains(new NamedState("intact"));
+        // appending after the discarded tail works as usual
+        stateDao.setState(authData("bob"), new NamedState("appended"));
+        stateDao.stop();
+        stateDao = startedStateDao();
+        assertThat(stateDao.getState(authData("bob"))).contains(new NamedState("appended"));
+    }
+
+    @Test
+    void replay_transitionsAndRemoval_allEventsWithDirectionsReplayed() throws ApplicationStartupException {
+        stateDao = startedStateDao();
+        stateDao.setState(authData("alice"), new NamedState("named"));
+        stateDao.stop();
+        // departure of the direction survives restart
+        stateDao = startedStateDao();
+        stateDao.setState(authData("alice"), new OtherState("other"));
+        stateDao.removeState(authData("alice"));
+
+        List<Event> events = new ArrayList<>();
+        stateDao.replay(events::add);
+
+        assertThat(events).extracting(Event::getIdentifier).containsOnly("alice");
+        assertThat(events).extracting(Event::getDirection).containsExactly("NoInteractionsBeforeState-NamedState",
+                                                                          "NamedState-OtherState",
+                                                                          "OtherState-NoInteractionsBeforeState");
+        assertThat(events).extracting(Event::getState).containsExactly(new NamedState("named"), new OtherState("other"), null);
+        assertThat(stateDao.getState(authData("alice"))).isEmpty();
+    }
+
+    private EventSourcedStateDao startedStateDao() throws ApplicationStartupException {
+        EventSourcedStateDao started = new EventSourcedStateDao(directory, new JavaSerializationStateCodec(), Duration.ofHours(1));
+        started.start();
+        return started;
+    }
+
+    @Value
+    private static class NamedState implements State, Serializable {
+
+        String name;
+    }
+
+    @Value
+    private static class OtherState implements State, Serializable {
+
+        String name;
+    }
+}
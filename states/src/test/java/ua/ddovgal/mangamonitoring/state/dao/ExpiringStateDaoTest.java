@@ -0,0 +1,138 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.state.StateDao;
+import ua.ddovgal.mangamonitoring.state.utils.States.FooState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiringStateDaoTest {
+
+    private static final Duration LONG_TIME = Duration.ofHours(1);
+
+    @Mock
+    private StateDao delegate;
+
+    @Test
+    void getState_idleStateNotSweptYet_removedAndNothingReturned() {
+        AuthenticationData auth = authData("alice");
+        ExpiringStateDao stateDao = new ExpiringStateDao(delegate, Duration.ZERO, LONG_TIME, 10);
+
+        stateDao.setState(auth, new FooState());
+
+        assertThat(stateDao.getState(auth)).isEmpty();
+        verify(delegate).removeState(same(auth));
+        verify(delegate, never()).getState(any());
+    }
+
+    @Test
+    void sweep_idleStates_removedInBatches() {
+        AuthenticationData alice = authData("alice");
+        AuthenticationData bob = authData("bob");
+        ExpiringStateDao stateDao = new ExpiringStateDao(delegate, Duration.ZERO, LONG_TIME, 1);
+        stateDao.setState(alice, new FooState());
+        stateDao.setState(bob, new FooState());
+
+        assertThat(stateDao.sweep()).isOne();
+        assertThat(stateDao.sweep()).isOne();
+        assertThat(stateDao.sweep()).isZero();
+
+        assertThat(stateDao.getTrackedStatesCount()).isZero();
+        verify(delegate).removeState(same(alice));
+        verify(delegate).removeState(same(bob));
+    }
+
+    @Test
+    void sweep_idleStatesOfConcurrentMapStore_storeShrinks() {
+        ConcurrentMapStateDao store = new ConcurrentMapStateDao();
+        ExpiringStateDao stateDao = new ExpiringStateDao(store, Duration.ZERO, LONG_TIME, 10);
+        stateDao.setState(authData("alice"), new FooState());
+        stateDao.setState(authData("bob"), new FooState());
+        assertThat(store.getStatesCount()).isEqualTo(2);
+
+        assertThat(stateDao.sweep()).isEqualTo(2);
+
+        assertThat(store.getStatesCount()).isZero();
+        assertThat(stateDao.getTrackedStatesCount()).isZero();
+    }
+
+    @Test
+    void sweep_activeState_keptTracked() {
+        AuthenticationData auth = authData("alice");
+        when(delegate.getState(same(auth))).thenReturn(Optional.of(new FooState()));
+        ExpiringStateDao stateDao = new ExpiringStateDao(delegate, LONG_TIME, LONG_TIME, 10);
+
+        stateDao.getState(auth);
+
+        assertThat(stateDao.sweep()).isZero();
+        assertThat(stateDao.getTrackedStatesCount()).isOne();
+        verify(delegate, never()).removeState(any());
+    }
+
+    @Test
+    void sweep_removalFailed_retriedLater() {
+        AuthenticationData auth = authData("alice");
+        doThrow(new IllegalStateException("Store is unavailable")).doNothing().when(delegate).removeState(same(auth));
+        ExpiringStateDao stateDao = new ExpiringStateDao(delegate, Duration.ZERO, LONG_TIME, 10);
+        stateDao.setState(auth, new FooState());
+
+        assertThat(stateDao.sweep()).isOne();
+
+        assertThat(stateDao.getTrackedStatesCount()).isZero();
+        verify(delegate, times(2)).removeState(same(auth));
+    }
+
+    @Test
+    void getState_noStateStored_notTracked() {
+        AuthenticationData auth = authData("alice");
+        when(delegate.getState(same(auth))).thenReturn(Optional.empty());
+        ExpiringStateDao stateDao = new ExpiringStateDao(delegate, LONG_TIME, LONG_TIME, 10);
+
+        assertThat(stateDao.getState(auth)).isEmpty();
+
+        assertThat(stateDao.getTrackedStatesCount()).isZero();
+    }
+
+    @Test
+    void getState_stateOfNewUsersRepeatedlyAbsent_sweepQueueStaysEmpty() {
+        when(delegate.getState(any())).thenReturn(Optional.empty());
+        ExpiringStateDao stateDao = new ExpiringStateDao(delegate, LONG_TIME, LONG_TIME, 10);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(stateDao.getState(authData("user-" + i))).isEmpty();
+        }
+
+        assertThat(stateDao.getSweepQueueSize()).isZero();
+        assertThat(stateDao.getTrackedStatesCount()).isZero();
+    }
+
+    @Test
+    void getState_storedStateOfUntrackedUser_trackedForExpiry() {
+        AuthenticationData auth = authData("alice");
+        when(delegate.getState(same(auth))).thenReturn(Optional.of(new FooState()));
+        ExpiringStateDao stateDao = new ExpiringStateDao(delegate, LONG_TIME, LONG_TIME, 10);
+
+        assertThat(stateDao.getState(auth)).containsInstanceOf(FooState.class);
+
+        assertThat(stateDao.getTrackedStatesCount()).isOne();
+        assertThat(stateDao.getSweepQueueSize()).isOne();
+    }
+}
@@ -0,0 +1,131 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import lombok.Value;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.core.exception.ApplicationStartupException;
+import ua.ddovgal.mangamonitoring.state.State;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+
+class MappedLogStateDaoTest {
+
+    @TempDir
+    Path directory;
+
+    private MappedLogStateDao stateDao;
+
+    @AfterEach
+    void stopStateDao() {
+        stateDao.stop();
+    }
+
+    @Test
+    void getState_afterRestart_latestStatesAreRecovered() throws ApplicationStartupException {
+        stateDao = startedStateDao();
+        stateDao.setState(authData("alice"), new NamedState("first"));
+        stateDao.setState(authData("alice"), new NamedState("second"));
+        stateDao.setState(authData("bob"), new NamedState("bob's"));
+        stateDao.removeState(authData("bob"));
+        stateDao.stop();
+
+        stateDao = startedStateDao();
+
+        assertThat(stateDao.getState(authData("alice"))).contains(new NamedState("second"));
+        assertThat(stateDao.getState(authData("bob"))).isEmpty();
+    }
+
+    @Test
+    void start_lastRecordIsTorn_tailIsDiscarded() throws ApplicationStartupException, IOException {
+        stateDao = startedStateDao();
+        stateDao.setState(authData("alice"), new NamedState("intact"));
+        stateDao.setState(authData("bob"), new NamedState("torn"));
+        stateDao.stop();
+        corruptLastByteOfRecords();
+
+        stateDao = startedStateDao();
+
+        assertThat(stateDao.getState(authData("alice"))).contains(new NamedState("intact"));
+        assertThat(stateDao.getState(authData("bob"))).isEmpty();
+        // appending after the discarded tail works as usual
+        stateDao.setState(authData("bob"), new NamedState("rewritten"));
+        stateDao.stop();
+        stateDao = startedStateDao();
+        assertThat(stateDao.getState(authData("bob"))).contains(new NamedState("rewritten"));
+    }
+
+    @Test
+    void compactIfNeeded_mostlyGarbage_compactsKeepingLatestStates() throws ApplicationStartupException {
+        stateDao = startedStateDao();
+        for (int i = 0; i < 100; i++) {
+            stateDao.setState(authData("alice"), new NamedState("alice-" + i));
+            stateDao.setState(authData("bob"), new NamedState("bob-" + i));
+        }
+
+        assertThat(stateDao.compactIfNeeded()).isTrue();
+        assertThat(stateDao.compactIfNeeded()).isFalse();
+
+        stateDao.setState(authData("carol"), new NamedState("carol"));
+        stateDao.stop();
+        stateDao = startedStateDao();
+        assertThat(stateDao.getState(authData("alice"))).contains(new NamedState("alice-99"));
+        assertThat(stateDao.getState(authData("bob"))).contains(new NamedState("bob-99"));
+        assertThat(stateDao.getState(authData("carol"))).contains(new NamedState("carol"));
+    }
+
+    private MappedLogStateDao startedStateDao() throws ApplicationStartupException {
+        // small capacity to make the log grow during the tests
+        MappedLogStateDao started = new MappedLogStateDao(directory, new JavaSerializationStateCodec(), 256, Duration.ofHours(1));
+        started.start();
+        return started;
+    }
+
+    @Test
+    void setState_identifierLongerThanShortMaxBytes_rejected() throws ApplicationStartupException {
+        stateDao = startedStateDao();
+        AuthenticationData authData = authData("a".repeat(Short.MAX_VALUE + 1));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> stateDao.setState(authData, new NamedState("too long")));
+        assertThat(stateDao.getState(authData)).isEmpty();
+    }
+
+    /**
+     * Corrupts the last record, as if process crashed while writing it.
+     */
+    private void corruptLastByteOfRecords() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(MappedLogStateDao.LOG_FILE_NAME),
+                                                    StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            ByteBuffer log = ByteBuffer.allocate((int) channel.size());
+            channel.read(log, 0);
+            int position = 0;
+            int lastRecordEnd = 0;
+            while (position + Integer.BYTES <= log.capacity() && log.getInt(position) != 0) {
+                position += Integer.BYTES * 2 + log.getInt(position);
+                lastRecordEnd = position;
+            }
+            channel.write(ByteBuffer.wrap(new byte[] { (byte) ~log.get(lastRecordEnd - 1) }), lastRecordEnd - 1);
+        }
+    }
+
+    @Value
+    private static class NamedState implements State, Serializable {
+
+        String name;
+    }
+}
@@ -0,0 +1,155 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import lombok.Value;
+
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.NoInteractionsBeforeState;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+import ua.ddovgal.mangamonitoring.state.utils.States;
+import ua.ddovgal.mangamonitoring.state.utils.States.BarState;
+import ua.ddovgal.mangamonitoring.state.utils.States.BazState;
+import ua.ddovgal.mangamonitoring.state.utils.States.BeginState;
+import ua.ddovgal.mangamonitoring.state.utils.States.FooState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import static ua.ddovgal.mangamonitoring.state.utils.DescriptorUtils.descriptor;
+
+class StateCodecRegistryTest {
+
+    private static final List<TransitionDescriptor<?, ?, Impact, Object>> DESCRIPTORS = List.of(
+        descriptor(NoInteractionsBeforeState.class, FooState.class),
+        descriptor(FooState.class, CounterState.class),
+        descriptor(CounterState.class, FooState.class)
+    );
+
+    @Test
+    void build_registeredStateClasses_registeredIdsAreUsed() {
+        StateCodecRegistry registry = StateCodecRegistry.forDescriptors(States.TEST_GRAPH_DESCRIPTORS)
+                                                        .register(FooState.class, 1)
+                                                        .register(BarState.class, 7)
+                                                        .register(BazState.class, 3)
+                                                        .register(BeginState.class, 2)
+                                                        .build();
+
+        assertThat(registry.getStateClassId(NoInteractionsBeforeState.class)).isZero();
+        assertThat(registry.getStateClassId(FooState.class)).isEqualTo(1);
+        assertThat(registry.getStateClassId(BeginState.class)).isEqualTo(2);
+        assertThat(registry.getStateClassId(BazState.class)).isEqualTo(3);
+        assertThat(registry.getStateClassId(BarState.class)).isEqualTo(7);
+    }
+
+    @Test
+    void decode_registryWithExtraStateClass_decodesStatesEncodedByPreviousRegistry() {
+        StateCodecRegistry previous = registry();
+        byte[] encodedFoo = previous.encode(new FooState());
+        byte[] encodedCounter = previous.encode(new CounterState(42));
+
+        // AaaState goes first by name, but the already assigned ids stay the same
+        StateCodecRegistry extended = StateCodecRegistry.forDescriptors(List.of(descriptor(FooState.class, AaaState.class)))
+                                                        .register(FooState.class, 1)
+                                                        .register(CounterState.class, 2)
+                                                        .register(AaaState.class, 3)
+                                                        .encoder(CounterState.class, new CounterStateEncoder())
+                                                        .build();
+
+        assertThat(extended.decode(encodedFoo)).isInstanceOf(FooState.class);
+        assertThat(extended.decode(encodedCounter)).isEqualTo(new CounterState(42));
+    }
+
+    @Test
+    void register_idOfAnotherClass_throws() {
+        StateCodecRegistry.Builder builder = StateCodecRegistry.forDescriptors(DESCRIPTORS).register(FooState.class, 1);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> builder.register(CounterState.class, 1))
+                                            .withMessageContaining(FooState.class.getName());
+    }
+
+    @Test
+    void build_graphStateClassWithoutId_throws() {
+        StateCodecRegistry.Builder builder = StateCodecRegistry.forDescriptors(DESCRIPTORS)
+                                                               .register(FooState.class, 1)
+                                                               .encoder(CounterState.class, new CounterStateEncoder());
+
+        assertThatIllegalArgumentException().isThrownBy(builder::build)
+                                            .withMessageContaining(CounterState.class.getName());
+    }
+
+    @Test
+    void encode_fieldLessState_encodedAsIdOnly() {
+        StateCodecRegistry registry = registry();
+
+        byte[] encodedNoInteractionsBefore = registry.encode(new NoInteractionsBeforeState());
+        byte[] encodedFoo = registry.encode(new FooState());
+
+        assertThat(encodedNoInteractionsBefore).containsExactly(0);
+        assertThat(encodedFoo).containsExactly(registry.getStateClassId(FooState.class));
+        assertThat(registry.decode(encodedFoo)).isInstanceOf(FooState.class);
+    }
+
+    @Test
+    void encode_stateWithEncoder_encodedAsIdAndEncoderOutput() {
+        StateCodecRegistry registry = registry();
+        CounterState state = new CounterState(1000);
+
+        byte[] encoded = registry.encode(state);
+
+        assertThat(encoded).hasSize(1 + Integer.BYTES);
+        assertThat(registry.decode(encoded)).isEqualTo(state);
+    }
+
+    @Test
+    void build_stateWithFieldsWithoutEncoder_throws() {
+        StateCodecRegistry.Builder builder = StateCodecRegistry.forDescriptors(DESCRIPTORS)
+                                                               .register(FooState.class, 1)
+                                                               .register(CounterState.class, 2);
+
+        assertThatIllegalArgumentException().isThrownBy(builder::build)
+                                            .withMessageContaining(CounterState.class.getName());
+    }
+
+    @Test
+    void encode_stateOfUnknownClass_throws() {
+        StateCodecRegistry registry = registry();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> registry.encode(new BarState()));
+    }
+
+    private static StateCodecRegistry registry() {
+        return StateCodecRegistry.forDescriptors(DESCRIPTORS)
+                                 .register(FooState.class, 1)
+                                 .register(CounterState.class, 2)
+                                 .encoder(CounterState.class, new CounterStateEncoder())
+                                 .build();
+    }
+
+    private static class AaaState implements State {}
+
+    @Value
+    private static class CounterState implements State {
+
+        int counter;
+    }
+
+    private static class CounterStateEncoder implements StateEncoder<CounterState> {
+
+        @Override
+        public void encode(CounterState state, DataOutput output) throws IOException {
+            output.writeInt(state.getCounter());
+        }
+
+        @Override
+        public CounterState decode(DataInput input) throws IOException {
+            return new CounterState(input.readInt());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ua.ddovgal.mangamonitoring.state.dao;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.core.exception.ApplicationStartupException;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.StateDao;
+import ua.ddovgal.mangamonitoring.state.util.Pair;
+import ua.ddovgal.mangamonitoring.state.utils.States.BarState;
+import ua.ddovgal.mangamonitoring.state.utils.States.FooState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindCachingStateDaoTest {
+
+    private static final Duration LONG_TIME = Duration.ofHours(1);
+
+    @Mock
+    private StateDao delegate;
+
+    @Test
+    void getState_readTwice_delegateReadOnce() {
+        AuthenticationData auth = authData("alice");
+        State state = new FooState();
+        when(delegate.getState(same(auth))).thenReturn(Optional.of(state));
+        WriteBehindCachingStateDao stateDao = new WriteBehindCachingStateDao(delegate, 10, LONG_TIME, LONG_TIME, 10);
+
+        assertThat(stateDao.getState(auth)).containsSame(state);
+        assertThat(stateDao.getState(auth)).containsSame(state);
+
+        verify(delegate).getState(same(auth));
+    }
+
+    @Test
+    void getState_cachedStateExpired_delegateReadAgain() {
+        AuthenticationData auth = authData("alice");
+        when(delegate.getState(same(auth))).thenReturn(Optional.empty());
+        WriteBehindCachingStateDao stateDao = new WriteBehindCachingStateDao(delegate, 10, Duration.ZERO, LONG_TIME, 10);
+
+        assertThat(stateDao.getState(auth)).isEmpty();
+        assertThat(stateDao.getState(auth)).isEmpty();
+
+        verify(delegate, times(2)).getState(same(auth));
+    }
+
+    @Test
+    void getState_leastRecentlyUsedEvicted_delegateReadAgain() {
+        AuthenticationData alice = authData("alice");
+        AuthenticationData bob = authData("bob");
+        when(delegate.getState(any())).thenReturn(Optional.empty());
+        WriteBehindCachingStateDao stateDao = new WriteBehindCachingStateDao(delegate, 1, LONG_TIME, LONG_TIME, 10);
+
+        stateDao.getState(alice);
+        stateDao.getState(bob);
+        stateDao.getState(alice);
+
+        verify(delegate, times(2)).getState(same(alice));
+        verify(delegate).getState(same(bob));
+    }
+
+    @Test
+    void setState_severalTimes_onlyLastStateIsWrittenOnStop() throws ApplicationStartupException {
+        AuthenticationData auth = authData("alice");
+        State lastState = new BarState();
+        WriteBehindCachingStateDao stateDao = new WriteBehindCachingStateDao(delegate, 1, LONG_TIME, LONG_TIME, 10);
+        stateDao.start();
+
+        stateDao.setState(auth, new FooState());
+        stateDao.setState(auth, lastState);
+        // pending write must survive eviction from cache
+        stateDao.getState(authData("bob"));
+
+        assertThat(stateDao.getState(auth)).containsSame(lastState);
+        verify(delegate, never()).setStates(any());
+
+        stateDao.stop();
+
+        verify(delegate).setStates(List.of(Pair.of(auth, lastState)));
+        assertThat(stateDao.getPendingWritesCount()).isZero();
+    }
+
+    @Test
+    void flush_delegateFailed_writeIsRetriedNextTime() {
+        AuthenticationData auth = authData("alice");
+        State state = new FooState();
+        doThrow(new IllegalStateException("Store is unavailable")).doNothing().when(delegate).setStates(List.of(Pair.of(auth, state)));
+        WriteBehindCachingStateDao stateDao = new WriteBehindCachingStateDao(delegate, 10, LONG_TIME, LONG_TIME, 10);
+
+        stateDao.setState(auth, state);
+        stateDao.flush();
+        assertThat(stateDao.getPendingWritesCount()).isOne();
+        stateDao.flush();
+
+        assertThat(stateDao.getPendingWritesCount()).isZero();
+        verify(delegate, times(2)).setStates(List.of(Pair.of(auth, state)));
+        verifyNoMoreInteractions(delegate);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void flush_severalUsersWritten_statesSetByOneCall() {
+        AuthenticationData alice = authData("alice");
+        AuthenticationData bob = authData("bob");
+        State aliceState = new FooState();
+        State bobState = new BarState();
+        WriteBehindCachingStateDao stateDao = new WriteBehindCachingStateDao(delegate, 10, LONG_TIME, LONG_TIME, 10);
+
+        stateDao.setState(alice, aliceState);
+        stateDao.setState(bob, bobState);
+        stateDao.flush();
+
+        ArgumentCaptor<List<Pair<AuthenticationData, State>>> captor = ArgumentCaptor.forClass(List.class);
+        verify(delegate).setStates(captor.capture());
+        assertThat(captor.getValue()).containsExactlyInAnyOrder(Pair.of(alice, aliceState), Pair.of(bob, bobState));
+        verifyNoMoreInteractions(delegate);
+    }
+
+    @Test
+    void removeState_pendingWrite_absenceReturnedAndRemovalFlushed() {
+        AuthenticationData auth = authData("alice");
+        WriteBehindCachingStateDao stateDao = new WriteBehindCachingStateDao(delegate, 10, LONG_TIME, LONG_TIME, 10);
+        stateDao.setState(auth, new FooState());
+
+        stateDao.removeState(auth);
+
+        assertThat(stateDao.getState(auth)).isEmpty();
+        stateDao.flush();
+        assertThat(stateDao.getPendingWritesCount()).isZero();
+        verify(delegate).removeState(same(auth));
+        verifyNoMoreInteractions(delegate);
+    }
+}
@@ -0,0 +1,130 @@
+package ua.ddovgal.mangamonitoring.state.election;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import ua.ddovgal.mangamonitoring.api.AccountService;
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.domain.Account;
+import ua.ddovgal.mangamonitoring.domain.Privilege;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.graph.ClassMappingStateGraph;
+import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+import ua.ddovgal.mangamonitoring.state.utils.States.BarState;
+import ua.ddovgal.mangamonitoring.state.utils.States.BazState;
+import ua.ddovgal.mangamonitoring.state.utils.States.FooState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+import static ua.ddovgal.mangamonitoring.state.utils.DescriptorUtils.descriptorBuilder;
+
+@ExtendWith(MockitoExtension.class)
+class FusedTransitionElectorTest {
+
+    @Mock
+    private AccountService accountService;
+
+    @Test
+    void electTransition_permittedAndTopByPriority_electsSameAsSimpleElector(@Mock Impact impact) throws TransitionElectionException {
+        TransitionDescriptor<FooState, BazState, Impact, Object> expected = descriptorBuilder(FooState.class, BazState.class)
+            .priority(1)
+            .build();
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, FooState.class).build(),
+            // the highest priority, but not permitted
+            descriptorBuilder(FooState.class, BarState.class).priority(2).requiredPrivilege(Privilege.CREATOR).build(),
+            expected,
+            // the highest priority among permitted, but not suitable
+            descriptorBuilder(FooState.class, BarState.class).priority(1).suitabilityCondition((a, b) -> false).build()
+        );
+        withInitiatorPrivilege(impact, Privilege.PRIVILEGED_USER);
+
+        DepartureDefinedTransition<?, ?, Impact, Object> fusedElected = fusedElector(descriptors).electTransition(new FooState(), impact);
+        DepartureDefinedTransition<?, ?, Impact, Object> simpleElected = simpleElector(descriptors).electTransition(new FooState(), impact);
+
+        assertThat(fusedElected.getDescriptor()).isSameAs(expected).isSameAs(simpleElected.getDescriptor());
+    }
+
+    @Test
+    void electTransition_nothingSuitable_throwsWithoutAccountLookup(@Mock Impact impact) {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, BarState.class).suitabilityCondition((a, b) -> false).build()
+        );
+
+        TransitionElectionException exception = catchThrowableOfType(() -> fusedElector(descriptors).electTransition(new FooState(), impact),
+                                                                     TransitionElectionException.class);
+
+        assertThat(exception).isNotNull();
+        assertThat(exception.isZeroElected()).isTrue();
+        verifyNoInteractions(accountService);
+    }
+
+    @Test
+    void electTransition_severalOfTopPriorityRemained_throwsWithAllOfThem(@Mock Impact impact) {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, FooState.class).build(),
+            descriptorBuilder(FooState.class, BarState.class).priority(3).build(),
+            descriptorBuilder(FooState.class, BazState.class).priority(3).build(),
+            descriptorBuilder(FooState.class, BazState.class).priority(2).build()
+        );
+
+        TransitionElectionException exception = catchThrowableOfType(() -> fusedElector(descriptors).electTransition(new FooState(), impact),
+                                                                     TransitionElectionException.class);
+
+        assertThat(exception).isNotNull();
+        assertThat(exception.getElectedDescriptors())
+            .containsExactly(descriptors.get(1), descriptors.get(2))
+            .extracting(TransitionDescriptor::getPriority)
+            .containsOnly(3);
+        // all of them are permitted for everyone
+        verifyNoInteractions(accountService);
+    }
+
+    @Test
+    void electTransition_exclusiveAcceptance_resetsFollowingSieves(@Mock Impact impact) throws TransitionElectionException {
+        // top-by-priority twice in a row behaves exactly as once
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, FooState.class).priority(1).build(),
+            descriptorBuilder(FooState.class, BarState.class).priority(2).build()
+        );
+        FusedTransitionElector<Impact, Object> elector = new FusedTransitionElector<>(new ClassMappingStateGraph<>(descriptors),
+                                                                                      List.of(new OnlyTopByPriorityTransitionFilter<>(),
+                                                                                              new OnlyTopByPriorityTransitionFilter<>()));
+
+        DepartureDefinedTransition<?, ?, Impact, Object> elected = elector.electTransition(new FooState(), impact);
+
+        assertThat(elected.getDescriptor()).isSameAs(descriptors.get(1));
+    }
+
+    private FusedTransitionElector<Impact, Object> fusedElector(List<TransitionDescriptor<?, ?, Impact, Object>> descriptors) {
+        return new FusedTransitionElector<>(new ClassMappingStateGraph<>(descriptors),
+                                            List.of(new OnlyPermittedTransitionFilter<>(accountService),
+                                                    new OnlyTopByPriorityTransitionFilter<>()));
+    }
+
+    private SimpleTransitionElector<Impact, Object> simpleElector(List<TransitionDescriptor<?, ?, Impact, Object>> descriptors) {
+        return new SimpleTransitionElector<>(new ClassMappingStateGraph<>(descriptors),
+                                             List.of(new OnlyPermittedTransitionFilter<>(accountService),
+                                                     new OnlyTopByPriorityTransitionFilter<>()));
+    }
+
+    private void withInitiatorPrivilege(Impact impact, Privilege privilege) {
+        AuthenticationData authData = authData("alice");
+        when(impact.getInitiatorAuthData()).thenReturn(authData);
+        Account account = new Account();
+        account.setPrivilege(privilege);
+        when(accountService.getAssociatedAccount(same(authData))).thenReturn(Optional.of(account));
+    }
+}
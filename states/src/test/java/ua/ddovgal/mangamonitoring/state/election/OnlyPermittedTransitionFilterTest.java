@@ -83,11 +83,14 @@ class OnlyPermittedTransitionFilterTest {
     @ParameterizedTest(name = "For {index} privileges set")
     @MethodSource("source_filter_differentAccessLevelsHandling")
     void filter_differentAccessLevelsHandling(Privilege privilege, int filteredListSize, @Mock Impact impact, @Mock State state) {
-        AuthenticationData authData = mock(AuthenticationData.class);
-        when(impact.getInitiatorAuthData()).thenReturn(authData);
-        Account account = mock(Account.class);
-        when(account.getPrivilege()).thenReturn(Privilege.PRIVILEGED_USER);
-        when(accountService.getAssociatedAccount(same(authData))).thenReturn(Optional.of(account));
+        // transitions that require common privilege only are permitted for everyone, hence account isn't looked up for them
+        if (privilege != Privilege.COMMON_USER) {
+            AuthenticationData authData = mock(AuthenticationData.class);
+            when(impact.getInitiatorAuthData()).thenReturn(authData);
+            Account account = mock(Account.class);
+            when(account.getPrivilege()).thenReturn(Privilege.PRIVILEGED_USER);
+            when(accountService.getAssociatedAccount(same(authData))).thenReturn(Optional.of(account));
+        }
         List<DepartureDefinedTransition<?, ?, Impact, Object>> transitions = transitionsWithPrivileges(privilege);
 
         List<DepartureDefinedTransition<?, ?, Impact, Object>> filteredList = filter.filter(impact, state, transitions);
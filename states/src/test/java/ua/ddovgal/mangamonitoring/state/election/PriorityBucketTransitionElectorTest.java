@@ -0,0 +1,152 @@
+package ua.ddovgal.mangamonitoring.state.election;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiPredicate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import ua.ddovgal.mangamonitoring.api.AccountService;
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.domain.Account;
+import ua.ddovgal.mangamonitoring.domain.Privilege;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.graph.ClassMappingStateGraph;
+import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+import ua.ddovgal.mangamonitoring.state.utils.States.BarState;
+import ua.ddovgal.mangamonitoring.state.utils.States.BazState;
+import ua.ddovgal.mangamonitoring.state.utils.States.FooState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import static ua.ddovgal.mangamonitoring.state.utils.AuthenticationDataUtils.authData;
+import static ua.ddovgal.mangamonitoring.state.utils.DescriptorUtils.descriptorBuilder;
+
+@ExtendWith(MockitoExtension.class)
+class PriorityBucketTransitionElectorTest {
+
+    private static final BiPredicate<FooState, Impact> MUST_NOT_BE_EVALUATED = (departure, impact) -> {
+        throw new AssertionError("Suitability of the lower priority transition must not be evaluated");
+    };
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private Impact impact;
+
+    @Test
+    void electTransition_higherBucketHasPermitted_lowerBucketsAreNotEvaluated() throws TransitionElectionException {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, FooState.class).suitabilityCondition(MUST_NOT_BE_EVALUATED).build(),
+            descriptorBuilder(FooState.class, BarState.class).priority(2).build(),
+            descriptorBuilder(FooState.class, BazState.class).priority(1).suitabilityCondition(MUST_NOT_BE_EVALUATED).build()
+        );
+
+        DepartureDefinedTransition<?, ?, Impact, Object> elected = elector(descriptors).electTransition(new FooState(), impact);
+
+        assertThat(elected.getDescriptor()).isSameAs(descriptors.get(1));
+    }
+
+    @Test
+    void electTransition_higherBucketHasNothingPermitted_electsFromLowerBucket() throws TransitionElectionException {
+        withInitiatorPrivilege(Privilege.PRIVILEGED_USER);
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, FooState.class).build(),
+            descriptorBuilder(FooState.class, BarState.class).priority(2).requiredPrivilege(Privilege.CREATOR).build(),
+            descriptorBuilder(FooState.class, BarState.class).priority(2).suitabilityCondition((a, b) -> false).build(),
+            descriptorBuilder(FooState.class, BazState.class).priority(1).requiredPrivilege(Privilege.PRIVILEGED_USER).build()
+        );
+
+        DepartureDefinedTransition<?, ?, Impact, Object> elected = elector(descriptors).electTransition(new FooState(), impact);
+
+        assertThat(elected.getDescriptor()).isSameAs(descriptors.get(3));
+    }
+
+    @Test
+    void electTransition_severalInTopBucket_throwsWithAllOfThem() {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, BarState.class).priority(1).build(),
+            descriptorBuilder(FooState.class, BazState.class).priority(1).build()
+        );
+
+        TransitionElectionException exception = catchThrowableOfType(() -> elector(descriptors).electTransition(new FooState(), impact),
+                                                                     TransitionElectionException.class);
+
+        assertThat(exception).isNotNull();
+        assertThat(exception.getElectedDescriptors()).containsExactlyElementsOf(descriptors);
+    }
+
+    @Test
+    void electTransition_onlyMinusOnePriority_elected() throws TransitionElectionException {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, BarState.class).priority(-1).build()
+        );
+
+        DepartureDefinedTransition<?, ?, Impact, Object> elected = elector(descriptors).electTransition(new FooState(), impact);
+
+        assertThat(elected.getDescriptor()).isSameAs(descriptors.get(0));
+    }
+
+    @Test
+    void electTransition_onlyPriorityLowerThanMinusOne_throwsZeroElected() {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, BarState.class).priority(-2).build()
+        );
+
+        TransitionElectionException exception = catchThrowableOfType(() -> elector(descriptors).electTransition(new FooState(), impact),
+                                                                     TransitionElectionException.class);
+
+        assertThat(exception).isNotNull();
+        assertThat(exception.isZeroElected()).isTrue();
+    }
+
+    @Test
+    void electTransition_nothingRequiresElevatedPrivilege_accountIsNotLookedUp() throws TransitionElectionException {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, BarState.class).build()
+        );
+
+        elector(descriptors).electTransition(new FooState(), impact);
+
+        verifyNoInteractions(accountService);
+    }
+
+    @Test
+    void electTransition_elevatedTransitionIsNotSuitable_accountIsNotLookedUp() throws TransitionElectionException {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, BarState.class)
+                .priority(1)
+                .requiredPrivilege(Privilege.CREATOR)
+                .suitabilityCondition((a, b) -> false)
+                .build(),
+            descriptorBuilder(FooState.class, BazState.class).build()
+        );
+
+        DepartureDefinedTransition<?, ?, Impact, Object> elected = elector(descriptors).electTransition(new FooState(), impact);
+
+        assertThat(elected.getDescriptor()).isSameAs(descriptors.get(1));
+        verifyNoInteractions(accountService);
+    }
+
+    private PriorityBucketTransitionElector<Impact, Object> elector(List<TransitionDescriptor<?, ?, Impact, Object>> descriptors) {
+        return new PriorityBucketTransitionElector<>(new ClassMappingStateGraph<>(descriptors), accountService);
+    }
+
+    private void withInitiatorPrivilege(Privilege privilege) {
+        AuthenticationData authData = authData("alice");
+        when(impact.getInitiatorAuthData()).thenReturn(authData);
+        Account account = new Account();
+        account.setPrivilege(privilege);
+        when(accountService.getAssociatedAccount(same(authData))).thenReturn(Optional.of(account));
+    }
+}
@@ -3,6 +3,7 @@ package ua.ddovgal.mangamonitoring.state.election;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +14,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ua.ddovgal.mangamonitoring.state.Impact;
 import ua.ddovgal.mangamonitoring.state.State;
 import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.graph.ClassMappingStateGraph;
+import ua.ddovgal.mangamonitoring.state.graph.DepartureTable;
 import ua.ddovgal.mangamonitoring.state.graph.StateGraph;
 import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
 import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
@@ -53,7 +56,7 @@ class SimpleTransitionElectorTest {
 
         DepartureDefinedTransition<?, ?, Impact, Object> electedTransition = elector.electTransition(departure, impact);
 
-        assertThat(electedTransition).isSameAs(transition);
+        assertThat(electedTransition.getDescriptor()).isSameAs(transition.getDescriptor());
         verifyNoMoreInteractions(stateGraph, filters);
     }
 
@@ -67,6 +70,21 @@ class SimpleTransitionElectorTest {
         verifyNoMoreInteractions(stateGraph, filters);
     }
 
+    @Test
+    void elect_nooneWasSuitable_sharedNoneOutcomeReturned(@Mock State departure, @Mock Impact impact) {
+        defineGraphWillReturnTransitionsForState(departure,
+                                                 transition(departure, FooState.class, false),
+                                                 transition(departure, BarState.class, false));
+        defineFilters((a, b, list) -> list,
+                      (a, b, transitions) -> new ArrayList<>(transitions) /*actually it doesn't matter*/);
+
+        ElectionOutcome<Impact, Object> outcome = elector.elect(departure, impact);
+
+        assertThat(outcome.isElected()).isFalse();
+        assertThat(outcome).isSameAs(ElectionOutcome.none());
+        verifyNoMoreInteractions(stateGraph, filters);
+    }
+
     @Test
     void electTransition_nooneWasSuitable_throwsTransitionElectionException(@Mock State departure, @Mock Impact impact) {
         defineGraphWillReturnTransitionsForState(departure,
@@ -89,7 +107,7 @@ class SimpleTransitionElectorTest {
 
         DepartureDefinedTransition<?, ?, Impact, Object> electedTransition = elector.electTransition(departure, impact);
 
-        assertThat(electedTransition).isSameAs(transition);
+        assertThat(electedTransition.getDescriptor()).isSameAs(transition.getDescriptor());
         verifyNoMoreInteractions(stateGraph, filters);
     }
 
@@ -141,9 +159,15 @@ class SimpleTransitionElectorTest {
     }
 
     @SafeVarargs
+    @SuppressWarnings("unchecked")
     private void defineGraphWillReturnTransitionsForState(State departure,
                                                           DepartureDefinedTransition<State, ?, Impact, Object>... transitions) {
-        when(stateGraph.getDepartingTransitions(same(departure))).thenReturn(Arrays.asList(transitions));
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = Arrays.stream(transitions)
+            .map(DepartureDefinedTransition::getDescriptor)
+            .collect(Collectors.toList());
+        Class<State> departureClass = (Class<State>) departure.getClass();
+        DepartureTable<State, Impact, Object> table = new ClassMappingStateGraph<>(descriptors).getDepartureTable(departureClass);
+        when(stateGraph.getDepartureTable(same(departureClass))).thenReturn(table);
     }
 
     @SafeVarargs
@@ -8,8 +8,11 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+import ua.ddovgal.mangamonitoring.domain.Privilege;
 import ua.ddovgal.mangamonitoring.state.Impact;
 import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.graph.DepartureTable.PriorityBucket;
 import ua.ddovgal.mangamonitoring.state.transition.DepartureDefinedTransition;
 import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
 import ua.ddovgal.mangamonitoring.state.utils.States;
@@ -22,6 +25,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatNoException;
 
 import static ua.ddovgal.mangamonitoring.state.utils.DescriptorUtils.descriptor;
+import static ua.ddovgal.mangamonitoring.state.utils.DescriptorUtils.descriptorBuilder;
 import static ua.ddovgal.mangamonitoring.state.utils.States.TEST_GRAPH_DESCRIPTORS;
 
 @SuppressWarnings("rawtypes")
@@ -91,6 +95,102 @@ class ClassMappingStateGraphTest {
         assertThatForStateArrivalClassesWillBe(graph, new BarState(), FooState.class, FooState.class);
     }
 
+    @Test
+    void getDepartureTable_sameStateClass_returnsSameSharedTable() {
+        ClassMappingStateGraph<Impact, Object> graph = new ClassMappingStateGraph<>(TEST_GRAPH_DESCRIPTORS);
+
+        DepartureTable<BazState, Impact, Object> table = graph.getDepartureTable(BazState.class);
+
+        assertThat(table).isSameAs(graph.getDepartureTable(BazState.class));
+        assertThat(table.getDescriptors())
+            .hasSize(3)
+            .isSameAs(graph.getDepartureTable(BazState.class).getDescriptors());
+    }
+
+    @Test
+    void getDepartureTable_stateIsNotInGraph_returnsEmptyTable() {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(descriptor(FooState.class, BarState.class));
+        ClassMappingStateGraph<Impact, Object> graph = new ClassMappingStateGraph<>(descriptors);
+
+        assertThat(graph.getDepartureTable(BarState.class).isEmpty()).isTrue();
+        assertThat(graph.getDepartureTable(BazState.class).isEmpty()).isTrue();
+        assertThat(graph.getDepartureTable(BazState.class).bind(new BazState())).isEmpty();
+    }
+
+    @Test
+    void getDepartureTable_differentPriorities_bucketsOrderedFromHighest() {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, FooState.class).build(),
+            descriptorBuilder(FooState.class, BarState.class).priority(3).build(),
+            descriptorBuilder(FooState.class, BazState.class).priority(-1).build(),
+            descriptorBuilder(FooState.class, BazState.class).build()
+        );
+        ClassMappingStateGraph<Impact, Object> graph = new ClassMappingStateGraph<>(descriptors);
+
+        List<PriorityBucket<FooState, Impact, Object>> buckets = graph.getDepartureTable(FooState.class).getPriorityBuckets();
+
+        assertThat(buckets).extracting(PriorityBucket::getPriority).containsExactly(3, 0, -1);
+        assertThat((List) buckets.get(1).getDescriptors()).containsExactly(descriptors.get(0), descriptors.get(3));
+    }
+
+    @Test
+    void getDepartureTable_differentRequiredPrivileges_partitionedByPrivilege() {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, FooState.class).build(),
+            descriptorBuilder(FooState.class, BarState.class).requiredPrivilege(Privilege.CREATOR).build(),
+            descriptorBuilder(BarState.class, FooState.class).build()
+        );
+        ClassMappingStateGraph<Impact, Object> graph = new ClassMappingStateGraph<>(descriptors);
+
+        DepartureTable<FooState, Impact, Object> fooTable = graph.getDepartureTable(FooState.class);
+
+        assertThat(fooTable.requiresElevatedPrivilege()).isTrue();
+        assertThat((List) fooTable.getDescriptors(Privilege.PRIVILEGED_USER)).containsExactly(descriptors.get(0));
+        assertThat((List) fooTable.getDescriptors(Privilege.CREATOR)).containsExactly(descriptors.get(0), descriptors.get(1));
+        assertThat(graph.getDepartureTable(BarState.class).requiresElevatedPrivilege()).isFalse();
+    }
+
+    @Test
+    void narrow_discriminatedDescriptors_onlyMatchingAndUndiscriminatedLeft() {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptorBuilder(FooState.class, BarState.class).discriminator("/start").build(),
+            descriptorBuilder(FooState.class, FooState.class).build(),
+            descriptorBuilder(FooState.class, BazState.class).discriminator("/help").build(),
+            descriptorBuilder(FooState.class, BazState.class).discriminator("/start").build()
+        );
+        ClassMappingStateGraph<Impact, Object> graph = new ClassMappingStateGraph<>(descriptors);
+        DepartureTable<FooState, Impact, Object> table = graph.getDepartureTable(FooState.class);
+
+        assertThat((List) table.narrow(impact("/start")).getDescriptors())
+            .containsExactly(descriptors.get(0), descriptors.get(1), descriptors.get(3));
+        assertThat((List) table.narrow(impact("/help")).getDescriptors()).containsExactly(descriptors.get(1), descriptors.get(2));
+        assertThat((List) table.narrow(impact("/unknown")).getDescriptors()).containsExactly(descriptors.get(1));
+        assertThat((List) table.narrow(impact(null)).getDescriptors()).containsExactly(descriptors.get(1));
+        assertThat(table.narrow(impact("/start"))).isSameAs(table.narrow(impact("/start")));
+    }
+
+    @Test
+    void narrow_noDiscriminatedDescriptors_returnsSameTable() {
+        ClassMappingStateGraph<Impact, Object> graph = new ClassMappingStateGraph<>(TEST_GRAPH_DESCRIPTORS);
+        DepartureTable<BazState, Impact, Object> table = graph.getDepartureTable(BazState.class);
+
+        assertThat(table.narrow(impact("/start"))).isSameAs(table);
+    }
+
+    private static Impact impact(String discriminator) {
+        return new Impact() {
+            @Override
+            public AuthenticationData getInitiatorAuthData() {
+                return null;
+            }
+
+            @Override
+            public String getDiscriminator() {
+                return discriminator;
+            }
+        };
+    }
+
     @SafeVarargs
     private void assertThatForStateArrivalClassesWillBe(StateGraph<?, ?> graph, State state, Class<? extends State>... arrivalClasses) {
         assertThat(graph.getDepartingTransitions(state))
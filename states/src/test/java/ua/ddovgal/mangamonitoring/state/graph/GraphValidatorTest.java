@@ -51,6 +51,44 @@ class GraphValidatorTest {
             .haveExactly(1, fromPredicate(s -> s.contains("no initial")));
     }
 
+    @Test
+    void checkBaseAcceptability_unreachableCycle_eachStateReported() {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptor(NoInteractionsBeforeState.class, FooState.class),
+            descriptor(FooState.class, BarState.class),
+            descriptor(BarState.class, FooState.class),
+            // BAZ and BEGIN have incoming transitions, but can't be reached from NIB
+            descriptor(BazState.class, BeginState.class),
+            descriptor(BeginState.class, BazState.class)
+        );
+
+        List<String> violations = GraphValidator.checkBaseAcceptability(descriptors);
+
+        assertThat(violations)
+            .hasSize(2)
+            .haveExactly(1, fromPredicate(s -> s.contains("unreachable state=BazState")))
+            .haveExactly(1, fromPredicate(s -> s.contains("unreachable state=BeginState")));
+    }
+
+    @Test
+    void checkBaseAcceptability_twoTraps_eachTrapReported() {
+        List<TransitionDescriptor<?, ?, Impact, Object>> descriptors = List.of(
+            descriptor(NoInteractionsBeforeState.class, FooState.class),
+            descriptor(NoInteractionsBeforeState.class, BarState.class),
+            descriptor(FooState.class, BeginState.class),
+            descriptor(BeginState.class, FooState.class),
+            descriptor(BarState.class, BazState.class),
+            descriptor(BazState.class, BarState.class)
+        );
+
+        List<String> violations = GraphValidator.checkBaseAcceptability(descriptors);
+
+        assertThat(violations)
+            .hasSize(2)
+            .haveExactly(1, fromPredicate(s -> s.contains("trap of states=[FooState, BeginState]")))
+            .haveExactly(1, fromPredicate(s -> s.contains("trap of states=[BarState, BazState]")));
+    }
+
     @ParameterizedTest(name = "For {index} transitions set")
     @MethodSource("source_buildTransitionMatrix")
     void buildTransitionMatrix(List<TransitionDescriptor<?, ?, Impact, Object>> descriptors,
@@ -0,0 +1,71 @@
+package ua.ddovgal.mangamonitoring.state.graph;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.jupiter.api.Test;
+
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.NoInteractionsBeforeState;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+import ua.ddovgal.mangamonitoring.state.utils.States.BarState;
+import ua.ddovgal.mangamonitoring.state.utils.States.FooState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static ua.ddovgal.mangamonitoring.state.utils.DescriptorUtils.descriptor;
+
+@SuppressWarnings({ "unchecked", "rawtypes" })
+class SwappableStateGraphTest {
+
+    private static final List<TransitionDescriptor<?, ?, Impact, Object>> VALID_DESCRIPTORS = List.of(
+        descriptor(NoInteractionsBeforeState.class, FooState.class),
+        descriptor(FooState.class, BarState.class),
+        descriptor(BarState.class, FooState.class)
+    );
+
+    @Test
+    void replace_validDescriptors_newSnapshotPublished() {
+        StateGraph<Impact, Object> initial = new ClassMappingStateGraph<>(List.of());
+        SwappableStateGraph<Impact, Object> graph = new SwappableStateGraph<>(initial, Runnable::run);
+
+        List<String> violations = graph.replace(VALID_DESCRIPTORS).join();
+
+        assertThat(violations).isEmpty();
+        assertThat(graph.getSnapshot()).isNotSameAs(initial);
+        assertThat(graph.getVersion()).isOne();
+        assertThat((List) graph.getDepartureTable(FooState.class).getDescriptors()).containsExactly(VALID_DESCRIPTORS.get(1));
+    }
+
+    @Test
+    void replace_invalidDescriptors_currentSnapshotKept() {
+        StateGraph<Impact, Object> initial = new ClassMappingStateGraph<>(VALID_DESCRIPTORS);
+        SwappableStateGraph<Impact, Object> graph = new SwappableStateGraph<>(initial, Runnable::run);
+
+        List<String> violations = graph.replace(List.of(descriptor(FooState.class, BarState.class))).join();
+
+        assertThat(violations).isNotEmpty();
+        assertThat(graph.getSnapshot()).isSameAs(initial);
+        assertThat(graph.getVersion()).isZero();
+    }
+
+    @Test
+    void replace_earlierRequestCompletesLast_laterRequestWins() {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        SwappableStateGraph<Impact, Object> graph = new SwappableStateGraph<>(new ClassMappingStateGraph<>(List.of()), tasks::add);
+        List<TransitionDescriptor<?, ?, Impact, Object>> later = List.of(
+            descriptor(NoInteractionsBeforeState.class, FooState.class),
+            descriptor(FooState.class, NoInteractionsBeforeState.class)
+        );
+
+        graph.replace(VALID_DESCRIPTORS);
+        graph.replace(later);
+        Runnable earlierTask = tasks.poll();
+        tasks.poll().run();
+        earlierTask.run();
+
+        assertThat(graph.getVersion()).isEqualTo(2);
+        assertThat((List) graph.getDepartureTable(FooState.class).getDescriptors()).containsExactly(later.get(1));
+    }
+}
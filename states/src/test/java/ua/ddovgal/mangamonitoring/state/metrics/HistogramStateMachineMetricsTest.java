@@ -0,0 +1,67 @@
+package ua.ddovgal.mangamonitoring.state.metrics;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.State;
+import ua.ddovgal.mangamonitoring.state.election.TransitionElector;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionElectionException;
+import ua.ddovgal.mangamonitoring.state.transition.TransitionDescriptor;
+import ua.ddovgal.mangamonitoring.state.utils.States.BarState;
+import ua.ddovgal.mangamonitoring.state.utils.States.FooState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HistogramStateMachineMetricsTest {
+
+    @Mock
+    private TransitionElector<Impact, Object> delegate;
+
+    @Test
+    void electTransition_electionsFailed_failuresCountedByKind(@Mock Impact impact) throws TransitionElectionException {
+        State departure = new FooState();
+        TransitionDescriptor<?, ?, ?, ?> descriptor = mock(TransitionDescriptor.class);
+        when(delegate.electTransition(same(departure), same(impact)))
+            .thenThrow(new TransitionElectionException(impact, departure, List.of()))
+            .thenThrow(new TransitionElectionException(impact, departure, List.of(descriptor, descriptor)));
+        HistogramStateMachineMetrics metrics = new HistogramStateMachineMetrics();
+        MeteredTransitionElector<Impact, Object> elector = new MeteredTransitionElector<>(delegate, metrics);
+
+        assertThatExceptionOfType(TransitionElectionException.class).isThrownBy(() -> elector.electTransition(departure, impact));
+        assertThatExceptionOfType(TransitionElectionException.class).isThrownBy(() -> elector.electTransition(departure, impact));
+
+        assertThat(metrics.getZeroElectedFailuresCount()).isOne();
+        assertThat(metrics.getManyElectedFailuresCount()).isOne();
+        assertThat(metrics.getElections().getCount()).isEqualTo(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void recordExecution_descriptorsOfSameDirection_sharedHistogram() {
+        TransitionDescriptor<FooState, BarState, Impact, Object> first = mock(TransitionDescriptor.class);
+        when(first.getDepartureState()).thenReturn(FooState.class);
+        when(first.getArrivalState()).thenReturn(BarState.class);
+        TransitionDescriptor<FooState, BarState, Impact, Object> second = mock(TransitionDescriptor.class);
+        when(second.getDepartureState()).thenReturn(FooState.class);
+        when(second.getArrivalState()).thenReturn(BarState.class);
+        HistogramStateMachineMetrics metrics = new HistogramStateMachineMetrics();
+
+        metrics.recordExecution(first, 10, true);
+        metrics.recordExecution(first, 20, true);
+        metrics.recordExecution(second, 30, false);
+
+        assertThat(metrics.getExecutions()).containsOnlyKeys("FooState-BarState");
+        assertThat(metrics.getExecutions().get("FooState-BarState").getCount()).isEqualTo(3);
+        assertThat(metrics.getFailedExecutionsCount()).isOne();
+    }
+}
@@ -0,0 +1,64 @@
+package ua.ddovgal.mangamonitoring.state.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void getValueAtPercentile_nothingRecorded_zero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.getValueAtPercentile(99)).isZero();
+        assertThat(histogram.getCount()).isZero();
+    }
+
+    @Test
+    void getValueAtPercentile_smallValues_exact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertThat(histogram.getValueAtPercentile(50)).isEqualTo(50);
+        assertThat(histogram.getValueAtPercentile(99)).isEqualTo(99);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100);
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getMax()).isEqualTo(100);
+    }
+
+    @Test
+    void getValueAtPercentile_largeValues_withinOnePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1_000);
+        }
+
+        assertThat(histogram.getValueAtPercentile(50)).isCloseTo(50_000_000L, within(500_000L));
+        assertThat(histogram.getValueAtPercentile(99)).isCloseTo(99_000_000L, within(990_000L));
+        assertThat(histogram.getValueAtPercentile(99.9)).isCloseTo(99_900_000L, within(999_000L));
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100_000_000L);
+    }
+
+    @Test
+    void indexOf_wholeRange_bucketsAreContiguousAndCoverValue() {
+        long previousHighest = -1;
+        for (int index = 0; index < LatencyHistogram.indexOf(Long.MAX_VALUE) + 1; index++) {
+            long highest = LatencyHistogram.highestEquivalentValue(index);
+            assertThat(LatencyHistogram.indexOf(previousHighest + 1)).isEqualTo(index);
+            assertThat(LatencyHistogram.indexOf(highest)).isEqualTo(index);
+            previousHighest = highest;
+        }
+        assertThat(previousHighest).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void getValueAtPercentile_outOfRange_exceptionThrown() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> histogram.getValueAtPercentile(100.1));
+    }
+}
@@ -0,0 +1,135 @@
+package ua.ddovgal.mangamonitoring.state.transition;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import ua.ddovgal.mangamonitoring.core.exception.ApplicationStartupException;
+import ua.ddovgal.mangamonitoring.state.Impact;
+import ua.ddovgal.mangamonitoring.state.exception.TransitionExecutionException;
+import ua.ddovgal.mangamonitoring.state.utils.States.BarState;
+import ua.ddovgal.mangamonitoring.state.utils.States.FooState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import static ua.ddovgal.mangamonitoring.state.utils.DescriptorUtils.descriptorBuilder;
+
+class TransitionExecutionPoolTest {
+
+    private static final Duration LONG_TIME = Duration.ofHours(1);
+
+    private TransitionExecutionPool pool;
+
+    @AfterEach
+    void stopPool() {
+        pool.stop();
+    }
+
+    @Test
+    void execute_completesInTime_arrivalReturned() throws ApplicationStartupException, TransitionExecutionException {
+        pool = startedPool(1, LONG_TIME);
+        BarState arrival = new BarState();
+        TransitionDescriptor<FooState, BarState, Impact, Object> guarded = pool.guard(
+            descriptorBuilder(FooState.class, BarState.class).executionFunction((departure, impact) -> arrival).build());
+
+        assertThat(guarded.execute(new FooState(), null)).isSameAs(arrival);
+    }
+
+    @Test
+    void execute_descriptorDeadlineExceeded_actionInterruptedAndExceptionThrown() throws ApplicationStartupException, InterruptedException {
+        pool = startedPool(1, LONG_TIME);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        TransitionDescriptor<FooState, BarState, Impact, Object> guarded = pool.guard(
+            descriptorBuilder(FooState.class, BarState.class)
+                .executionDeadline(Duration.ofMillis(50))
+                .executionFunction((departure, impact) -> {
+                    try {
+                        Thread.sleep(LONG_TIME.toMillis());
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return new BarState();
+                })
+                .build());
+
+        TransitionExecutionException exception = catchThrowableOfType(() -> guarded.execute(new FooState(), null),
+                                                                      TransitionExecutionException.class);
+
+        assertThat(exception.getCode()).isEqualTo(TransitionExecutionPool.DEADLINE_EXCEEDED_CODE);
+        assertThat(interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void execute_poolAndQueueAreFull_rejectedWithoutWaiting() throws ApplicationStartupException, InterruptedException {
+        pool = startedPool(1, LONG_TIME);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransitionDescriptor<FooState, BarState, Impact, Object> guarded = pool.guard(
+            descriptorBuilder(FooState.class, BarState.class)
+                .executionFunction((departure, impact) -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new BarState();
+                })
+                .build());
+        // the first one occupies the thread, the second one occupies the queue
+        Thread running = new Thread(() -> catchThrowableOfType(() -> guarded.execute(new FooState(), null), Exception.class));
+        Thread queued = new Thread(() -> catchThrowableOfType(() -> guarded.execute(new FooState(), null), Exception.class));
+        running.start();
+        started.await();
+        queued.start();
+        while (queued.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+
+        try {
+            TransitionExecutionException exception = catchThrowableOfType(() -> guarded.execute(new FooState(), null),
+                                                                          TransitionExecutionException.class);
+
+            assertThat(exception.getCode()).isEqualTo(TransitionExecutionPool.POOL_SATURATED_CODE);
+        } finally {
+            release.countDown();
+            running.join();
+            queued.join();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void executeAsync_asyncDescriptorDeadlineExceeded_futureFailed() throws ApplicationStartupException {
+        pool = startedPool(1, LONG_TIME);
+        AsyncTransitionDescriptor<FooState, BarState, Impact, Object> descriptor = mock(AsyncTransitionDescriptor.class);
+        when(descriptor.getDepartureState()).thenReturn(FooState.class);
+        when(descriptor.getArrivalState()).thenReturn(BarState.class);
+        when(descriptor.getExecutionDeadline()).thenReturn(Duration.ofMillis(50));
+        when(descriptor.executeAsync(any(), any())).thenReturn(new CompletableFuture<>());
+
+        TransitionDescriptor<FooState, BarState, Impact, Object> guarded = pool.guard(descriptor);
+        assertThat(guarded).isInstanceOf(AsyncTransitionDescriptor.class);
+        CompletableFuture<BarState> arrival = ((AsyncTransitionDescriptor<FooState, BarState, Impact, Object>) guarded)
+            .executeAsync(new FooState(), null);
+        ExecutionException exception = catchThrowableOfType(arrival::get, ExecutionException.class);
+
+        assertThat(exception.getCause()).isInstanceOfSatisfying(TransitionExecutionException.class, cause ->
+            assertThat(cause.getCode()).isEqualTo(TransitionExecutionPool.DEADLINE_EXCEEDED_CODE));
+    }
+
+    private static TransitionExecutionPool startedPool(int queueCapacity, Duration defaultDeadline) throws ApplicationStartupException {
+        TransitionExecutionPool started = new TransitionExecutionPool(1, queueCapacity, defaultDeadline, LONG_TIME);
+        started.start();
+        return started;
+    }
+}
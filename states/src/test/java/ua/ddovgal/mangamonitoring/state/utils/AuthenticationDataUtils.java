@@ -0,0 +1,39 @@
+package ua.ddovgal.mangamonitoring.state.utils;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import ua.ddovgal.mangamonitoring.api.AuthenticationData;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class AuthenticationDataUtils {
+
+    /**
+     * Creates authentication data, which identifier is the {@code identifier} itself. Unlike the mock, it's cheap enough to be created on
+     * each impact, even from the several threads, and has no stubbing for the strict stubs to complain about.
+     *
+     * @param identifier identifier (and username) of the user.
+     *
+     * @return authentication data of the user.
+     */
+    public static AuthenticationData authData(String identifier) {
+        return new TestAuthenticationData(identifier);
+    }
+
+    private static final class TestAuthenticationData extends AuthenticationData {
+
+        private TestAuthenticationData(String identifier) {
+            super(identifier);
+        }
+
+        @Override
+        public String getIdentifier() {
+            return getUsername();
+        }
+
+        @Override
+        protected void processIdentifier(String identifier) {
+            // identifier is the username itself
+        }
+    }
+}